@@ -0,0 +1,78 @@
+package com.example.paintapp;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pomiar kosztu narysowania jednej ścieżki w każdym stylu pędzla na urządzeniu.
+ * Wyniki zapisywane są w logu pod znacznikiem BrushStyleCost, a test nie przechodzi,
+ * gdy ścieżka w którymkolwiek stylu rysuje się dłużej niż MAX_NANOS_PER_STROKE.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BrushStyleCostTest {
+    private static final String TAG = "BrushStyleCost";
+    private static final int STROKES = 200;
+    private static final int POINTS = 64;
+    private static final float WIDTH = 12;
+    //Dorysowanie nowej ścieżki do kafelków nie może zająć więcej niż czwartej części klatki 16 ms
+    private static final long MAX_NANOS_PER_STROKE = 4_000_000;
+
+    @Test
+    public void measureRenderCostPerStroke() {
+        Bitmap bitmap = Bitmap.createBitmap(1024, 1024, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        try {
+            for (BrushStyle style : BrushStyle.values()) {
+                StrokeRenderer renderer = new StrokeRenderer(new PaintPool(PaintPool.DEFAULT_MAX_SIZE));
+                List<Stroke> strokes = randomStrokes(StrokeStyle.of(0xFF000000, WIDTH, style, false));
+                //Pierwsze rysowanie tworzy pędzel i rozgrzewa potok rysowania
+                for (Stroke stroke : strokes) {
+                    renderer.drawStroke(canvas, stroke);
+                }
+                long start = System.nanoTime();
+                for (Stroke stroke : strokes) {
+                    renderer.drawStroke(canvas, stroke);
+                }
+                long perStroke = (System.nanoTime() - start) / STROKES;
+                Log.i(TAG, style + ": " + perStroke / 1000 + " us na ścieżkę");
+                assertTrue(style + ": " + perStroke / 1000 + " us na ścieżkę", perStroke <= MAX_NANOS_PER_STROKE);
+            }
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private static List<Stroke> randomStrokes(StrokeStyle style) {
+        Random random = new Random(7);
+        List<Stroke> strokes = new ArrayList<>(STROKES);
+        for (int i = 0; i < STROKES; i++) {
+            //Odręczna linia jako błądzenie losowe
+            float x = 100 + random.nextFloat() * 800;
+            float y = 100 + random.nextFloat() * 800;
+            Stroke stroke = new Stroke(style, ShapeType.LINE);
+            for (int p = 0; p < POINTS; p++) {
+                x += random.nextFloat() * 8 - 4;
+                y += random.nextFloat() * 8 - 4;
+                if (style.getBrushStyle() == BrushStyle.PRESSURE) {
+                    stroke.addPoint(x, y, random.nextFloat());
+                } else {
+                    stroke.addPoint(x, y);
+                }
+            }
+            strokes.add(stroke);
+        }
+        return strokes;
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Klasa BackgroundLoader wczytuje obraz tła w wątku w tle.
+ * Najpierw odczytuje jedynie wymiary obrazu, a następnie dekoduje go z pomniejszeniem
+ * dobranym do rozmiaru widoku, uwzględniając orientację zapisaną w EXIF.
+ * Rozpoczęcie kolejnego wczytywania anuluje poprzednie.
+ */
+public class BackgroundLoader {
+    //Wspólny wątek dekodowania obrazów
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+    //Maksymalny rozmiar boku obrazu, gdy rozmiar widoku nie jest jeszcze znany
+    private static final int MAX_UNKNOWN_SIZE = 2048;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    //Numer aktualnego wczytywania; starsze wyniki są odrzucane
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Interfejs Listener otrzymuje w wątku głównym wynik wczytywania.
+     */
+    public interface Listener {
+        /**
+         * @param bitmap - wczytany obraz o rozmiarze docelowym
+         */
+        void onLoaded(Bitmap bitmap);
+
+        /**
+         * @param e - błąd odczytu obrazu
+         */
+        void onError(IOException e);
+    }
+
+    /**
+     * Rozpoczyna wczytywanie obrazu, anulując poprzednie wczytywanie.
+     * @param resolver - dostęp do treści URI
+     * @param uri - URI obrazu
+     * @param width - docelowa szerokość lub 0, jeśli nieznana
+     * @param height - docelowa wysokość lub 0, jeśli nieznana
+     * @param listener - odbiorca wyniku
+     */
+    public void load(ContentResolver resolver, Uri uri, int width, int height, Listener listener) {
+        int id = generation.incrementAndGet();
+        EXECUTOR.execute(() -> {
+            try {
+                Bitmap bitmap = decode(resolver, uri, width, height, id);
+                if (bitmap != null) {
+                    mainHandler.post(() -> {
+                        if (id == generation.get()) {
+                            listener.onLoaded(bitmap);
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                mainHandler.post(() -> {
+                    if (id == generation.get()) {
+                        listener.onError(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Anuluje aktualne wczytywanie. Jego wynik nie zostanie przekazany.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Dekoduje obraz w wątku w tle.
+     * @return obraz lub null, jeśli wczytywanie zostało anulowane
+     */
+    private Bitmap decode(ContentResolver resolver, Uri uri, int width, int height, int id) throws IOException {
+        //Odczyt samych wymiarów, bez alokacji pikseli
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Nieobsługiwany format obrazu: " + uri);
+        }
+        if (id != generation.get()) {
+            return null;
+        }
+
+        int orientation;
+        try (InputStream in = open(resolver, uri)) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        }
+        boolean swapped = orientation == ExifInterface.ORIENTATION_ROTATE_90
+                || orientation == ExifInterface.ORIENTATION_ROTATE_270
+                || orientation == ExifInterface.ORIENTATION_TRANSPOSE
+                || orientation == ExifInterface.ORIENTATION_TRANSVERSE;
+        //Wymiary obrazu po obrocie
+        int imageWidth = swapped ? options.outHeight : options.outWidth;
+        int imageHeight = swapped ? options.outWidth : options.outHeight;
+        int targetWidth = width > 0 ? width : Math.min(imageWidth, MAX_UNKNOWN_SIZE);
+        int targetHeight = height > 0 ? height : Math.min(imageHeight, MAX_UNKNOWN_SIZE);
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateInSampleSize(imageWidth, imageHeight, targetWidth, targetHeight);
+        Bitmap decoded;
+        try (InputStream in = open(resolver, uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Nie udało się zdekodować obrazu: " + uri);
+        }
+        if (id != generation.get()) {
+            decoded.recycle();
+            return null;
+        }
+
+        //Obrót zgodnie z EXIF i dopasowanie do rozmiaru docelowego w jednym przekształceniu
+        Matrix matrix = exifMatrix(orientation);
+        int decodedWidth = swapped ? decoded.getHeight() : decoded.getWidth();
+        int decodedHeight = swapped ? decoded.getWidth() : decoded.getHeight();
+        matrix.postScale((float) targetWidth / decodedWidth, (float) targetHeight / decodedHeight);
+        Bitmap result = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+        if (result != decoded) {
+            decoded.recycle();
+        }
+        return result;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Nie można otworzyć obrazu: " + uri);
+        }
+        return in;
+    }
+
+    /**
+     * Oblicza największy współczynnik pomniejszenia (potęgę dwójki),
+     * przy którym obraz jest nadal nie mniejszy niż rozmiar docelowy.
+     * @param width - szerokość obrazu
+     * @param height - wysokość obrazu
+     * @param targetWidth - szerokość docelowa
+     * @param targetHeight - wysokość docelowa
+     * @return współczynnik inSampleSize
+     */
+    static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Zwraca przekształcenie odpowiadające orientacji zapisanej w EXIF.
+     * @param orientation - wartość znacznika orientacji
+     * @return macierz przekształcenia
+     */
+    private static Matrix exifMatrix(int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                break;
+        }
+        return matrix;
+    }
+}
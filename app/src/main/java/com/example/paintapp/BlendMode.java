@@ -0,0 +1,52 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Typ wyliczeniowy BlendMode określa sposób łączenia warstwy z warstwami pod nią.
+ * Kolejność stałych zapisywana jest w dokumencie, nowe tryby należy dodawać na końcu.
+ */
+public enum BlendMode {
+    NORMAL("Normalny"),
+    MULTIPLY("Mnożenie"),
+    SCREEN("Rozjaśnienie"),
+    OVERLAY("Nakładka"),
+    DARKEN("Ciemniejszy"),
+    LIGHTEN("Jaśniejszy"),
+    ADD("Dodawanie");
+
+    private final String displayName;
+
+    BlendMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return nazwy trybów w kolejności stałych, np. do okna wyboru
+     */
+    public static String[] displayNames() {
+        BlendMode[] modes = values();
+        String[] names = new String[modes.length];
+        for (int i = 0; i < modes.length; i++) {
+            names[i] = modes[i].displayName;
+        }
+        return names;
+    }
+}
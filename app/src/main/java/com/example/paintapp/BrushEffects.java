@@ -0,0 +1,138 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.BlurMaskFilter;
+import android.graphics.DashPathEffect;
+import android.graphics.MaskFilter;
+import android.graphics.Path;
+import android.graphics.PathDashPathEffect;
+import android.graphics.PathEffect;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Klasa BrushEffects przechowuje wspólne efekty pędzli (PathEffect, MaskFilter).
+ * Efekty są niezmienne, dlatego jeden obiekt może być używany przez wiele pędzli i wątków,
+ * a zmiana stylu pędzla nie tworzy nowych obiektów.
+ * Efekty stemplujące kształt wzdłuż ścieżki zależą od grubości pędzla i są tworzone raz dla każdej grubości,
+ * a pamiętanych jest tylko {@link #MAX_SIZED_EFFECTS} ostatnio używanych grubości każdego stylu,
+ * jak w PaintPool, bo każdy efekt zajmuje pamięć natywną.
+ */
+public final class BrushEffects {
+    private static final PathEffect DASHED = new DashPathEffect(new float[]{20, 10}, 0);
+    private static final PathEffect DOTTED = new DashPathEffect(new float[]{5, 10}, 0);
+    private static final MaskFilter BLUR = new BlurMaskFilter(PaintPool.BLUR_RADIUS, BlurMaskFilter.Blur.NORMAL);
+    //Liczba kropel w jednym stemplu aerografu
+    private static final int AIRBRUSH_DROPS = 12;
+    //Maksymalna liczba pamiętanych efektów zależnych od grubości, osobno dla każdego stylu
+    public static final int MAX_SIZED_EFFECTS = 32;
+
+    //Efekty zależne od grubości pędzla, kluczem jest grubość
+    private static final Map<Float, PathEffect> CALLIGRAPHY = sizedEffects();
+    private static final Map<Float, PathEffect> AIRBRUSH = sizedEffects();
+
+    private BrushEffects() {
+    }
+
+    /**
+     * @return mapa efektów usuwająca najdawniej używane efekty po przekroczeniu limitu
+     */
+    private static Map<Float, PathEffect> sizedEffects() {
+        return new LinkedHashMap<Float, PathEffect>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Float, PathEffect> eldest) {
+                return size() > MAX_SIZED_EFFECTS;
+            }
+        };
+    }
+
+    /**
+     * Zwraca wspólny efekt ścieżki dla stylu pędzla.
+     * @param style - styl pędzla
+     * @param strokeWidth - grubość pędzla
+     * @return efekt lub null, jeśli styl go nie wymaga
+     */
+    public static PathEffect pathEffect(BrushStyle style, float strokeWidth) {
+        switch (style) {
+            case DASHED:
+                return DASHED;
+            case DOTTED:
+                return DOTTED;
+            case CALLIGRAPHY:
+                return calligraphy(strokeWidth);
+            case AIRBRUSH:
+                return airbrush(strokeWidth);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Zwraca wspólny filtr maski dla stylu pędzla.
+     * @param style - styl pędzla
+     * @return filtr lub null, jeśli styl go nie wymaga
+     */
+    public static MaskFilter maskFilter(BrushStyle style) {
+        return style == BrushStyle.BLUR ? BLUR : null;
+    }
+
+    /**
+     * Stempel pióra kaligraficznego: wąska stalówka ustawiona pod kątem 45 stopni.
+     * Stalówka nie obraca się z kierunkiem ruchu, więc grubość linii zależy od kierunku.
+     */
+    private static synchronized PathEffect calligraphy(float strokeWidth) {
+        PathEffect effect = CALLIGRAPHY.get(strokeWidth);
+        if (effect == null) {
+            float half = strokeWidth / 2 * 0.7071f;
+            float thickness = Math.max(1, strokeWidth / 8);
+            Path nib = new Path();
+            nib.moveTo(-half, half);
+            nib.lineTo(half, -half);
+            nib.lineTo(half + thickness, -half);
+            nib.lineTo(-half + thickness, half);
+            nib.close();
+            effect = new PathDashPathEffect(nib, Math.max(1, thickness / 2), 0, PathDashPathEffect.Style.TRANSLATE);
+            CALLIGRAPHY.put(strokeWidth, effect);
+        }
+        return effect;
+    }
+
+    /**
+     * Stempel aerografu: krople rozrzucone w okręgu o promieniu grubości pędzla.
+     * Rozrzut jest stały dla danej grubości, dzięki czemu ścieżka wygląda tak samo przy każdym rysowaniu.
+     */
+    private static synchronized PathEffect airbrush(float strokeWidth) {
+        PathEffect effect = AIRBRUSH.get(strokeWidth);
+        if (effect == null) {
+            Random random = new Random(Float.floatToIntBits(strokeWidth));
+            float dropRadius = Math.max(0.5f, strokeWidth / 20);
+            Path spray = new Path();
+            for (int i = 0; i < AIRBRUSH_DROPS; i++) {
+                //Pierwiastek z promienia daje równomierne rozłożenie kropel w okręgu
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double distance = Math.sqrt(random.nextDouble()) * strokeWidth;
+                spray.addCircle((float) (Math.cos(angle) * distance), (float) (Math.sin(angle) * distance),
+                        dropRadius, Path.Direction.CW);
+            }
+            effect = new PathDashPathEffect(spray, Math.max(1, strokeWidth / 2), 0, PathDashPathEffect.Style.TRANSLATE);
+            AIRBRUSH.put(strokeWidth, effect);
+        }
+        return effect;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Wyliczenie styli pędzla.
+ * Kolejność stałych zapisywana jest w dokumencie, nowe style należy dodawać na końcu.
+ */
+public enum BrushStyle {
+    NORMAL("Normalny"),
+    DASHED("Kreskowany"),
+    DOTTED("Kropkowany"),
+    BLUR("Rozmyty"),
+    //Linia zwężająca się na końcach i przy szybkim ruchu
+    PRESSURE("Naciskowy"),
+    //Stalówka pod stałym kątem
+    CALLIGRAPHY("Kaligraficzny"),
+    //Rozpylone krople
+    AIRBRUSH("Aerograf");
+
+    private final String displayName;
+
+    BrushStyle(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return nazwy styli w kolejności stałych, np. do okna wyboru
+     */
+    public static String[] displayNames() {
+        BrushStyle[] styles = values();
+        String[] names = new String[styles.length];
+        for (int i = 0; i < styles.length; i++) {
+            names[i] = styles[i].displayName;
+        }
+        return names;
+    }
+}
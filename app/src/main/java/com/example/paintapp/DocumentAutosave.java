@@ -0,0 +1,349 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Klasa DocumentAutosave zapisuje rysunek na bieżąco w formacie DocumentWriter.
+ * Każda zmiana rysunku (nowa ścieżka, cofnięcie, czyszczenie, zmiana tła lub warstwy)
+ * dopisywana jest na końcu pliku jako mały rekord, więc koszt zapisu zależy od rozmiaru zmiany,
+ * a nie całego rysunku. Gdy rekordy nieaktualnych danych przeważą nad ścieżkami rysunku,
+ * plik jest kompaktowany - odczytywany i przepisywany do pliku tymczasowego, który zastępuje plik.
+ * Wszystkie operacje na pliku, w tym kompaktowanie, wykonywane są kolejno w wątku tła.
+ */
+public class DocumentAutosave {
+    //Minimalna liczba nieaktualnych rekordów, od której plik może zostać kompaktowany
+    static final int MIN_DEAD_RECORDS = 256;
+
+    private final File file;
+    private final Executor executor;
+
+    //Stan używany wyłącznie w wątku zapisu
+    private OutputStream out;
+    private DocumentWriter writer;
+    //Liczba ścieżek kolejnych warstw zapisanych w pliku
+    private final List<Integer> layerSizes = new ArrayList<>();
+    //Liczba ścieżek rysunku i liczba rekordów, które nie wpływają już na rysunek
+    private int liveStrokes;
+    private int deadRecords;
+
+    /**
+     * Konstruktor.
+     * @param file - plik dokumentu
+     */
+    public DocumentAutosave(File file) {
+        this(file, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DocumentAutosave");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Konstruktor z własnym wykonawcą zapisów, który musi wykonywać zadania kolejno.
+     * @param file - plik dokumentu
+     * @param executor - wykonawca zapisów
+     */
+    DocumentAutosave(File file, Executor executor) {
+        this.file = file;
+        this.executor = executor;
+    }
+
+    /**
+     * @return plik dokumentu
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Odczytuje dokument zapisany przed zamknięciem lub awarią aplikacji.
+     * @param file - plik dokumentu
+     * @return dokument lub null, jeśli plik nie istnieje
+     * @throws IOException błąd odczytu
+     */
+    public static DrawingDocument restore(File file) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return null;
+        }
+        return DocumentReader.open(file);
+    }
+
+    /**
+     * Dopisuje zatwierdzoną ścieżkę na wierzchu warstwy.
+     * @param stroke - ścieżka, która nie będzie już modyfikowana
+     * @param layerId - numer warstwy ścieżki
+     */
+    public void strokeAdded(Stroke stroke, int layerId) {
+        append(() -> {
+            writer.writeStroke(stroke, layerId);
+            resize(layerId, 1);
+        });
+    }
+
+    /**
+     * Dopisuje wstawienie ścieżki pod innymi ścieżkami warstwy.
+     * @param stroke - ścieżka
+     * @param layerId - numer warstwy ścieżki
+     * @param position - pozycja ścieżki na liście warstwy
+     */
+    public void strokeInserted(Stroke stroke, int layerId, int position) {
+        append(() -> {
+            writer.writeInsertStroke(stroke, layerId, position);
+            resize(layerId, 1);
+        });
+    }
+
+    /**
+     * Dopisuje usunięcie ścieżki.
+     * @param layerId - numer warstwy ścieżki
+     * @param position - pozycja usuniętej ścieżki
+     */
+    public void strokeRemoved(int layerId, int position) {
+        append(() -> {
+            writer.writeRemoveStroke(layerId, position);
+            resize(layerId, -1);
+            //Nieaktualne są rekord usuniętej ścieżki i rekord usunięcia
+            deadRecords += 2;
+        });
+    }
+
+    /**
+     * Dopisuje zastąpienie ścieżki inną ścieżką.
+     * @param stroke - nowa ścieżka
+     * @param layerId - numer warstwy ścieżki
+     * @param position - pozycja ścieżki na liście warstwy
+     */
+    public void strokeReplaced(Stroke stroke, int layerId, int position) {
+        append(() -> {
+            writer.writeReplaceStroke(stroke, layerId, position);
+            deadRecords++;
+        });
+    }
+
+    /**
+     * Dopisuje usunięcie wszystkich ścieżek warstwy.
+     * @param layerId - numer warstwy
+     */
+    public void layerCleared(int layerId) {
+        append(() -> {
+            writer.writeClearLayer(layerId);
+            int size = layerSize(layerId);
+            resize(layerId, -size);
+            deadRecords += size + 1;
+        });
+    }
+
+    /**
+     * Dopisuje nowe ustawienia warstwy.
+     * @param layerId - numer warstwy
+     * @param layer - kopia ustawień warstwy, ścieżki nie są zapisywane
+     */
+    public void layerChanged(int layerId, DrawingDocument.DocumentLayer layer) {
+        append(() -> {
+            writer.writeLayer(layerId, layer);
+            deadRecords++;
+        });
+    }
+
+    /**
+     * Dopisuje wstawienie warstwy wraz z jej ścieżkami.
+     * @param layerId - numer wstawionej warstwy
+     * @param layer - kopia warstwy, która nie będzie już modyfikowana
+     */
+    public void layerInserted(int layerId, DrawingDocument.DocumentLayer layer) {
+        append(() -> {
+            writer.writeInsertLayer(layerId, layer);
+            layerSize(layerId - 1);
+            layerSizes.add(layerId, layer.getStrokes().size());
+            liveStrokes += layer.getStrokes().size();
+        });
+    }
+
+    /**
+     * Dopisuje usunięcie warstwy wraz z jej ścieżkami.
+     * @param layerId - numer warstwy
+     */
+    public void layerRemoved(int layerId) {
+        append(() -> {
+            writer.writeRemoveLayer(layerId);
+            int size = layerSize(layerId);
+            layerSizes.remove(layerId);
+            liveStrokes -= size;
+            deadRecords += size + 1;
+        });
+    }
+
+    /**
+     * Dopisuje zmianę tła rysunku.
+     * @param uri - odnośnik do obrazu tła lub null, gdy tło zostało usunięte
+     */
+    public void backgroundChanged(String uri) {
+        append(() -> {
+            writer.writeBackground(uri);
+            deadRecords++;
+        });
+    }
+
+    /**
+     * Zleca zapisanie całego dokumentu w miejsce zawartości pliku, np. gdy zapis włączany jest
+     * dla istniejącego rysunku. Kolejne zmiany dopisywane są do zapisanego dokumentu.
+     * @param snapshot - kopia dokumentu, która nie będzie już modyfikowana
+     */
+    public void save(DrawingDocument snapshot) {
+        executor.execute(() -> {
+            try {
+                rewrite(snapshot);
+            } catch (IOException e) {
+                closeQuietly();
+            }
+        });
+    }
+
+    /**
+     * Zamyka plik po wykonaniu wszystkich zleconych zapisów.
+     */
+    public void close() {
+        executor.execute(this::closeQuietly);
+    }
+
+    /**
+     * Zapis rekordów w wątku zapisu.
+     */
+    private interface Append {
+        void write() throws IOException;
+    }
+
+    /**
+     * Zleca dopisanie rekordów do pliku i kompaktuje plik po przekroczeniu progu nieaktualnych rekordów.
+     */
+    private void append(Append append) {
+        executor.execute(() -> {
+            try {
+                open();
+                append.write();
+                writer.flush();
+                if (deadRecords > Math.max(MIN_DEAD_RECORDS, liveStrokes)) {
+                    rewrite(DocumentReader.open(file));
+                }
+            } catch (IOException | RuntimeException e) {
+                //Plik zostanie odtworzony z zapisanych rekordów przy następnym otwarciu
+                closeQuietly();
+            }
+        });
+    }
+
+    /**
+     * Zmienia liczbę ścieżek warstwy.
+     */
+    private void resize(int layerId, int delta) {
+        layerSizes.set(layerId, layerSize(layerId) + delta);
+        liveStrokes += delta;
+    }
+
+    /**
+     * Zwraca liczbę ścieżek warstwy, dodając brakujące warstwy tak jak czytelnik dokumentu.
+     */
+    private int layerSize(int layerId) {
+        while (layerSizes.size() <= layerId) {
+            layerSizes.add(0);
+        }
+        return layerId < 0 ? 0 : layerSizes.get(layerId);
+    }
+
+    /**
+     * Otwiera plik do dopisywania. Istniejący plik jest najpierw kompaktowany,
+     * aby tabela styli zapisu i liczba ścieżek warstw zgadzały się z zawartością pliku.
+     */
+    private void open() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        if (file.length() > 0) {
+            DrawingDocument document;
+            try {
+                document = DocumentReader.open(file);
+            } catch (IOException e) {
+                //Nieczytelny plik jest zastępowany nowym dokumentem
+                document = new DrawingDocument();
+            }
+            rewrite(document);
+            return;
+        }
+        out = new BufferedOutputStream(new FileOutputStream(file));
+        writer = new DocumentWriter(out);
+        writer.writeHeader();
+        count(new DrawingDocument());
+    }
+
+    /**
+     * Zapisuje dokument do pliku tymczasowego i podmienia nim plik dokumentu,
+     * dzięki czemu przerwanie zapisu nie niszczy poprzedniej wersji.
+     */
+    private void rewrite(DrawingDocument document) throws IOException {
+        closeQuietly();
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp)) {
+            OutputStream buffered = new BufferedOutputStream(stream);
+            new DocumentWriter(buffered).writeDocument(document);
+            buffered.flush();
+            stream.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Nie można zastąpić pliku " + file);
+        }
+        //Kolejne rekordy dopisywane są do nowego pliku z tą samą tabelą styli
+        out = new BufferedOutputStream(new FileOutputStream(file, true));
+        writer = new DocumentWriter(out);
+        writer.registerStyles(document);
+        count(document);
+    }
+
+    /**
+     * Ustawia liczniki ścieżek według zawartości zapisanego dokumentu.
+     */
+    private void count(DrawingDocument document) {
+        layerSizes.clear();
+        liveStrokes = 0;
+        deadRecords = 0;
+        for (DrawingDocument.DocumentLayer layer : document.getLayers()) {
+            layerSizes.add(layer.getStrokes().size());
+            liveStrokes += layer.getStrokes().size();
+        }
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                //Brak dalszych zapisów do zamkniętego pliku
+            }
+        }
+        out = null;
+        writer = null;
+    }
+}
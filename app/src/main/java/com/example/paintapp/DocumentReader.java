@@ -0,0 +1,291 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa DocumentReader odczytuje dokument zapisany przez DocumentWriter.
+ * Niekompletny ostatni rekord (np. po przerwaniu zapisu) jest pomijany,
+ * a rekordy zmian (wersja 3) odtwarzane są na ścieżkach i warstwach w kolejności zapisu.
+ * Odczyt tworzy jedynie indeks ścieżek: styl, figurę, granice i położenie punktów w buforze.
+ * Punkty dekodowane są dopiero przy pierwszym użyciu ścieżki, np. gdy trafi ona w widoczny obszar.
+ */
+public class DocumentReader {
+
+    private DocumentReader() {
+    }
+
+    /**
+     * Otwiera dokument z pliku, odwzorowując plik w pamięci.
+     * Odwzorowanie pozostaje ważne po zamknięciu pliku i po zastąpieniu go nowym plikiem.
+     * @param file - plik dokumentu
+     * @return dokument
+     * @throws IOException błąd odczytu lub nieprawidłowy format
+     */
+    public static DrawingDocument open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Odczytuje indeks dokumentu z bufora. Bufor nie może być później modyfikowany.
+     * @param buffer - dane dokumentu
+     * @return dokument
+     * @throws IOException nieprawidłowy format
+     */
+    public static DrawingDocument read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 5 || buffer.getInt() != DocumentWriter.MAGIC) {
+            throw new IOException("To nie jest dokument PaintApp");
+        }
+        int version = buffer.get();
+        //Wersja 1 nie zawiera warstw, wszystkie ścieżki należą do pierwszej warstwy
+        if (version < 1 || version > DocumentWriter.VERSION) {
+            throw new IOException("Nieobsługiwana wersja dokumentu: " + version);
+        }
+
+        List<StrokeStyle> styles = new ArrayList<>();
+        DrawingDocument document = new DrawingDocument();
+        ShapeType[] shapes = ShapeType.values();
+        BrushStyle[] brushStyles = BrushStyle.values();
+        BlendMode[] blendModes = BlendMode.values();
+        while (buffer.hasRemaining()) {
+            int recordStart = buffer.position();
+            try {
+                int type = buffer.get();
+                int length = readVarInt(buffer);
+                if (length > buffer.remaining()) {
+                    //Rekord przerwany w trakcie zapisu
+                    buffer.position(recordStart);
+                    break;
+                }
+                int end = buffer.position() + length;
+                switch (type) {
+                    case DocumentWriter.RECORD_STYLE: {
+                        int id = readVarInt(buffer);
+                        int color = buffer.getInt();
+                        float width = Float.intBitsToFloat(buffer.getInt());
+                        BrushStyle brushStyle = brushStyles[buffer.get()];
+                        boolean eraser = buffer.get() != 0;
+                        if (id != styles.size()) {
+                            throw new IOException("Nieprawidłowy identyfikator stylu: " + id);
+                        }
+                        styles.add(StrokeStyle.of(color, width, brushStyle, eraser));
+                        break;
+                    }
+                    case DocumentWriter.RECORD_STROKE: {
+                        int layerId = version >= 2 ? readVarInt(buffer) : 0;
+                        layer(document, layerId).getStrokes().add(indexStroke(buffer, styles, shapes, end));
+                        break;
+                    }
+                    case DocumentWriter.RECORD_LAYER: {
+                        readLayer(buffer, layer(document, readVarInt(buffer)), blendModes);
+                        break;
+                    }
+                    case DocumentWriter.RECORD_INSERT_LAYER: {
+                        int layerId = readVarInt(buffer);
+                        if (layerId > 0) {
+                            layer(document, layerId - 1);
+                        }
+                        DrawingDocument.DocumentLayer layer = new DrawingDocument.DocumentLayer(
+                                DrawingDocument.defaultLayerName(layerId), new ArrayList<>());
+                        readLayer(buffer, layer, blendModes);
+                        document.getLayers().add(layerId, layer);
+                        break;
+                    }
+                    case DocumentWriter.RECORD_REMOVE_LAYER:
+                        document.getLayers().remove(readVarInt(buffer));
+                        break;
+                    case DocumentWriter.RECORD_CLEAR_LAYER:
+                        layer(document, readVarInt(buffer)).getStrokes().clear();
+                        break;
+                    case DocumentWriter.RECORD_INSERT_STROKE: {
+                        List<Stroke> strokes = layer(document, readVarInt(buffer)).getStrokes();
+                        int position = readVarInt(buffer);
+                        strokes.add(position, indexStroke(buffer, styles, shapes, end));
+                        break;
+                    }
+                    case DocumentWriter.RECORD_REPLACE_STROKE: {
+                        List<Stroke> strokes = layer(document, readVarInt(buffer)).getStrokes();
+                        int position = readVarInt(buffer);
+                        strokes.set(position, indexStroke(buffer, styles, shapes, end));
+                        break;
+                    }
+                    case DocumentWriter.RECORD_REMOVE_STROKE: {
+                        List<Stroke> strokes = layer(document, readVarInt(buffer)).getStrokes();
+                        strokes.remove(readVarInt(buffer));
+                        break;
+                    }
+                    case DocumentWriter.RECORD_BACKGROUND: {
+                        byte[] bytes = new byte[readVarInt(buffer)];
+                        buffer.get(bytes);
+                        document.setBackgroundUri(bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8));
+                        break;
+                    }
+                    default:
+                        //Nieznane rekordy nowszych wersji są pomijane
+                        break;
+                }
+                buffer.position(end);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Uszkodzony rekord na pozycji " + recordStart, e);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Odczytuje ustawienia warstwy z rekordu warstwy.
+     */
+    private static void readLayer(ByteBuffer buffer, DrawingDocument.DocumentLayer layer, BlendMode[] blendModes) {
+        byte[] name = new byte[readVarInt(buffer)];
+        buffer.get(name);
+        layer.setName(new String(name, StandardCharsets.UTF_8));
+        layer.setVisible(buffer.get() != 0);
+        layer.setOpacity((buffer.get() & 0xFF) / 255f);
+        layer.setBlendMode(blendModes[buffer.get()]);
+    }
+
+    /**
+     * Zwraca warstwę dokumentu o podanym numerze, dodając brakujące warstwy.
+     */
+    private static DrawingDocument.DocumentLayer layer(DrawingDocument document, int layerId) {
+        List<DrawingDocument.DocumentLayer> layers = document.getLayers();
+        while (layers.size() <= layerId) {
+            layers.add(new DrawingDocument.DocumentLayer(
+                    DrawingDocument.defaultLayerName(layers.size()), new ArrayList<>()));
+        }
+        return layers.get(layerId);
+    }
+
+    /**
+     * Odczytuje nagłówek rekordu ścieżki, pomijając jej punkty.
+     */
+    private static Stroke indexStroke(ByteBuffer buffer, List<StrokeStyle> styles, ShapeType[] shapes, int end) {
+        StrokeStyle style = styles.get(readVarInt(buffer));
+        ShapeType shape = shapes[readVarInt(buffer)];
+        float[] bounds = new float[4];
+        for (int i = 0; i < 4; i++) {
+            bounds[i] = readSignedVarInt(buffer) / DocumentWriter.SCALE;
+        }
+        int pointsStart = buffer.position();
+        int count = readVarInt(buffer);
+        return new Stroke(style, shape, count, bounds, new MappedPoints(buffer, pointsStart, end));
+    }
+
+    /**
+     * Punkty ścieżki zakodowane w buforze dokumentu.
+     */
+    static final class MappedPoints implements Stroke.PointSource {
+        private final ByteBuffer buffer;
+        //Położenie liczby punktów, za którą następują przyrosty współrzędnych i ewentualnie nacisk
+        private final int offset;
+        //Koniec rekordu ścieżki
+        private final int end;
+
+        MappedPoints(ByteBuffer buffer, int offset, int end) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.end = end;
+        }
+
+        @Override
+        public float[] loadPoints() {
+            //Osobny widok bufora, bo ścieżki mogą być odczytywane z kilku wątków
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            int count = readVarInt(view);
+            float[] points = new float[count * 2];
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < count * 2; i += 2) {
+                x += readSignedVarInt(view);
+                y += readSignedVarInt(view);
+                points[i] = x / DocumentWriter.SCALE;
+                points[i + 1] = y / DocumentWriter.SCALE;
+            }
+            return points;
+        }
+
+        @Override
+        public float[] loadPressures() {
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            int count = readVarInt(view);
+            for (int i = 0; i < count * 2; i++) {
+                //Koniec każdej liczby varint oznacza bajt bez najstarszego bitu
+                while ((view.get() & 0x80) != 0) {
+                    //Pominięcie kolejnych bajtów liczby
+                }
+            }
+            //Ścieżki bez nacisku kończą się na ostatnim punkcie
+            if (view.position() >= end) {
+                return null;
+            }
+            float[] pressures = new float[count];
+            for (int i = 0; i < count; i++) {
+                pressures[i] = (view.get() & 0xFF) / 255f;
+            }
+            return pressures;
+        }
+
+        /**
+         * Kopiuje zakodowane punkty i nacisk bez dekodowania, w formacie zapisu DocumentWriter.
+         * @param out - strumień docelowy
+         */
+        void copyTo(ByteArrayOutputStream out) {
+            ByteBuffer view = buffer.duplicate();
+            byte[] bytes = new byte[end - offset];
+            view.position(offset);
+            view.get(bytes);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Odczytuje liczbę nieujemną zapisaną w kodowaniu varint.
+     */
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Odczytuje liczbę ze znakiem zapisaną w kodowaniu zigzag varint.
+     */
+    static int readSignedVarInt(ByteBuffer buffer) {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,398 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa DocumentWriter zapisuje dokument rysunku w zwartym formacie binarnym.
+ * Plik składa się z nagłówka i następujących po nim rekordów:
+ * typ (1 bajt), długość danych (varint) i dane. Rekordy można dopisywać na końcu pliku,
+ * a czytelnik pomija niekompletny ostatni rekord, co pozwala odtworzyć rysunek po awarii.
+ * <p>
+ * Rekord stylu dodawany jest przed pierwszą ścieżką danego stylu (tabela styli).
+ * Rekord warstwy określa ustawienia warstwy o danym numerze, a każda ścieżka zawiera numer swojej warstwy.
+ * Od wersji 3 plik może zawierać także rekordy zmian (wstawienie, usunięcie i zastąpienie ścieżki,
+ * czyszczenie, wstawienie i usunięcie warstwy), które czytelnik odtwarza w kolejności zapisu.
+ * Dzięki nim cofnięcie operacji lub zmiana warstwy dopisuje kilka bajtów zamiast przepisywać plik.
+ * Współrzędne ścieżek zapisywane są w stałoprzecinkowych 1/16 piksela
+ * jako różnice względem poprzedniego punktu (zigzag varint). Za punktami ścieżki pędzla naciskowego
+ * zapisywana jest siła nacisku w każdym punkcie (1 bajt, od 0 do 255).
+ */
+public class DocumentWriter {
+    //Sygnatura pliku "PNTD"
+    static final int MAGIC = 0x504E5444;
+    //Wersja formatu
+    static final int VERSION = 3;
+    //Typy rekordów
+    static final int RECORD_STYLE = 1;
+    static final int RECORD_STROKE = 2;
+    static final int RECORD_BACKGROUND = 3;
+    static final int RECORD_LAYER = 4;
+    //Typy rekordów zmian (wersja 3)
+    static final int RECORD_INSERT_STROKE = 5;
+    static final int RECORD_REMOVE_STROKE = 6;
+    static final int RECORD_REPLACE_STROKE = 7;
+    static final int RECORD_CLEAR_LAYER = 8;
+    static final int RECORD_INSERT_LAYER = 9;
+    static final int RECORD_REMOVE_LAYER = 10;
+    //Liczba jednostek zapisu na piksel
+    static final float SCALE = 16f;
+
+    private final OutputStream out;
+    //Identyfikatory styli zapisanych już w pliku
+    private final Map<StrokeStyle, Integer> styleIds = new HashMap<>();
+    //Bufor danych rekordu wielokrotnego użytku
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+
+    /**
+     * Konstruktor.
+     * @param out - strumień docelowy
+     */
+    public DocumentWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Zapisuje nagłówek pliku. Wywoływana raz na początku nowego pliku.
+     * @throws IOException błąd zapisu
+     */
+    public void writeHeader() throws IOException {
+        writeInt(out, MAGIC);
+        out.write(VERSION);
+    }
+
+    /**
+     * Zapisuje cały dokument: nagłówek, tło i wszystkie ścieżki.
+     * @param document - dokument
+     * @throws IOException błąd zapisu
+     */
+    public void writeDocument(DrawingDocument document) throws IOException {
+        writeHeader();
+        if (document.getBackgroundUri() != null) {
+            writeBackground(document.getBackgroundUri());
+        }
+        List<DrawingDocument.DocumentLayer> layers = document.getLayers();
+        for (int i = 0; i < layers.size(); i++) {
+            writeLayer(i, layers.get(i));
+        }
+        for (int i = 0; i < layers.size(); i++) {
+            for (Stroke stroke : layers.get(i).getStrokes()) {
+                writeStroke(stroke, i);
+            }
+        }
+    }
+
+    /**
+     * Zapisuje rekord ustawień warstwy.
+     * @param layerId - numer warstwy od najniższej
+     * @param layer - warstwa
+     * @throws IOException błąd zapisu
+     */
+    public void writeLayer(int layerId, DrawingDocument.DocumentLayer layer) throws IOException {
+        writeLayerRecord(RECORD_LAYER, layerId, layer);
+    }
+
+    /**
+     * Zapisuje rekord wstawienia warstwy w miejscu warstwy o podanym numerze
+     * oraz rekordy ścieżek wstawionej warstwy.
+     * @param layerId - numer wstawionej warstwy od najniższej
+     * @param layer - warstwa
+     * @throws IOException błąd zapisu
+     */
+    public void writeInsertLayer(int layerId, DrawingDocument.DocumentLayer layer) throws IOException {
+        writeLayerRecord(RECORD_INSERT_LAYER, layerId, layer);
+        for (Stroke stroke : layer.getStrokes()) {
+            writeStroke(stroke, layerId);
+        }
+    }
+
+    /**
+     * Zapisuje rekord usunięcia warstwy wraz z jej ścieżkami. Wyższe warstwy zmieniają numer o jeden.
+     * @param layerId - numer warstwy
+     * @throws IOException błąd zapisu
+     */
+    public void writeRemoveLayer(int layerId) throws IOException {
+        record.reset();
+        writeVarInt(record, layerId);
+        flushRecord(RECORD_REMOVE_LAYER);
+    }
+
+    /**
+     * Zapisuje rekord usunięcia wszystkich ścieżek warstwy.
+     * @param layerId - numer warstwy
+     * @throws IOException błąd zapisu
+     */
+    public void writeClearLayer(int layerId) throws IOException {
+        record.reset();
+        writeVarInt(record, layerId);
+        flushRecord(RECORD_CLEAR_LAYER);
+    }
+
+    private void writeLayerRecord(int type, int layerId, DrawingDocument.DocumentLayer layer) throws IOException {
+        record.reset();
+        writeVarInt(record, layerId);
+        byte[] name = layer.getName().getBytes(StandardCharsets.UTF_8);
+        writeVarInt(record, name.length);
+        record.write(name, 0, name.length);
+        record.write(layer.isVisible() ? 1 : 0);
+        record.write(Math.round(layer.getOpacity() * 255));
+        record.write(layer.getBlendMode().ordinal());
+        flushRecord(type);
+    }
+
+    /**
+     * Zapisuje rekord tła.
+     * @param uri - odnośnik do obrazu tła lub null, gdy tło zostało usunięte
+     * @throws IOException błąd zapisu
+     */
+    public void writeBackground(String uri) throws IOException {
+        record.reset();
+        byte[] bytes = (uri == null ? "" : uri).getBytes(StandardCharsets.UTF_8);
+        writeVarInt(record, bytes.length);
+        record.write(bytes, 0, bytes.length);
+        flushRecord(RECORD_BACKGROUND);
+    }
+
+    /**
+     * Zapisuje rekord ścieżki, poprzedzony rekordem stylu, jeśli styl pojawia się po raz pierwszy.
+     * @param stroke - ścieżka
+     * @param layerId - numer warstwy ścieżki
+     * @throws IOException błąd zapisu
+     */
+    public void writeStroke(Stroke stroke, int layerId) throws IOException {
+        writeStrokeRecord(RECORD_STROKE, layerId, -1, stroke);
+    }
+
+    /**
+     * Zapisuje rekord wstawienia ścieżki pod innymi ścieżkami warstwy, np. przy cofnięciu jej usunięcia.
+     * @param stroke - ścieżka
+     * @param layerId - numer warstwy ścieżki
+     * @param position - pozycja ścieżki na liście warstwy
+     * @throws IOException błąd zapisu
+     */
+    public void writeInsertStroke(Stroke stroke, int layerId, int position) throws IOException {
+        writeStrokeRecord(RECORD_INSERT_STROKE, layerId, position, stroke);
+    }
+
+    /**
+     * Zapisuje rekord zastąpienia ścieżki na podanej pozycji, np. linią uproszczoną.
+     * @param stroke - nowa ścieżka
+     * @param layerId - numer warstwy ścieżki
+     * @param position - pozycja ścieżki na liście warstwy
+     * @throws IOException błąd zapisu
+     */
+    public void writeReplaceStroke(Stroke stroke, int layerId, int position) throws IOException {
+        writeStrokeRecord(RECORD_REPLACE_STROKE, layerId, position, stroke);
+    }
+
+    /**
+     * Zapisuje rekord usunięcia ścieżki z podanej pozycji.
+     * @param layerId - numer warstwy ścieżki
+     * @param position - pozycja ścieżki na liście warstwy
+     * @throws IOException błąd zapisu
+     */
+    public void writeRemoveStroke(int layerId, int position) throws IOException {
+        record.reset();
+        writeVarInt(record, layerId);
+        writeVarInt(record, position);
+        flushRecord(RECORD_REMOVE_STROKE);
+    }
+
+    /**
+     * Zapisuje rekord ścieżki. Rekordy wstawienia i zastąpienia zawierają dodatkowo pozycję ścieżki.
+     */
+    private void writeStrokeRecord(int type, int layerId, int position, Stroke stroke) throws IOException {
+        int styleId = styleId(stroke.getStyle());
+
+        record.reset();
+        writeVarInt(record, layerId);
+        if (position >= 0) {
+            writeVarInt(record, position);
+        }
+        writeVarInt(record, styleId);
+        writeVarInt(record, stroke.getShape().ordinal());
+        //Granice geometrii pozwalają pominąć ścieżkę bez dekodowania punktów
+        float[] bounds = new float[4];
+        stroke.getBounds(bounds);
+        writeSignedVarInt(record, (int) Math.floor(bounds[0] * SCALE));
+        writeSignedVarInt(record, (int) Math.floor(bounds[1] * SCALE));
+        writeSignedVarInt(record, (int) Math.ceil(bounds[2] * SCALE));
+        writeSignedVarInt(record, (int) Math.ceil(bounds[3] * SCALE));
+
+        //Punkty nieodczytanej ścieżki kopiowane są z dokumentu bez dekodowania
+        Stroke.PointSource source = stroke.getPointSource();
+        if (source instanceof DocumentReader.MappedPoints) {
+            ((DocumentReader.MappedPoints) source).copyTo(record);
+            flushRecord(type);
+            return;
+        }
+        int count = stroke.getPointCount();
+        writeVarInt(record, count);
+        float[] points = stroke.getPoints();
+        int previousX = 0;
+        int previousY = 0;
+        for (int i = 0; i < count * 2; i += 2) {
+            int x = Math.round(points[i] * SCALE);
+            int y = Math.round(points[i + 1] * SCALE);
+            writeSignedVarInt(record, x - previousX);
+            writeSignedVarInt(record, y - previousY);
+            previousX = x;
+            previousY = y;
+        }
+        float[] pressures = stroke.getPressures();
+        if (pressures != null) {
+            for (int i = 0; i < count; i++) {
+                record.write(Math.round(pressures[i] * 255));
+            }
+        }
+        flushRecord(type);
+    }
+
+    /**
+     * Nadaje identyfikatory stylom ścieżek w tej samej kolejności co writeDocument, bez zapisu.
+     * Pozwala dopisywać ścieżki do pliku zapisanego wcześniej innym obiektem DocumentWriter.
+     * @param document - zapisany dokument
+     */
+    void registerStyles(DrawingDocument document) {
+        for (DrawingDocument.DocumentLayer layer : document.getLayers()) {
+            for (Stroke stroke : layer.getStrokes()) {
+                if (!styleIds.containsKey(stroke.getStyle())) {
+                    styleIds.put(stroke.getStyle(), styleIds.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * Przekazuje zapisane dane do strumienia docelowego.
+     * @throws IOException błąd zapisu
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Zapisuje dokument do tablicy bajtów, o ile zapis nie przekroczy limitu.
+     * Zapis przerywany jest po przekroczeniu limitu, więc koszt nie zależy od rozmiaru dokumentu.
+     * @param document - dokument
+     * @param maxBytes - maksymalny rozmiar zapisu
+     * @return zapis dokumentu lub null, jeśli dokument jest większy niż limit
+     */
+    public static byte[] encode(DrawingDocument document, int maxBytes) {
+        LimitedOutputStream out = new LimitedOutputStream(maxBytes);
+        try {
+            new DocumentWriter(out).writeDocument(document);
+        } catch (IOException e) {
+            //Przekroczony limit
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Zwraca identyfikator stylu, zapisując rekord stylu przy pierwszym użyciu.
+     */
+    private int styleId(StrokeStyle style) throws IOException {
+        Integer id = styleIds.get(style);
+        if (id != null) {
+            return id;
+        }
+        id = styleIds.size();
+        styleIds.put(style, id);
+
+        record.reset();
+        writeVarInt(record, id);
+        writeInt(record, style.getColor());
+        writeInt(record, Float.floatToIntBits(style.getStrokeWidth()));
+        record.write(style.getBrushStyle().ordinal());
+        record.write(style.isEraser() ? 1 : 0);
+        flushRecord(RECORD_STYLE);
+        return id;
+    }
+
+    private void flushRecord(int type) throws IOException {
+        out.write(type);
+        writeVarInt(out, record.size());
+        record.writeTo(out);
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Zapisuje liczbę nieujemną w kodowaniu varint (7 bitów na bajt).
+     */
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Zapisuje liczbę ze znakiem w kodowaniu zigzag varint, małe wartości zajmują jeden bajt.
+     */
+    static void writeSignedVarInt(OutputStream out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Strumień w pamięci zgłaszający błąd po przekroczeniu limitu rozmiaru.
+     */
+    private static class LimitedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream bytes;
+        private final int maxBytes;
+
+        LimitedOutputStream(int maxBytes) {
+            this.bytes = new ByteArrayOutputStream(Math.min(maxBytes, 8192));
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureCapacity(1);
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureCapacity(len);
+            bytes.write(b, off, len);
+        }
+
+        private void ensureCapacity(int len) throws IOException {
+            if (bytes.size() + len > maxBytes) {
+                throw new IOException("Przekroczony limit " + maxBytes + " B");
+            }
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
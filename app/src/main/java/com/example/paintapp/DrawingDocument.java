@@ -0,0 +1,132 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa DrawingDocument przechowuje zawartość dokumentu rysunku:
+ * warstwy z zatwierdzonymi ścieżkami oraz odnośnik do obrazu tła.
+ */
+public class DrawingDocument {
+    private final List<DocumentLayer> layers = new ArrayList<>();
+    private String backgroundUri;
+
+    /**
+     * Warstwa dokumentu: ustawienia i ścieżki w kolejności rysowania.
+     */
+    public static class DocumentLayer {
+        private final List<Stroke> strokes;
+        private String name;
+        private boolean visible = true;
+        private float opacity = 1f;
+        private BlendMode blendMode = BlendMode.NORMAL;
+
+        /**
+         * Konstruktor warstwy widocznej, nieprzezroczystej, w trybie normalnym.
+         * @param name - nazwa warstwy
+         * @param strokes - ścieżki warstwy
+         */
+        public DocumentLayer(String name, List<Stroke> strokes) {
+            this.name = name;
+            this.strokes = strokes;
+        }
+
+        public List<Stroke> getStrokes() {
+            return strokes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public void setVisible(boolean visible) {
+            this.visible = visible;
+        }
+
+        public float getOpacity() {
+            return opacity;
+        }
+
+        public void setOpacity(float opacity) {
+            this.opacity = opacity;
+        }
+
+        public BlendMode getBlendMode() {
+            return blendMode;
+        }
+
+        public void setBlendMode(BlendMode blendMode) {
+            this.blendMode = blendMode;
+        }
+    }
+
+    /**
+     * Konstruktor pustego dokumentu z jedną warstwą.
+     */
+    public DrawingDocument() {
+        this(new ArrayList<>(), null);
+    }
+
+    /**
+     * Konstruktor dokumentu z jedną warstwą.
+     * @param strokes - ścieżki rysunku
+     * @param backgroundUri - odnośnik do obrazu tła lub null
+     */
+    public DrawingDocument(List<Stroke> strokes, String backgroundUri) {
+        layers.add(new DocumentLayer(defaultLayerName(0), strokes));
+        this.backgroundUri = backgroundUri;
+    }
+
+    /**
+     * @return warstwy od najniższej do najwyższej
+     */
+    public List<DocumentLayer> getLayers() {
+        return layers;
+    }
+
+    /**
+     * @return ścieżki pierwszej (najniższej) warstwy
+     */
+    public List<Stroke> getStrokes() {
+        return layers.get(0).getStrokes();
+    }
+
+    public String getBackgroundUri() {
+        return backgroundUri;
+    }
+
+    public void setBackgroundUri(String backgroundUri) {
+        this.backgroundUri = backgroundUri;
+    }
+
+    /**
+     * @param index - numer warstwy od zera
+     * @return domyślna nazwa warstwy
+     */
+    public static String defaultLayerName(int index) {
+        return "Warstwa " + (index + 1);
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuffXfermode;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Klasa DrawingExporter zapisuje rysunek do pliku graficznego w wątku w tle.
+ * Wątek główny wykonuje jedynie kopię listy ścieżek, a rysowanie i kompresja
+ * odbywają się w osobnym wątku. Wyniki przekazywane są do wątku głównego.
+ */
+public class DrawingExporter {
+    //Wspólny wątek eksportu, kolejne zapisy wykonywane są po kolei
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+    //Część postępu przypadająca na rysowanie ścieżek, reszta na kompresję
+    private static final int RENDER_PROGRESS = 80;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Wyliczenie formatów zapisu.
+     */
+    public enum Format {
+        PNG(".png"),
+        JPEG(".jpg"),
+        WEBP(".webp");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * @return rozszerzenie pliku z kropką
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @return format kompresji bitmapy odpowiadający formatowi zapisu
+         */
+        @SuppressWarnings("deprecation")
+        Bitmap.CompressFormat toCompressFormat() {
+            switch (this) {
+                case JPEG:
+                    return Bitmap.CompressFormat.JPEG;
+                case WEBP:
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                        return Bitmap.CompressFormat.WEBP_LOSSY;
+                    }
+                    return Bitmap.CompressFormat.WEBP;
+                default:
+                    return Bitmap.CompressFormat.PNG;
+            }
+        }
+    }
+
+    /**
+     * Interfejs Listener otrzymuje w wątku głównym informacje o przebiegu zapisu.
+     */
+    public interface Listener {
+        /**
+         * @param percent - postęp zapisu od 0 do 100
+         */
+        void onProgress(int percent);
+
+        /**
+         * @param file - zapisany plik
+         */
+        void onSaved(File file);
+
+        /**
+         * Wywoływana po błędzie zapisu, także po braku pamięci na obraz. Częściowo zapisany plik jest usuwany.
+         * @param e - błąd zapisu
+         */
+        void onError(IOException e);
+
+        /**
+         * Wywoływana po anulowaniu zapisu. Częściowo zapisany plik jest usuwany.
+         */
+        void onCancelled();
+    }
+
+    /**
+     * Klasa Task pozwala anulować rozpoczęty zapis.
+     */
+    public static class Task {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        /**
+         * Anuluje zapis. Zapis przerywany jest między ścieżkami lub w trakcie kompresji.
+         */
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    /**
+     * Rozpoczyna zapis rysunku do pliku.
+     * @param document - kopia warstw rysunku, która nie będzie już zmieniana
+     * @param background - bitmapa tła lub null
+     * @param width - szerokość obrazu
+     * @param height - wysokość obrazu
+     * @param format - format zapisu
+     * @param quality - jakość od 0 do 100 (pomijana dla PNG)
+     * @param file - plik docelowy
+     * @param listener - odbiorca informacji o przebiegu zapisu
+     * @return zadanie pozwalające anulować zapis
+     */
+    public Task export(DrawingDocument document, Bitmap background, int width, int height,
+                       Format format, int quality, File file, Listener listener) {
+        Task task = new Task();
+        EXECUTOR.execute(() -> run(task, document, background, width, height, format, quality, file, listener));
+        return task;
+    }
+
+    /**
+     * Rysuje i zapisuje obraz. Wykonywana w wątku eksportu.
+     */
+    private void run(Task task, DrawingDocument document, Bitmap background, int width, int height,
+                     Format format, int quality, File file, Listener listener) {
+        if (task.isCancelled()) {
+            mainHandler.post(listener::onCancelled);
+            return;
+        }
+        Bitmap bitmap = null;
+        try {
+            //Bitmapa dużego płótna może nie zmieścić się w pamięci, błąd zgłaszany jest odbiorcy
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            //Osobna pula pędzli, aby nie współdzielić obiektów Paint z wątkiem głównym
+            StrokeRenderer renderer = new StrokeRenderer(new PaintPool(PaintPool.DEFAULT_MAX_SIZE));
+            Canvas canvas = new Canvas(bitmap);
+            renderer.drawBackground(canvas, background);
+
+            int count = 0;
+            for (DrawingDocument.DocumentLayer layer : document.getLayers()) {
+                count += layer.getStrokes().size();
+            }
+            int drawn = 0;
+            int reported = -1;
+            Paint layerPaint = new Paint();
+            for (DrawingDocument.DocumentLayer layer : document.getLayers()) {
+                if (!layer.isVisible() || layer.getOpacity() == 0) {
+                    drawn += layer.getStrokes().size();
+                    continue;
+                }
+                //Warstwa z przezroczystością lub trybem mieszania rysowana jest na osobnej bitmapie
+                //Gumka usuwa piksele, więc warstwa z gumką nie może być rysowana bezpośrednio na tle
+                boolean separate = layer.getOpacity() < 1 || layer.getBlendMode() != BlendMode.NORMAL
+                        || containsEraser(layer);
+                if (separate) {
+                    layerPaint.setAlpha(Math.round(layer.getOpacity() * 255));
+                    layerPaint.setXfermode(new PorterDuffXfermode(Layer.toPorterDuff(layer.getBlendMode())));
+                    canvas.saveLayer(null, layerPaint);
+                }
+                for (Stroke stroke : layer.getStrokes()) {
+                    if (task.isCancelled()) {
+                        mainHandler.post(listener::onCancelled);
+                        return;
+                    }
+                    renderer.drawStroke(canvas, stroke);
+                    int percent = ++drawn * RENDER_PROGRESS / count;
+                    if (percent != reported) {
+                        reported = percent;
+                        postProgress(listener, percent);
+                    }
+                }
+                if (separate) {
+                    canvas.restore();
+                }
+            }
+
+            boolean compressed;
+            try (OutputStream out = new CancellableOutputStream(new FileOutputStream(file), task)) {
+                compressed = bitmap.compress(format.toCompressFormat(), quality, out);
+            }
+            if (task.isCancelled()) {
+                //Kompresja przechwytuje wyjątki strumienia, dlatego sprawdzamy stan zadania
+                file.delete();
+                mainHandler.post(listener::onCancelled);
+                return;
+            }
+            if (!compressed) {
+                throw new IOException("Nie udało się zapisać obrazu " + file);
+            }
+            postProgress(listener, 100);
+            mainHandler.post(() -> listener.onSaved(file));
+        } catch (InterruptedIOException e) {
+            file.delete();
+            mainHandler.post(listener::onCancelled);
+        } catch (IOException e) {
+            fail(file, listener, e);
+        } catch (OutOfMemoryError | RuntimeException e) {
+            fail(file, listener, new IOException("Nie udało się zapisać obrazu " + file, e));
+        } finally {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    /**
+     * Usuwa częściowo zapisany plik i przekazuje błąd odbiorcy.
+     */
+    private void fail(File file, Listener listener, IOException e) {
+        file.delete();
+        mainHandler.post(() -> listener.onError(e));
+    }
+
+    private static boolean containsEraser(DrawingDocument.DocumentLayer layer) {
+        for (Stroke stroke : layer.getStrokes()) {
+            if (stroke.getStyle().isEraser()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void postProgress(Listener listener, int percent) {
+        mainHandler.post(() -> listener.onProgress(percent));
+    }
+
+    /**
+     * Strumień przerywający zapis po anulowaniu zadania.
+     */
+    private static class CancellableOutputStream extends FilterOutputStream {
+        private final Task task;
+
+        CancellableOutputStream(OutputStream out, Task task) {
+            super(out);
+            this.task = task;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCancelled();
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            out.write(b, off, len);
+        }
+
+        private void checkCancelled() throws InterruptedIOException {
+            if (task.isCancelled()) {
+                throw new InterruptedIOException("Zapis anulowany");
+            }
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Klasa DrawingHistory przechowuje historię operacji rysowania jako listę poleceń.
+ * Zamiast kopiować cały rysunek po każdej zmianie, zapamiętuje tylko samą zmianę,
+ * dzięki czemu cofanie i przywracanie działa w czasie stałym.
+ */
+public class DrawingHistory {
+    //Domyślna maksymalna liczba zapamiętanych operacji
+    public static final int DEFAULT_MAX_DEPTH = 100;
+
+    //Operacje, które można cofnąć (ostatnia na początku)
+    private final ArrayDeque<Command> undoStack = new ArrayDeque<>();
+    //Operacje, które można przywrócić (ostatnio cofnięta na początku)
+    private final ArrayDeque<Command> redoStack = new ArrayDeque<>();
+    //Maksymalna liczba zapamiętanych operacji
+    private int maxDepth;
+
+    /**
+     * Interfejs Command reprezentuje pojedynczą, odwracalną operację na rysunku.
+     */
+    public interface Command {
+        /**
+         * Wykonuje operację.
+         */
+        void apply();
+
+        /**
+         * Odwraca skutki operacji.
+         */
+        void revert();
+
+        /**
+         * Szacuje pamięć ścieżek, do których odwołuje się już tylko ta operacja, a nie rysunek,
+         * np. ścieżek usuniętych przez wykonaną operację lub dodanych przez cofniętą.
+         * @param applied - true dla operacji wykonanej, false dla cofniętej
+         * @return liczba bajtów
+         */
+        default long estimateBytes(boolean applied) {
+            return 0;
+        }
+    }
+
+    /**
+     * Konstruktor historii z domyślnym limitem operacji.
+     */
+    public DrawingHistory() {
+        this(DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Konstruktor historii.
+     * @param maxDepth - maksymalna liczba zapamiętanych operacji
+     */
+    public DrawingHistory(int maxDepth) {
+        setMaxDepth(maxDepth);
+    }
+
+    /**
+     * Wykonuje operację i zapisuje ją w historii.
+     * @param command - operacja do wykonania
+     */
+    public void execute(Command command) {
+        command.apply();
+        push(command);
+    }
+
+    /**
+     * Zapisuje w historii operację, która została już wykonana.
+     * Usuwa operacje możliwe do przywrócenia.
+     * @param command - wykonana operacja
+     */
+    public void push(Command command) {
+        undoStack.push(command);
+        redoStack.clear();
+        trim();
+    }
+
+    /**
+     * Wykonuje operację i dołącza ją do ostatniej operacji historii, tak że jedno cofnięcie cofa obie.
+     * Pozwala uzupełnić operację wynikiem obliczonym później, np. w wątku w tle.
+     * @param last - operacja, która powinna być ostatnią operacją do cofnięcia
+     * @param command - operacja do wykonania
+     * @return true, jeśli wykonano operację; false, gdy od wykonania operacji last historia się zmieniła
+     */
+    public boolean amend(Command last, Command command) {
+        if (undoStack.peek() != last) {
+            return false;
+        }
+        command.apply();
+        undoStack.pop();
+        undoStack.push(new CompositeCommand(last, command));
+        return true;
+    }
+
+    /**
+     * Cofa ostatnią operację.
+     * @return true, jeśli operacja została cofnięta
+     */
+    public boolean undo() {
+        Command command = undoStack.poll();
+        if (command == null) {
+            return false;
+        }
+        command.revert();
+        redoStack.push(command);
+        return true;
+    }
+
+    /**
+     * Przywraca ostatnio cofniętą operację.
+     * @return true, jeśli operacja została przywrócona
+     */
+    public boolean redo() {
+        Command command = redoStack.poll();
+        if (command == null) {
+            return false;
+        }
+        command.apply();
+        undoStack.push(command);
+        return true;
+    }
+
+    /**
+     * @return true, jeśli istnieje operacja do cofnięcia
+     */
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    /**
+     * @return true, jeśli istnieje operacja do przywrócenia
+     */
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * @return liczba operacji możliwych do cofnięcia
+     */
+    public int size() {
+        return undoStack.size();
+    }
+
+    /**
+     * Szacuje pamięć ścieżek przechowywanych wyłącznie przez historię operacji do cofnięcia
+     * i przywrócenia. Przegląda wszystkie operacje, więc jest przeznaczona do odczytu co pewien czas.
+     * @return liczba bajtów
+     */
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Command command : undoStack) {
+            bytes += command.estimateBytes(true);
+        }
+        for (Command command : redoStack) {
+            bytes += command.estimateBytes(false);
+        }
+        return bytes;
+    }
+
+    /**
+     * Szacuje pamięć elementu listy.
+     * @param item - element
+     * @return liczba bajtów ścieżki, 0 dla innych elementów
+     */
+    static long estimateBytes(Object item) {
+        return item instanceof Stroke ? ((Stroke) item).estimateBytes() : 0;
+    }
+
+    /**
+     * Szacuje pamięć elementów listy.
+     * @param items - elementy lub null
+     * @return suma bajtów ścieżek
+     */
+    static long estimateBytes(List<?> items) {
+        long bytes = 0;
+        if (items != null) {
+            for (Object item : items) {
+                bytes += estimateBytes(item);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Usuwa całą historię bez zmiany rysunku.
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+    }
+
+    /**
+     * Ustawia maksymalną liczbę zapamiętanych operacji.
+     * Najstarsze operacje ponad limit przestają być możliwe do cofnięcia.
+     * @param maxDepth - maksymalna liczba operacji, co najmniej 1
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Głębokość historii musi być dodatnia: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        trim();
+    }
+
+    /**
+     * @return maksymalna liczba zapamiętanych operacji
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Usuwa najstarsze operacje przekraczające limit.
+     */
+    private void trim() {
+        while (undoStack.size() > maxDepth) {
+            undoStack.pollLast();
+        }
+    }
+
+    /**
+     * Operacja dodania elementu na koniec listy.
+     * @param <T> - typ elementu
+     */
+    public static class AddCommand<T> implements Command {
+        private final List<T> list;
+        private final T item;
+
+        public AddCommand(List<T> list, T item) {
+            this.list = list;
+            this.item = item;
+        }
+
+        @Override
+        public void apply() {
+            list.add(item);
+        }
+
+        @Override
+        public void revert() {
+            //Element dodany jako ostatni jest zwykle na końcu listy
+            int last = list.size() - 1;
+            if (last >= 0 && list.get(last) == item) {
+                list.remove(last);
+            } else {
+                list.remove(item);
+            }
+        }
+
+        @Override
+        public long estimateBytes(boolean applied) {
+            return applied ? 0 : DrawingHistory.estimateBytes(item);
+        }
+    }
+
+    /**
+     * Operacja usunięcia wybranych elementów listy. Cofnięcie wstawia je z powrotem
+     * na pierwotne pozycje, więc zachowana zostaje kolejność rysowania.
+     * @param <T> - typ elementu
+     */
+    public static class RemoveCommand<T> implements Command {
+        private final List<T> list;
+        private final List<T> items;
+        //Pozycje usuniętych elementów rosnąco, uzupełniane przy wykonaniu
+        private int[] positions;
+        private List<T> removed;
+
+        public RemoveCommand(List<T> list, List<T> items) {
+            this.list = list;
+            this.items = items;
+        }
+
+        @Override
+        public void apply() {
+            int count = 0;
+            int[] found = new int[items.size()];
+            for (T item : items) {
+                int position = list.indexOf(item);
+                if (position >= 0) {
+                    found[count++] = position;
+                }
+            }
+            positions = Arrays.copyOf(found, count);
+            Arrays.sort(positions);
+            removed = new ArrayList<>(count);
+            //Usuwanie od końca nie przesuwa pozycji pozostałych elementów
+            for (int i = count - 1; i >= 0; i--) {
+                removed.add(list.remove(positions[i]));
+            }
+            Collections.reverse(removed);
+        }
+
+        @Override
+        public void revert() {
+            for (int i = 0; i < positions.length; i++) {
+                list.add(positions[i], removed.get(i));
+            }
+            removed = null;
+        }
+
+        @Override
+        public long estimateBytes(boolean applied) {
+            return applied ? DrawingHistory.estimateBytes(removed) : 0;
+        }
+    }
+
+    /**
+     * Operacja zastąpienia elementów listy innymi na tych samych pozycjach.
+     * Elementy, których nie ma już na liście, są pomijane.
+     * @param <T> - typ elementu
+     */
+    public static class ReplaceCommand<T> implements Command {
+        private final List<T> list;
+        private final List<T> originals;
+        private final List<T> replacements;
+        //Elementy zastąpione przy ostatnim wykonaniu
+        private boolean[] replaced;
+
+        /**
+         * @param list - lista elementów
+         * @param originals - zastępowane elementy
+         * @param replacements - nowe elementy, w kolejności odpowiadającej zastępowanym
+         */
+        public ReplaceCommand(List<T> list, List<T> originals, List<T> replacements) {
+            this.list = list;
+            this.originals = originals;
+            this.replacements = replacements;
+        }
+
+        @Override
+        public void apply() {
+            replaced = new boolean[originals.size()];
+            for (int i = 0; i < originals.size(); i++) {
+                int position = list.indexOf(originals.get(i));
+                if (position >= 0) {
+                    list.set(position, replacements.get(i));
+                    replaced[i] = true;
+                }
+            }
+        }
+
+        @Override
+        public void revert() {
+            for (int i = 0; i < originals.size(); i++) {
+                if (replaced[i]) {
+                    list.set(list.indexOf(replacements.get(i)), originals.get(i));
+                }
+            }
+        }
+
+        @Override
+        public long estimateBytes(boolean applied) {
+            long bytes = 0;
+            for (int i = 0; replaced != null && i < replaced.length; i++) {
+                if (replaced[i]) {
+                    bytes += DrawingHistory.estimateBytes(applied ? originals.get(i) : replacements.get(i));
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Operacja wyczyszczenia listy. Pamięta jedynie referencje do usuniętych elementów.
+     * @param <T> - typ elementu
+     */
+    public static class ClearCommand<T> implements Command {
+        private final List<T> list;
+        private List<T> removed;
+
+        public ClearCommand(List<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public void apply() {
+            removed = new ArrayList<>(list);
+            list.clear();
+        }
+
+        @Override
+        public void revert() {
+            list.addAll(removed);
+            removed = null;
+        }
+
+        @Override
+        public long estimateBytes(boolean applied) {
+            return applied ? DrawingHistory.estimateBytes(removed) : 0;
+        }
+    }
+
+    /**
+     * Operacja złożona z kilku operacji, cofana jako całość.
+     */
+    public static class CompositeCommand implements Command {
+        private final List<Command> commands;
+
+        public CompositeCommand(Command... commands) {
+            this(Arrays.asList(commands));
+        }
+
+        public CompositeCommand(List<Command> commands) {
+            this.commands = commands;
+        }
+
+        @Override
+        public void apply() {
+            for (Command command : commands) {
+                command.apply();
+            }
+        }
+
+        @Override
+        public void revert() {
+            for (int i = commands.size() - 1; i >= 0; i--) {
+                commands.get(i).revert();
+            }
+        }
+
+        @Override
+        public long estimateBytes(boolean applied) {
+            long bytes = 0;
+            for (Command command : commands) {
+                bytes += command.estimateBytes(applied);
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Klasa DrawingMetrics zbiera pomiary wydajności rysowania: czas klatki, opóźnienie od dotyku
+ * do narysowania, liczbę ścieżek rysowanych w klatce, szacowaną pamięć rysunku oraz czasy zapisu
+ * i wczytywania. Każdy pomiar trafia do histogramu w buforze cyklicznym o stałym rozmiarze,
+ * więc zapis próbki nie alokuje pamięci i kosztuje kilka operacji, a statystyki liczone są
+ * dopiero przy odczycie. Dzięki temu pomiary mogą być włączone także w wersji produkcyjnej.
+ */
+public class DrawingMetrics {
+    //Domyślna liczba ostatnich próbek przechowywanych dla każdego pomiaru
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Wyliczenie mierzonych wielkości.
+     */
+    public enum Metric {
+        FRAME_TIME("Czas klatki", "ms", 1e-6),
+        INPUT_LATENCY("Opóźnienie dotyku", "ms", 1e-6),
+        STROKES_PER_FRAME("Ścieżki w klatce", "", 1),
+        EXPORT_TIME("Zapis obrazu", "ms", 1e-6),
+        IMAGE_DECODE_TIME("Wczytanie obrazu", "ms", 1e-6),
+        DOCUMENT_OPEN_TIME("Otwarcie dokumentu", "ms", 1e-6),
+        FILL_TIME("Wypełnienie obszaru", "ms", 1e-6);
+
+        private final String displayName;
+        private final String unit;
+        //Przelicznik zapisanej wartości na jednostkę wyświetlaną (czasy zapisywane są w nanosekundach)
+        private final double scale;
+
+        Metric(String displayName, String unit, double scale) {
+            this.displayName = displayName;
+            this.unit = unit;
+            this.scale = scale;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Interfejs Listener otrzymuje każdą zapisaną próbkę, np. do wykrywania zaciętych klatek.
+     * Wywoływany jest w wątku zapisu próbki, więc nie powinien wykonywać długich operacji.
+     */
+    public interface Listener {
+        /**
+         * @param metric - mierzona wielkość
+         * @param value - wartość próbki (czasy w nanosekundach)
+         */
+        void onSample(Metric metric, long value);
+    }
+
+    /**
+     * Klasa Histogram przechowuje ostatnie próbki pomiaru w buforze cyklicznym.
+     */
+    private static class Histogram {
+        private final long[] samples;
+        //Liczba wszystkich zapisanych próbek, także nadpisanych
+        private long count;
+
+        Histogram(int capacity) {
+            samples = new long[capacity];
+        }
+
+        synchronized void record(long value) {
+            samples[(int) (count % samples.length)] = value;
+            count++;
+        }
+
+        synchronized void reset() {
+            count = 0;
+        }
+
+        /**
+         * @return liczba wszystkich zapisanych próbek
+         */
+        synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * @return kopia przechowywanych próbek, posortowana rosnąco
+         */
+        synchronized long[] sortedSamples() {
+            long[] copy = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Klasa Summary zawiera statystyki ostatnich próbek pomiaru.
+     */
+    public static class Summary {
+        public final Metric metric;
+        public final long count;
+        public final long p50;
+        public final long p90;
+        public final long p99;
+        public final long max;
+
+        Summary(Metric metric, long count, long[] sorted) {
+            this.metric = metric;
+            this.count = count;
+            this.p50 = percentile(sorted, 0.5);
+            this.p90 = percentile(sorted, 0.9);
+            this.p99 = percentile(sorted, 0.99);
+            this.max = sorted.length > 0 ? sorted[sorted.length - 1] : 0;
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
+    private final Histogram[] histograms;
+    private volatile boolean enabled = true;
+    private volatile Listener listener;
+    //Szacowana pamięć ścieżek na warstwach rysunku
+    private volatile long modelBytes;
+    //Szacowana pamięć ścieżek przechowywanych wyłącznie przez historię operacji
+    private volatile long historyBytes;
+
+    /**
+     * Konstruktor z domyślną liczbą przechowywanych próbek.
+     */
+    public DrawingMetrics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Konstruktor.
+     * @param capacity - liczba ostatnich próbek przechowywanych dla każdego pomiaru
+     */
+    public DrawingMetrics(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pojemność histogramu musi być dodatnia: " + capacity);
+        }
+        Metric[] metrics = Metric.values();
+        histograms = new Histogram[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            histograms[i] = new Histogram(capacity);
+        }
+    }
+
+    /**
+     * Zapisuje próbkę pomiaru. Nie alokuje pamięci.
+     * @param metric - mierzona wielkość
+     * @param value - wartość (czasy w nanosekundach)
+     */
+    public void record(Metric metric, long value) {
+        if (!enabled) {
+            return;
+        }
+        histograms[metric.ordinal()].record(value);
+        Listener current = listener;
+        if (current != null) {
+            current.onSample(metric, value);
+        }
+    }
+
+    /**
+     * Zwraca statystyki ostatnich próbek pomiaru. Kopiuje i sortuje próbki, więc jest przeznaczona
+     * do odczytu co pewien czas, a nie w każdej klatce.
+     * @param metric - mierzona wielkość
+     * @return statystyki
+     */
+    public Summary summary(Metric metric) {
+        Histogram histogram = histograms[metric.ordinal()];
+        long count;
+        long[] sorted;
+        synchronized (histogram) {
+            count = histogram.getCount();
+            sorted = histogram.sortedSamples();
+        }
+        return new Summary(metric, count, sorted);
+    }
+
+    /**
+     * Wypisuje statystyki wszystkich pomiarów w postaci tekstu, np. do logu lub raportu błędu.
+     * @param out - miejsce zapisu
+     * @throws IOException błąd zapisu
+     */
+    public void dump(Appendable out) throws IOException {
+        for (Metric metric : Metric.values()) {
+            Summary summary = summary(metric);
+            out.append(String.format(Locale.ROOT, "%s: n=%d p50=%.1f%s p90=%.1f%s p99=%.1f%s max=%.1f%s%n",
+                    metric.displayName, summary.count,
+                    summary.p50 * metric.scale, metric.unit, summary.p90 * metric.scale, metric.unit,
+                    summary.p99 * metric.scale, metric.unit, summary.max * metric.scale, metric.unit));
+        }
+        out.append(String.format(Locale.ROOT, "Pamięć rysunku: %d kB%n", modelBytes / 1024));
+        out.append(String.format(Locale.ROOT, "Pamięć historii: %d kB%n", historyBytes / 1024));
+    }
+
+    /**
+     * Usuwa wszystkie próbki.
+     */
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @param modelBytes - szacowana pamięć ścieżek rysunku
+     */
+    public void setModelBytes(long modelBytes) {
+        this.modelBytes = modelBytes;
+    }
+
+    public long getModelBytes() {
+        return modelBytes;
+    }
+
+    /**
+     * @param historyBytes - szacowana pamięć ścieżek przechowywanych wyłącznie przez historię
+     */
+    public void setHistoryBytes(long historyBytes) {
+        this.historyBytes = historyBytes;
+    }
+
+    public long getHistoryBytes() {
+        return historyBytes;
+    }
+
+    /**
+     * Włącza lub wyłącza zapisywanie próbek.
+     * @param enabled - true, aby zapisywać próbki
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ustawia odbiorcę próbek.
+     * @param listener - odbiorca lub null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+}
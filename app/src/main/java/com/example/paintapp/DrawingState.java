@@ -0,0 +1,246 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Klasa DrawingState przechowuje model rysunku niezależny od widoku: warstwy ze ścieżkami,
+ * historię operacji, tło, bieżący zapis dokumentu oraz położenie widoku na płótnie.
+ * Obiekt nie odwołuje się do widoku ani kontekstu, więc może przetrwać zmianę konfiguracji
+ * (np. obrót ekranu) i zostać przekazany nowemu widokowi bez kopiowania ścieżek.
+ * Kafelki warstw zwalniane są razem ze starym widokiem i rysowane ponownie dopiero przy rysowaniu nowego.
+ * Zmiany warstw i ścieżek dopisywane są do bieżącego zapisu jako rekordy zmian dokumentu.
+ */
+public class DrawingState {
+    //Rysowanie zatwierdzonych ścieżek, wspólne dla warstw
+    final StrokeRenderer renderer = new StrokeRenderer(PaintPool.getShared());
+    //Warstwy rysunku od najniższej do najwyższej
+    final List<Layer> layers = new ArrayList<>();
+    //Warstwa, na której zapisywane są nowe ścieżki
+    Layer activeLayer;
+    //Historia operacji rysowania
+    final DrawingHistory history = new DrawingHistory();
+    //Bitmapa tła rysunku, null gdy brak tła
+    Bitmap backgroundBitmap;
+    //Odnośnik do obrazu tła zapisywany w dokumencie
+    String backgroundUri;
+    //Bieżący zapis dokumentu, null gdy wyłączony
+    DocumentAutosave autosave;
+    //Rozmiar płótna ustawiony niezależnie od widoku, 0 gdy płótno ma rozmiar widoku
+    int canvasWidth, canvasHeight;
+    //Położenie widoku na płótnie i powiększenie w chwili odłączenia widoku
+    float viewportX, viewportY;
+    float scale = 1f;
+
+    /**
+     * Zamyka bieżący zapis dokumentu po wykonaniu zleconych zapisów.
+     * Wywoływana, gdy stan nie będzie już używany przez żaden widok.
+     */
+    public void release() {
+        if (autosave != null) {
+            autosave.close();
+            autosave = null;
+        }
+    }
+
+    /**
+     * Włącza dopisywanie zmian ścieżek warstwy do bieżącego zapisu.
+     * Zmiany warstw, które nie należą (jeszcze) do rysunku, są pomijane.
+     * @param layer - warstwa
+     */
+    void track(Layer layer) {
+        layer.getStrokes().setJournal(new LayerJournal(layer));
+    }
+
+    /**
+     * Dopisuje do bieżącego zapisu nowe ustawienia warstwy.
+     * @param layer - warstwa rysunku
+     */
+    void journalSettings(Layer layer) {
+        int layerId = layers.indexOf(layer);
+        if (autosave != null && layerId >= 0) {
+            autosave.layerChanged(layerId, copy(layer, new ArrayList<>()));
+        }
+    }
+
+    /**
+     * Dopisuje do bieżącego zapisu dodanie lub usunięcie warstwy.
+     * Operacje na warstwach dodają lub usuwają najwyżej jedną warstwę.
+     * @param before - warstwy przed zmianą
+     */
+    void journalLayers(List<Layer> before) {
+        if (autosave == null || before.size() == layers.size()) {
+            return;
+        }
+        int changed = 0;
+        while (changed < before.size() && changed < layers.size() && before.get(changed) == layers.get(changed)) {
+            changed++;
+        }
+        if (layers.size() < before.size()) {
+            autosave.layerRemoved(changed);
+        } else {
+            //Przywrócona warstwa zapisywana jest razem ze swoimi ścieżkami
+            Layer layer = layers.get(changed);
+            autosave.layerInserted(changed, copy(layer, new ArrayList<>(layer.getStrokes())));
+        }
+    }
+
+    /**
+     * Dopisuje do bieżącego zapisu zmianę tła.
+     * @param before - odnośnik do tła przed zmianą
+     */
+    void journalBackground(String before) {
+        if (autosave != null && !Objects.equals(before, backgroundUri)) {
+            autosave.backgroundChanged(backgroundUri);
+        }
+    }
+
+    /**
+     * Tworzy kopię ustawień warstwy do zapisu w tle.
+     */
+    private static DrawingDocument.DocumentLayer copy(Layer layer, List<Stroke> strokes) {
+        DrawingDocument.DocumentLayer copy = new DrawingDocument.DocumentLayer(layer.getName(), strokes);
+        copy.setVisible(layer.isVisible());
+        copy.setOpacity(layer.getOpacity());
+        copy.setBlendMode(layer.getBlendMode());
+        return copy;
+    }
+
+    /**
+     * Dziennik zmian ścieżek warstwy dopisujący je do bieżącego zapisu.
+     */
+    private class LayerJournal implements StrokeList.Journal {
+        private final Layer layer;
+
+        LayerJournal(Layer layer) {
+            this.layer = layer;
+        }
+
+        @Override
+        public void onInserted(int position, Stroke stroke) {
+            int layerId = layerId();
+            if (layerId < 0) {
+                return;
+            }
+            if (position == layer.getStrokes().size() - 1) {
+                autosave.strokeAdded(stroke, layerId);
+            } else {
+                autosave.strokeInserted(stroke, layerId, position);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position) {
+            int layerId = layerId();
+            if (layerId >= 0) {
+                autosave.strokeRemoved(layerId, position);
+            }
+        }
+
+        @Override
+        public void onReplaced(int position, Stroke stroke) {
+            int layerId = layerId();
+            if (layerId >= 0) {
+                autosave.strokeReplaced(stroke, layerId, position);
+            }
+        }
+
+        @Override
+        public void onCleared() {
+            int layerId = layerId();
+            if (layerId >= 0) {
+                autosave.layerCleared(layerId);
+            }
+        }
+
+        /**
+         * @return numer warstwy lub -1, gdy zapis jest wyłączony albo warstwa nie należy do rysunku
+         */
+        private int layerId() {
+            return autosave == null ? -1 : layers.indexOf(layer);
+        }
+    }
+
+    /**
+     * Operacja usunięcia warstwy, pamięta jej położenie do cofnięcia.
+     */
+    static class RemoveLayerCommand implements DrawingHistory.Command {
+        private final DrawingState state;
+        private final int index;
+        private Layer removed;
+
+        RemoveLayerCommand(DrawingState state, int index) {
+            this.state = state;
+            this.index = index;
+        }
+
+        @Override
+        public void apply() {
+            removed = state.layers.remove(index);
+            removed.release();
+        }
+
+        @Override
+        public void revert() {
+            state.layers.add(index, removed);
+        }
+
+        @Override
+        public long estimateBytes(boolean applied) {
+            //Usunięta warstwa przechowuje wszystkie swoje ścieżki
+            return applied ? DrawingHistory.estimateBytes(removed.getStrokes()) : 0;
+        }
+    }
+
+    /**
+     * Operacja zmiany tła rysunku, pamięta poprzednie tło do cofnięcia.
+     */
+    static class BackgroundCommand implements DrawingHistory.Command {
+        private final DrawingState state;
+        private final Bitmap newBackground;
+        private final String newUri;
+        private Bitmap previousBackground;
+        private String previousUri;
+
+        BackgroundCommand(DrawingState state, Bitmap newBackground, String newUri) {
+            this.state = state;
+            this.newBackground = newBackground;
+            this.newUri = newUri;
+        }
+
+        @Override
+        public void apply() {
+            previousBackground = state.backgroundBitmap;
+            previousUri = state.backgroundUri;
+            setBackground(newBackground, newUri);
+        }
+
+        @Override
+        public void revert() {
+            setBackground(previousBackground, previousUri);
+        }
+
+        private void setBackground(Bitmap bitmap, String uri) {
+            state.backgroundBitmap = bitmap;
+            state.backgroundUri = uri;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import androidx.lifecycle.ViewModel;
+
+/**
+ * Klasa DrawingStateHolder przechowuje model rysunku aktywności między zmianami konfiguracji.
+ * Po obrocie ekranu nowy widok przejmuje model bez serializacji, a bieżący zapis dokumentu
+ * zamykany jest dopiero po ostatecznym zamknięciu aktywności.
+ */
+public class DrawingStateHolder extends ViewModel {
+    private DrawingState state;
+
+    /**
+     * @return przechowywany model rysunku lub null, jeśli aktywność uruchomiono po raz pierwszy
+     */
+    public DrawingState getState() {
+        return state;
+    }
+
+    public void setState(DrawingState state) {
+        this.state = state;
+    }
+
+    @Override
+    protected void onCleared() {
+        if (state != null) {
+            state.release();
+        }
+    }
+}
@@ -18,66 +18,158 @@ package com.example.paintapp;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.BlurMaskFilter;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.DashPathEffect;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.net.Uri;
+import android.os.Bundle;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
  * Klasa DrawingView reprezentuje widok do rysowania.
  */
 public class DrawingView extends View {
+    /**
+     * Interfejs SimplifyListener otrzymuje w wątku głównym wynik upraszczania rysunku.
+     */
+    public interface SimplifyListener {
+        /**
+         * @param strokeCount - liczba uproszczonych ścieżek
+         * @param removedPoints - liczba usuniętych punktów
+         */
+        void onSimplified(int strokeCount, int removedPoints);
+    }
+
     //Aktualny obiekt Paint używany do rysowania
     private Paint currentPaint;
     //Aktualnie rysowana ścieżka
     private Path currentPath;
-    //Lista wszystkich narysowanych ścieżek
-    private List<PathWithPaint> paths;
+    //Model rysunku, który może przetrwać zmianę konfiguracji
+    private DrawingState state;
+    //Warstwy i historia modelu rysunku
+    private List<Layer> layers;
+    private DrawingHistory history;
+    //Maksymalna liczba warstw
+    public static final int MAX_LAYERS = 8;
+    //Punkty aktualnie rysowanej linii lub gumki
+    private Stroke currentStroke;
     //Aktualna figura do rysowania - domyślnie linia
-    private String currentShape = "Line";
+    private ShapeType currentShape = ShapeType.LINE;
     //Zmienne przechowujące punkty figury
     private float startX, startY, endX, endY;
     //Stała szerokość gumki
     private static final float ERASER_STROKE_WIDTH = 20f;
-    //Pędzel do rysowania w trybie gumki
+    //Wspólny pędzel do rysowania w trybie gumki
     private Paint eraserPaint;
-    //Historia wszystkich stanów rysunku
-    private List<List<PathWithPaint>> history;
-    //Aktualny indeks w historii
-    private int historyIndex;
-    //Bitmapa tła rysunku
-    private Bitmap backgroundBitmap;
-    //Flaga określająca ustawienie tła
-    private boolean hasBackground = false;
+    //Styl ścieżek gumki, usuwających piksele warstwy
+    private StrokeStyle eraserStyle;
+    //Granice zatwierdzanej gumki i ścieżki pod nią, obiekty wielokrotnego użytku
+    private final float[] eraserBounds = new float[4];
+    private final List<Stroke> touchedStrokes = new ArrayList<>();
     //Flaga określająca, czy aktualnie rysowana figura jest gumką
     private boolean isEraserActive = false;
-
-    //Wyliczenie styli pędzla
-    public enum BrushStyle {
-        NORMAL,
-        DASHED,
-        DOTTED,
-        BLUR
-    }
+    //Flaga określająca tryb gumki usuwającej całe ścieżki
+    private boolean isStrokeEraserActive = false;
+    //Promień gumki ścieżek wokół palca
+    private static final float STROKE_ERASER_RADIUS = ERASER_STROKE_WIDTH / 2;
+    //Test trafienia ścieżek gumką ścieżek
+    private final StrokeHitTester hitTester = new StrokeHitTester();
+    //Operacje usunięcia ścieżek w trwającym geście gumki ścieżek
+    private final List<DrawingHistory.Command> strokeRemovals = new ArrayList<>();
+    //Ostatni punkt gestu gumki ścieżek
+    private float strokeEraserX, strokeEraserY;
+    //Największa różnica składowej koloru piksela wypełnianego wiadrem z farbą
+    private static final int FILL_TOLERANCE = 32;
+    //Największa liczba pikseli płótna próbkowanych przy wypełnianiu (obraz i tablica pikseli po 16 MB)
+    private static final int MAX_FILL_PIXELS = 2048 * 2048;
+    //Wyznaczanie obszaru wypełnienia oraz obraz i piksele wielokrotnego użytku
+    private final FloodFill floodFill = new FloodFill();
+    private Bitmap fillRaster;
+    private int[] fillPixels;
+    //Wspólny wątek upraszczania linii i obiekt upraszczający używany wyłącznie w tym wątku
+    private static final ExecutorService SIMPLIFY_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final StrokeSimplifier SIMPLIFIER = new StrokeSimplifier(StrokeSimplifier.DEFAULT_TOLERANCE);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    //Maksymalna liczba kafelków każdej warstwy w pamięci
+    private int maxTiles = 1;
+    //Rozmiar płótna rysunku, domyślnie równy rozmiarowi widoku
+    private int canvasWidth, canvasHeight;
+    //Flaga określająca, czy rozmiar płótna został ustawiony niezależnie od widoku
+    private boolean fixedCanvasSize = false;
+    //Położenie lewego górnego rogu widoku na płótnie
+    private float viewportX, viewportY;
+    //Powiększenie widoku
+    private float scale = 1f;
+    //Powiększenie, w którym narysowane są kafelki; w trakcie gestu różni się od powiększenia widoku
+    private float renderScale = 1f;
+    //Zakres powiększenia
+    private static final float MIN_SCALE = 0.5f;
+    private static final float MAX_SCALE = 8f;
+    //Rozpoznawanie gestu powiększania dwoma palcami
+    private ScaleGestureDetector scaleDetector;
+    //Flaga określająca, czy trwa gest powiększania lub przesuwania
+    private boolean isGesturing = false;
+    //Punkt skupienia gestu w poprzednim zdarzeniu, we współrzędnych widoku
+    private float gestureFocusX, gestureFocusY;
+    //Aktualny styl pędzla
+    private BrushStyle brushStyle = BrushStyle.NORMAL;
+    //Adapter przekazujący wygładzone odcinki do aktualnej ścieżki
+    private PathAdapter currentPathAdapter;
+    //Wygładzanie punktów dotyku linii i gumki
+    private StrokeSmoother smoother;
+    //Wspólne pędzle odpowiadające stylom zatwierdzonych ścieżek
+    private PaintPool paintPool;
+    //Rysowanie zatwierdzonych ścieżek
+    private StrokeRenderer renderer;
+    //Zapis rysunku do pliku w tle
+    private DrawingExporter exporter;
+    //Wczytywanie obrazu tła w tle
+    private BackgroundLoader backgroundLoader;
+    //Maksymalny rozmiar rysunku zapisywanego bezpośrednio w stanie aktywności, znacznie poniżej limitu Binder
+    static final int MAX_STATE_BYTES = 32 * 1024;
+    //Plik bieżącego zapisu rysunku większego niż MAX_STATE_BYTES, gdy zapis nie był wcześniej włączony
+    private static final String STATE_FILE = "drawing_state.pntd";
+    //Klucze stanu aktywności
+    private static final String KEY_DOCUMENT = "drawing.document";
+    private static final String KEY_DOCUMENT_FILE = "drawing.documentFile";
+    private static final String KEY_ACTIVE_LAYER = "drawing.activeLayer";
+    private static final String KEY_CANVAS_WIDTH = "drawing.canvasWidth";
+    private static final String KEY_CANVAS_HEIGHT = "drawing.canvasHeight";
+    private static final String KEY_VIEWPORT_X = "drawing.viewportX";
+    private static final String KEY_VIEWPORT_Y = "drawing.viewportY";
+    private static final String KEY_SCALE = "drawing.scale";
+    //Pomiary wydajności rysowania
+    private final DrawingMetrics metrics = new DrawingMetrics();
+    //Czas pierwszego dotyku oczekującego na narysowanie (uptimeMillis), -1 gdy brak
+    private long pendingInputTime = -1;
+    //Punkty i ścieżka wielokrotnego użytku do podglądu figury, bez alokacji w onDraw
+    private final float[] previewPoints = new float[4];
+    //Granice podglądu figury: poprzednie i nowe
+    private final float[] previousBounds = new float[4];
+    private final float[] previewBounds = new float[4];
+    private Path previewPath;
+    private PathAdapter previewPathAdapter;
 
     /**
      * Konstruktor widoku rysowania.
@@ -100,96 +192,598 @@ public class DrawingView extends View {
         currentPaint.setStyle(Paint.Style.STROKE);
         currentPaint.setAntiAlias(true);
 
+        paintPool = PaintPool.getShared();
+
         //Inicjalizacja gumki jako pędzla o kolorze tła
-        eraserPaint = new Paint();
-        eraserPaint.setColor(Color.WHITE); //Kolor tła
-        eraserPaint.setStrokeWidth(ERASER_STROKE_WIDTH);
-        eraserPaint.setStyle(Paint.Style.STROKE);
-        eraserPaint.setAntiAlias(true);
-        eraserPaint.setStrokeCap(Paint.Cap.ROUND); // Zaokrąglone końce dla płynniejszego wyglądu
-
-        paths = new ArrayList<>();
+        eraserStyle = StrokeStyle.of(Color.WHITE, ERASER_STROKE_WIDTH, BrushStyle.NORMAL, true);
+        eraserPaint = paintPool.get(eraserStyle);
+
         currentPath = new Path();
+        currentPathAdapter = new PathAdapter(currentPath);
+        smoother = new StrokeSmoother(currentPathAdapter);
+
+        exporter = new DrawingExporter();
+        backgroundLoader = new BackgroundLoader();
+        previewPath = new Path();
+        previewPathAdapter = new PathAdapter(previewPath);
+        scaleDetector = new ScaleGestureDetector(getContext(), new ScaleListener());
 
-        history = new ArrayList<>();
-        history.add(new ArrayList<>());
-        historyIndex = 0;
+        //Nowy rysunek z jedną pustą warstwą
+        useState(new DrawingState());
+        state.activeLayer = createLayer(DrawingDocument.defaultLayerName(0));
+        layers.add(state.activeLayer);
+    }
+
+    /**
+     * Ustawia model rysunku, z którego korzysta widok.
+     */
+    private void useState(DrawingState state) {
+        this.state = state;
+        layers = state.layers;
+        history = state.history;
+        renderer = state.renderer;
+    }
+
+    /**
+     * Dostosowuje liczbę kafelków w pamięci do rozmiaru widoku.
+     * Jeśli rozmiar płótna nie został ustawiony, płótno ma rozmiar widoku.
+     * @param w - nowa szerokość
+     * @param h - nowa wysokość
+     * @param oldw - poprzednia szerokość
+     * @param oldh - poprzednia wysokość
+     */
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (!fixedCanvasSize) {
+            canvasWidth = w;
+            canvasHeight = h;
+            resetTiles();
+        }
+        //Widoczne kafelki oraz pas kafelków wokół widoku
+        int columns = w / TileCache.TILE_SIZE + 2;
+        int rows = h / TileCache.TILE_SIZE + 2;
+        maxTiles = columns * rows;
+        for (Layer layer : layers) {
+            layer.setMaxTiles(maxTiles);
+        }
+        scrollCanvasTo(viewportX, viewportY);
+    }
+
+    /**
+     * Tworzy od nowa siatki kafelków warstw dla rozmiaru płótna w aktualnym powiększeniu kafelków.
+     */
+    private void resetTiles() {
+        for (Layer layer : layers) {
+            layer.setCanvasSize(canvasWidth, canvasHeight, renderScale);
+        }
+    }
+
+    /**
+     * Tworzy pustą warstwę dopasowaną do rozmiaru płótna.
+     * @param name - nazwa warstwy
+     * @return warstwa
+     */
+    private Layer createLayer(String name) {
+        Layer layer = new Layer(name, renderer);
+        state.track(layer);
+        layer.setCanvasSize(canvasWidth, canvasHeight, renderScale);
+        layer.setMaxTiles(maxTiles);
+        return layer;
     }
 
     /**
      * Metoda rysowania widoku.
-     * Renderuje tło, wszystkie zapisane ścieżki oraz aktualnie rysowaną figurę.
+     * Renderuje tło, widoczne kafelki kolejnych warstw oraz aktualnie rysowaną figurę.
      * @param canvas - płótno do rysowania
      */
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
-        canvas.drawColor(Color.WHITE); // Ustawienie białego tła
+        long frameStart = System.nanoTime();
+        renderer.takeDrawnCount();
 
-        // Najpierw rysuj tło jeśli istnieje
-        if (hasBackground && backgroundBitmap != null) {
-            canvas.drawBitmap(backgroundBitmap, 0, 0, null);
-        }
+        int saveCount = canvas.save();
+        //Dalsze rysowanie we współrzędnych płótna
+        canvas.scale(scale, scale);
+        canvas.translate(-viewportX, -viewportY);
+        canvas.clipRect(0, 0, canvasWidth, canvasHeight);
 
-        // Rysuj wszystkie zapisane ścieżki
-        for (PathWithPaint pathWithPaint : paths) {
-            canvas.drawPath(pathWithPaint.path, pathWithPaint.paint);
+        // Tło pod wszystkimi warstwami, a nad nim warstwy od najniższej
+        renderer.drawBackground(canvas, state.backgroundBitmap);
+        float right = viewportX + getWidth() / scale;
+        float bottom = viewportY + getHeight() / scale;
+        boolean erasing = isEraserActive && currentStroke != null;
+        for (int i = 0, n = layers.size(); i < n; i++) {
+            Layer layer = layers.get(i);
+            if (erasing && layer == state.activeLayer) {
+                // Podgląd gumki usuwa piksele tylko aktywnej warstwy
+                layer.draw(canvas, viewportX, viewportY, right, bottom, currentPath, eraserPaint);
+            } else {
+                layer.draw(canvas, viewportX, viewportY, right, bottom);
+            }
         }
 
         // Rysuj aktualną ścieżkę
-        if (currentPath != null) {
-            if (isEraserActive) {
-                canvas.drawPath(currentPath, eraserPaint);
-            } else if (currentShape.equals("Line")) {
+        if (currentPath != null && !isEraserActive && currentShape != ShapeType.FILL) {
+            if (currentShape == ShapeType.LINE) {
                 canvas.drawPath(currentPath, currentPaint);
-            } else if (currentShape.equals("Rectangle")) {
-                float left = Math.min(startX, endX);
-                float top = Math.min(startY, endY);
-                float right = Math.max(startX, endX);
-                float bottom = Math.max(startY, endY);
-                canvas.drawRect(left, top, right, bottom, currentPaint);
-            } else if (currentShape.equals("Ellipse")) {
-                float left = Math.min(startX, endX);
-                float top = Math.min(startY, endY);
-                float right = Math.max(startX, endX);
-                float bottom = Math.max(startY, endY);
-                canvas.drawOval(left, top, right, bottom, currentPaint);
-            } else if (currentShape.equals("Triangle")) {
-                @SuppressLint("DrawAllocation") Path trianglePath = new Path();
-                trianglePath.moveTo(startX, startY);
-                trianglePath.lineTo(endX, startY);
-                trianglePath.lineTo((startX + endX) / 2, endY);
-                trianglePath.close();
-                canvas.drawPath(trianglePath, currentPaint);
+            } else {
+                // Podgląd figury budowany w tej samej ścieżce co klatkę
+                previewPoints[0] = startX;
+                previewPoints[1] = startY;
+                previewPoints[2] = endX;
+                previewPoints[3] = endY;
+                previewPath.rewind();
+                currentShape.outline(previewPoints, 2, previewPathAdapter);
+                canvas.drawPath(previewPath, currentPaint);
             }
         }
+        canvas.restoreToCount(saveCount);
+        recordFrame(frameStart);
+    }
+
+    /**
+     * Zapamiętuje czas dotyku, który zmienił obraz. Wywoływana tylko tam, gdzie dotyk odświeża widok,
+     * aby opóźnienie zdarzeń bez odświeżenia nie było doliczane do następnej klatki.
+     * @param event - zdarzenie dotykowe
+     */
+    private void markInput(MotionEvent event) {
+        //Najstarszy dotyk, który nie został jeszcze narysowany
+        if (pendingInputTime < 0) {
+            pendingInputTime = event.getEventTime();
+        }
+    }
+
+    /**
+     * Zapisuje pomiary zakończonej klatki. Opóźnienie dotyku liczone jest do końca rysowania klatki,
+     * bez czasu wyświetlenia jej przez system.
+     * @param frameStart - czas rozpoczęcia klatki z System.nanoTime
+     */
+    private void recordFrame(long frameStart) {
+        metrics.record(DrawingMetrics.Metric.FRAME_TIME, System.nanoTime() - frameStart);
+        metrics.record(DrawingMetrics.Metric.STROKES_PER_FRAME, renderer.takeDrawnCount());
+        if (pendingInputTime >= 0) {
+            metrics.record(DrawingMetrics.Metric.INPUT_LATENCY,
+                    (SystemClock.uptimeMillis() - pendingInputTime) * 1_000_000L);
+            pendingInputTime = -1;
+        }
+    }
+
+    /**
+     * Zwraca styl dla nowej ścieżki na podstawie aktualnego pędzla.
+     * @return styl ścieżki
+     */
+    private StrokeStyle currentStyle() {
+        if (isEraserActive) {
+            return eraserStyle;
+        }
+        return StrokeStyle.of(currentPaint.getColor(), currentPaint.getStrokeWidth(), brushStyle, false);
+    }
+
+    /**
+     * Ustawia rozmiar płótna niezależny od rozmiaru widoku, np. dla rysunków większych niż ekran.
+     * Pamięć zależy od rozmiaru widoku, bo w pamięci przechowywane są tylko ostatnio widoczne kafelki.
+     * @param width - szerokość płótna
+     * @param height - wysokość płótna
+     */
+    public void setCanvasSize(int width, int height) {
+        fixedCanvasSize = true;
+        canvasWidth = width;
+        canvasHeight = height;
+        resetTiles();
+        scrollCanvasTo(viewportX, viewportY);
+        invalidate();
     }
 
+    public int getCanvasWidth() {
+        return canvasWidth;
+    }
+
+    public int getCanvasHeight() {
+        return canvasHeight;
+    }
+
+    /**
+     * Przesuwa widok na płótnie. Położenie jest ograniczane do krawędzi płótna,
+     * a płótno mniejsze od widoku jest wyśrodkowane.
+     * @param x - współrzędna x lewego górnego rogu widoku na płótnie
+     * @param y - współrzędna y lewego górnego rogu widoku na płótnie
+     */
+    public void scrollCanvasTo(float x, float y) {
+        viewportX = clampViewport(x, canvasWidth - getWidth() / scale);
+        viewportY = clampViewport(y, canvasHeight - getHeight() / scale);
+        invalidate();
+    }
+
+    private static float clampViewport(float position, float max) {
+        if (max < 0) {
+            return max / 2;
+        }
+        return Math.max(0, Math.min(position, max));
+    }
+
+    /**
+     * @return powiększenie widoku
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Kończy gest powiększania: kafelki rysowane są od nowa w nowym powiększeniu,
+     * aby zastąpić rozmyty obraz skalowanych kafelków.
+     */
+    private void settleScale() {
+        if (renderScale != scale) {
+            renderScale = scale;
+            resetTiles();
+        }
+        invalidate();
+    }
+
+    /**
+     * Obsługa dotyku w trybie gumki ścieżek. Trafione ścieżki aktywnej warstwy są usuwane od razu,
+     * a po zakończeniu gestu całe usunięcie zapisywane jest w historii jako jedna operacja.
+     * @param event - zdarzenie dotykowe
+     * @param action - rodzaj zdarzenia
+     * @param x - współrzędna x płótna
+     * @param y - współrzędna y płótna
+     * @return true, jeśli zdarzenie zostało obsłużone
+     */
+    private boolean onStrokeEraserTouch(MotionEvent event, int action, float x, float y) {
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                strokeEraserX = x;
+                strokeEraserY = y;
+                if (eraseStrokesAt(x, y)) {
+                    markInput(event);
+                }
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                boolean erased = false;
+                int historySize = event.getHistorySize();
+                for (int i = 0; i < historySize; i++) {
+                    erased |= eraseStrokesAlong(viewportX + event.getHistoricalX(i) / scale,
+                            viewportY + event.getHistoricalY(i) / scale);
+                }
+                erased |= eraseStrokesAlong(x, y);
+                if (erased) {
+                    markInput(event);
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP:
+                if (eraseStrokesAlong(x, y)) {
+                    markInput(event);
+                }
+                if (!strokeRemovals.isEmpty()) {
+                    //Ścieżki zostały już usunięte, historia tylko zapamiętuje operację
+                    history.push(new DrawingHistory.CompositeCommand(new ArrayList<>(strokeRemovals)));
+                    strokeRemovals.clear();
+                }
+                return true;
+
+            case MotionEvent.ACTION_CANCEL:
+                cancelCurrentStroke();
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Usuwa ścieżki trafione na odcinku od poprzedniego punktu gestu. Odcinek sprawdzany jest
+     * w odstępach promienia gumki, aby szybki ruch nie przeskoczył cienkich ścieżek.
+     * @param x - współrzędna x nowego punktu
+     * @param y - współrzędna y nowego punktu
+     * @return true, jeśli usunięto jakąś ścieżkę
+     */
+    private boolean eraseStrokesAlong(float x, float y) {
+        float dx = x - strokeEraserX;
+        float dy = y - strokeEraserY;
+        int steps = (int) Math.ceil(Math.sqrt(dx * dx + dy * dy) / STROKE_ERASER_RADIUS);
+        boolean erased = false;
+        for (int i = 1; i <= steps; i++) {
+            erased |= eraseStrokesAt(strokeEraserX + dx * i / steps, strokeEraserY + dy * i / steps);
+        }
+        strokeEraserX = x;
+        strokeEraserY = y;
+        return erased;
+    }
+
+    /**
+     * Usuwa ścieżki aktywnej warstwy przechodzące przez okrąg gumki. Kandydaci wyszukiwani są
+     * w indeksie przestrzennym, a dokładny test odległości wykonywany jest tylko dla nich.
+     * @param x - współrzędna x środka gumki
+     * @param y - współrzędna y środka gumki
+     * @return true, jeśli usunięto jakąś ścieżkę
+     */
+    private boolean eraseStrokesAt(float x, float y) {
+        float r = STROKE_ERASER_RADIUS;
+        state.activeLayer.getStrokes().getIndex().queryRect(x - r, y - r, x + r, y + r, touchedStrokes);
+        List<Stroke> hits = null;
+        for (int i = 0, n = touchedStrokes.size(); i < n; i++) {
+            Stroke stroke = touchedStrokes.get(i);
+            //Ścieżki gumki są niewidoczne, ich usunięcie przywróciłoby wymazane piksele
+            if (!stroke.getStyle().isEraser() && hitTester.hits(stroke, x, y, r)) {
+                if (hits == null) {
+                    hits = new ArrayList<>();
+                }
+                hits.add(stroke);
+            }
+        }
+        touchedStrokes.clear();
+        if (hits != null) {
+            //Warstwa odświeża tylko kafelki pod usuniętymi ścieżkami
+            DrawingHistory.Command removal = new DrawingHistory.RemoveCommand<>(state.activeLayer.getStrokes(), hits);
+            removal.apply();
+            strokeRemovals.add(removal);
+            invalidate();
+        }
+        return hits != null;
+    }
+
+    /**
+     * Sprawdza, czy ścieżka gumki przecina granice którejś ścieżki aktywnej warstwy.
+     * @param eraser - ścieżka gumki
+     * @return true, jeśli gumka może usunąć piksele warstwy
+     */
+    private boolean erasesAnything(Stroke eraser) {
+        eraser.getBounds(eraserBounds);
+        float padding = StrokeRenderer.padding(eraser.getStyle(), eraser.getShape());
+        state.activeLayer.getStrokes().getIndex().queryRect(eraserBounds[0] - padding, eraserBounds[1] - padding,
+                eraserBounds[2] + padding, eraserBounds[3] + padding, touchedStrokes);
+        boolean erases = false;
+        for (int i = 0, n = touchedStrokes.size(); i < n && !erases; i++) {
+            erases = !touchedStrokes.get(i).getStyle().isEraser();
+        }
+        touchedStrokes.clear();
+        return erases;
+    }
+
+    /**
+     * Przerywa rysowanie bieżącej ścieżki bez jej zapisywania, np. gdy gest staje się wielopalcowy.
+     */
+    private void cancelCurrentStroke() {
+        //Przerwany gest gumki ścieżek przywraca usunięte ścieżki
+        for (int i = strokeRemovals.size() - 1; i >= 0; i--) {
+            strokeRemovals.get(i).revert();
+        }
+        strokeRemovals.clear();
+        currentStroke = null;
+        currentPath = new Path();
+        startX = startY = endX = endY = 0;
+        invalidate();
+    }
+
+    public float getViewportX() {
+        return viewportX;
+    }
+
+    public float getViewportY() {
+        return viewportY;
+    }
 
     /**
      * Metoda ustawiająca styl pędzla.
-     * Style: normalny, kreskowany, kropkowany, rozmyty.
+     * Style: normalny, kreskowany, kropkowany, rozmyty, naciskowy, kaligraficzny, aerograf.
      * @param style - wybrany styl
      */
     public void setBrushStyle(BrushStyle style) {
-        //Aktualny styl pędzla
-        switch (style) {
-            case NORMAL:
-                currentPaint.setPathEffect(null);
-                currentPaint.setMaskFilter(null);
-                break;
-            case DASHED:
-                currentPaint.setPathEffect(new DashPathEffect(new float[]{20, 10}, 0));
-                currentPaint.setMaskFilter(null);
-                break;
-            case DOTTED:
-                currentPaint.setPathEffect(new DashPathEffect(new float[]{5, 10}, 0));
-                currentPaint.setMaskFilter(null);
-                break;
-            case BLUR:
-                currentPaint.setPathEffect(null);
-                currentPaint.setMaskFilter(new BlurMaskFilter(10, BlurMaskFilter.Blur.NORMAL));
-                break;
+        PaintPool.applyBrushStyle(currentPaint, style);
+        brushStyle = style;
+    }
+
+    /**
+     * Oblicza margines obszaru do odświeżenia wokół rysowanej figury.
+     * Uwzględnia grubość pędzla, rozmycie oraz narożniki figur.
+     * @return margines w pikselach
+     */
+    private float strokePadding() {
+        if (isEraserActive) {
+            return eraserPaint.getStrokeWidth() / 2 + 1;
+        }
+        return StrokeRenderer.padding(currentPaint.getStrokeWidth(), brushStyle, currentShape);
+    }
+
+    /**
+     * Oblicza granice podglądu aktualnej figury przeciąganej do podanego punktu.
+     * @param x - współrzędna x punktu końcowego
+     * @param y - współrzędna y punktu końcowego
+     * @param bounds - tablica {left, top, right, bottom} do wypełnienia
+     */
+    private void shapeBounds(float x, float y, float[] bounds) {
+        previewPoints[0] = startX;
+        previewPoints[1] = startY;
+        previewPoints[2] = x;
+        previewPoints[3] = y;
+        currentShape.previewBounds(previewPoints, bounds);
+    }
+
+    /**
+     * Odświeża tylko podany prostokąt, powiększony o margines.
+     * @param left - lewa krawędź
+     * @param top - górna krawędź
+     * @param right - prawa krawędź
+     * @param bottom - dolna krawędź
+     */
+    @SuppressWarnings("deprecation")
+    private void invalidateBounds(float left, float top, float right, float bottom) {
+        //Prostokąt podany jest we współrzędnych płótna
+        float padding = strokePadding();
+        invalidate((int) Math.floor((left - padding - viewportX) * scale),
+                (int) Math.floor((top - padding - viewportY) * scale),
+                (int) Math.ceil((right + padding - viewportX) * scale),
+                (int) Math.ceil((bottom + padding - viewportY) * scale));
+    }
+
+    /**
+     * Dodaje punkt do rysowanej linii. Linia pędzla naciskowego zapamiętuje siłę nacisku w punkcie.
+     */
+    private void addStrokePoint(float x, float y, float pressure) {
+        if (currentStroke.getStyle().getBrushStyle() == BrushStyle.PRESSURE) {
+            currentStroke.addPoint(x, y, pressure);
+        } else {
+            currentStroke.addPoint(x, y);
+        }
+    }
+
+    /**
+     * Dodaje zatwierdzoną ścieżkę do aktywnej warstwy i dopisuje ją do bieżącego zapisu.
+     * W historii zapisywana jest tylko dodana ścieżka. Warstwa dorysowuje ją do swoich kafelków,
+     * a gumka czyści ich piksele.
+     */
+    private void commitStroke(Stroke stroke) {
+        StrokeList strokes = state.activeLayer.getStrokes();
+        DrawingHistory.Command add = new DrawingHistory.AddCommand<>(strokes, stroke);
+        history.execute(add);
+        simplifyLater(strokes, stroke, add);
+    }
+
+    /**
+     * Upraszcza zatwierdzoną linię w wątku w tle i podmienia ją na liście w wątku głównym.
+     * Podmiana dołączana jest do operacji dodania linii, więc jedno cofnięcie nadal usuwa całą linię.
+     * Jeśli przed podmianą wykonano inną operację, linia pozostaje nieuproszczona
+     * do czasu uproszczenia całego rysunku.
+     * @param strokes - lista, do której dodano linię
+     * @param stroke - zatwierdzona linia
+     * @param add - operacja dodania linii
+     */
+    private void simplifyLater(StrokeList strokes, Stroke stroke, DrawingHistory.Command add) {
+        if (!StrokeSimplifier.canSimplify(stroke)) {
+            return;
+        }
+        DrawingHistory target = history;
+        SIMPLIFY_EXECUTOR.execute(() -> {
+            Stroke simplified = SIMPLIFIER.simplify(stroke);
+            if (simplified == null) {
+                return;
+            }
+            mainHandler.post(() -> {
+                DrawingHistory.Command replace = new DrawingHistory.ReplaceCommand<>(strokes,
+                        Collections.singletonList(stroke), Collections.singletonList(simplified));
+                if (target.amend(add, replace)) {
+                    invalidate();
+                }
+            });
+        });
+    }
+
+    /**
+     * Upraszcza w tle wszystkie linie rysunku, np. odtworzone z dokumentu lub pominięte przy zatwierdzaniu.
+     * Ścieżki zastępowane są w wątku głównym jedną operacją, którą można cofnąć.
+     * Ścieżki usunięte w trakcie upraszczania są pomijane.
+     * @param listener - odbiorca wyniku, wywoływany w wątku głównym
+     */
+    public void simplifyDrawing(SimplifyListener listener) {
+        List<StrokeList> lists = new ArrayList<>();
+        List<List<Stroke>> snapshots = new ArrayList<>();
+        for (Layer layer : layers) {
+            lists.add(layer.getStrokes());
+            snapshots.add(new ArrayList<>(layer.getStrokes()));
+        }
+        DrawingHistory target = history;
+        SIMPLIFY_EXECUTOR.execute(() -> {
+            List<DrawingHistory.Command> commands = new ArrayList<>();
+            int strokeCount = 0;
+            int removedPoints = 0;
+            for (int i = 0; i < lists.size(); i++) {
+                List<Stroke> originals = new ArrayList<>();
+                List<Stroke> replacements = new ArrayList<>();
+                for (Stroke stroke : snapshots.get(i)) {
+                    Stroke simplified = SIMPLIFIER.simplify(stroke);
+                    if (simplified != null) {
+                        originals.add(stroke);
+                        replacements.add(simplified);
+                        removedPoints += stroke.getPointCount() - simplified.getPointCount();
+                    }
+                }
+                if (!originals.isEmpty()) {
+                    commands.add(new DrawingHistory.ReplaceCommand<>(lists.get(i), originals, replacements));
+                    strokeCount += originals.size();
+                }
+            }
+            int simplifiedStrokes = strokeCount;
+            int simplifiedPoints = removedPoints;
+            mainHandler.post(() -> {
+                if (!commands.isEmpty()) {
+                    target.execute(new DrawingHistory.CompositeCommand(commands));
+                    invalidate();
+                }
+                listener.onSimplified(simplifiedStrokes, simplifiedPoints);
+            });
+        });
+    }
+
+    /**
+     * Wypełnia kolorem pędzla obszar podobnego koloru pod punktem (wiadro z farbą).
+     * Próbkowany jest obraz całego płótna złożony z tła i kafelków widocznych warstw, także poza ekranem.
+     * Płótno większe niż MAX_FILL_PIXELS próbkowane jest w oknie tej wielkości wokół punktu,
+     * więc wypełnienie bardzo dużego obszaru kończy się na krawędzi okna.
+     * Obszar zapisywany jest jako jedna ścieżka z prostokątami, którą można cofnąć.
+     * @param x - współrzędna x punktu na płótnie
+     * @param y - współrzędna y punktu na płótnie
+     * @return true, jeśli obszar został wypełniony
+     */
+    private boolean fillAt(float x, float y) {
+        long start = System.nanoTime();
+        if (x < 0 || y < 0 || x >= canvasWidth || y >= canvasHeight) {
+            return false;
+        }
+        //Okno o ograniczonej liczbie pikseli, możliwie kwadratowe i obejmujące punkt
+        int width = (int) Math.min(canvasWidth, Math.max(Math.sqrt(MAX_FILL_PIXELS), MAX_FILL_PIXELS / canvasHeight));
+        int height = Math.min(canvasHeight, MAX_FILL_PIXELS / width);
+        int left = Math.max(0, Math.min(canvasWidth - width, (int) x - width / 2));
+        int top = Math.max(0, Math.min(canvasHeight - height, (int) y - height / 2));
+        int right = left + width;
+        int bottom = top + height;
+        //Bitmapa i tablica pikseli używane ponownie, dopóki nie zmieni się rozmiar obszaru
+        if (fillRaster == null || fillRaster.getWidth() != width || fillRaster.getHeight() != height) {
+            releaseFillRaster();
+            fillRaster = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            fillPixels = new int[width * height];
+        }
+        Canvas rasterCanvas = new Canvas(fillRaster);
+        rasterCanvas.translate(-left, -top);
+        //Obszar składany jest pasami po jednym wierszu kafelków, aby brakujące kafelki zmieściły się
+        //w pamięci kafelków warstwy; przycięcie do pasa rysuje każdy piksel tylko raz
+        float band = TileCache.TILE_SIZE / renderScale;
+        for (float bandTop = (float) Math.floor(top / band) * band; bandTop < bottom; bandTop += band) {
+            float bandBottom = Math.min(bottom, bandTop + band);
+            int saveCount = rasterCanvas.save();
+            rasterCanvas.clipRect(left, Math.max(top, bandTop), right, bandBottom);
+            renderer.drawBackground(rasterCanvas, state.backgroundBitmap);
+            for (int i = 0, n = layers.size(); i < n; i++) {
+                layers.get(i).draw(rasterCanvas, left, Math.max(top, bandTop), right, bandBottom);
+            }
+            rasterCanvas.restoreToCount(saveCount);
+        }
+        fillRaster.getPixels(fillPixels, 0, width, 0, 0, width, height);
+
+        float[] rectangles = floodFill.fill(fillPixels, width, height, (int) x - left, (int) y - top, FILL_TOLERANCE);
+        //Obraz większy niż widok nie jest trzymany w pamięci między wypełnieniami
+        if ((long) width * height > (long) getWidth() * getHeight()) {
+            releaseFillRaster();
+        }
+        if (rectangles.length == 0) {
+            return false;
+        }
+        for (int i = 0; i < rectangles.length; i += 2) {
+            rectangles[i] += left;
+            rectangles[i + 1] += top;
+        }
+        commitStroke(new Stroke(currentStyle(), ShapeType.FILL, rectangles, rectangles.length / 2));
+        metrics.record(DrawingMetrics.Metric.FILL_TIME, System.nanoTime() - start);
+        invalidate();
+        return true;
+    }
+
+    private void releaseFillRaster() {
+        if (fillRaster != null) {
+            fillRaster.recycle();
+            fillRaster = null;
+            fillPixels = null;
         }
     }
 
@@ -202,89 +796,130 @@ public class DrawingView extends View {
     @SuppressLint("ClickableViewAccessibility")
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        float x = event.getX();
-        float y = event.getY();
+        // Drugi palec rozpoczyna gest powiększania i przesuwania zamiast rysowania
+        scaleDetector.onTouchEvent(event);
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_POINTER_DOWN) {
+            cancelCurrentStroke();
+            isGesturing = true;
+            return true;
+        }
+        if (isGesturing) {
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                isGesturing = false;
+                settleScale();
+            }
+            return true;
+        }
+
+        //Współrzędne dotyku przeliczane na współrzędne płótna
+        float x = viewportX + event.getX() / scale;
+        float y = viewportY + event.getY() / scale;
+        if (isStrokeEraserActive) {
+            return onStrokeEraserTouch(event, action, x, y);
+        }
+        if (!isEraserActive && currentShape == ShapeType.FILL) {
+            //Wypełnienie wykonywane jest po podniesieniu palca
+            if (action == MotionEvent.ACTION_UP && fillAt(x, y)) {
+                markInput(event);
+            }
+            return true;
+        }
 
-        switch (event.getAction()) {
+        switch (action) {
             case MotionEvent.ACTION_DOWN:
                 startX = x;
                 startY = y;
+                endX = x;
+                endY = y;
                 currentPath = new Path();
-                currentPath.moveTo(startX, startY);
+                currentPathAdapter.setPath(currentPath);
+                smoother.begin(startX, startY);
+                currentStroke = new Stroke(currentStyle(), ShapeType.LINE);
+                addStrokePoint(startX, startY, event.getPressure());
                 return true;
 
             case MotionEvent.ACTION_MOVE:
+                float previousX = endX;
+                float previousY = endY;
                 endX = x;
                 endY = y;
-                if (isEraserActive || currentShape.equals("Line")) {
-                    currentPath.lineTo(endX, endY);
-                    if (isEraserActive) {
-                        // Przy gumce od razu dodajemy ścieżkę do listy
-                        Path eraserPath = new Path(currentPath);
-                        paths.add(new PathWithPaint(eraserPath, new Paint(eraserPaint)));
-                        currentPath = new Path();
-                        currentPath.moveTo(endX, endY);
+                if (isEraserActive || currentShape == ShapeType.LINE) {
+                    // Gumka tak jak linia tworzy jedną ścieżkę na cały gest.
+                    // Zdarzenie może zawierać kilka próbek zebranych od poprzedniej klatki.
+                    // Nowa krzywa zaczyna się w końcu ścieżki, a jej punktem kontrolnym jest ostatni
+                    // zapamiętany punkt, który przy pomijaniu punktów może leżeć daleko za palcem.
+                    float left = Math.min(Math.min(smoother.getLastX(), smoother.getMidX()), endX);
+                    float top = Math.min(Math.min(smoother.getLastY(), smoother.getMidY()), endY);
+                    float right = Math.max(Math.max(smoother.getLastX(), smoother.getMidX()), endX);
+                    float bottom = Math.max(Math.max(smoother.getLastY(), smoother.getMidY()), endY);
+                    boolean accepted = false;
+                    int historySize = event.getHistorySize();
+                    for (int i = 0; i < historySize; i++) {
+                        float hx = viewportX + event.getHistoricalX(i) / scale;
+                        float hy = viewportY + event.getHistoricalY(i) / scale;
+                        if (smoother.addPoint(hx, hy)) {
+                            addStrokePoint(hx, hy, event.getHistoricalPressure(i));
+                            accepted = true;
+                        }
+                        left = Math.min(left, hx);
+                        top = Math.min(top, hy);
+                        right = Math.max(right, hx);
+                        bottom = Math.max(bottom, hy);
+                    }
+                    if (smoother.addPoint(endX, endY)) {
+                        addStrokePoint(endX, endY, event.getPressure());
+                        accepted = true;
                     }
+                    // Odśwież tylko obszar nowych odcinków, o ile wygładzanie przyjęło nowe punkty
+                    if (accepted) {
+                        invalidateBounds(left, top, right, bottom);
+                        markInput(event);
+                    }
+                } else {
+                    // Odśwież obszar poprzedniego i nowego podglądu figury
+                    shapeBounds(previousX, previousY, previousBounds);
+                    shapeBounds(endX, endY, previewBounds);
+                    invalidateBounds(Math.min(previousBounds[0], previewBounds[0]),
+                            Math.min(previousBounds[1], previewBounds[1]),
+                            Math.max(previousBounds[2], previewBounds[2]),
+                            Math.max(previousBounds[3], previewBounds[3]));
+                    markInput(event);
                 }
-                invalidate();
                 return true;
 
             case MotionEvent.ACTION_UP:
                 endX = x;
                 endY = y;
 
-                if (!isEraserActive) {
-                    Path path = new Path();
-                    switch (currentShape) {
-                        case "Line":
-                            path.set(currentPath);
-                            break;
-                        case "Rectangle": {
-                            float left = Math.min(startX, endX);
-                            float top = Math.min(startY, endY);
-                            float right = Math.max(startX, endX);
-                            float bottom = Math.max(startY, endY);
-                            path.addRect(left, top, right, bottom, Path.Direction.CW);
-                            break;
-                        }
-                        case "Ellipse": {
-                            float left = Math.min(startX, endX);
-                            float top = Math.min(startY, endY);
-                            float right = Math.max(startX, endX);
-                            float bottom = Math.max(startY, endY);
-                            path.addOval(left, top, right, bottom, Path.Direction.CW);
-                            break;
-                        }
-                        case "Triangle":
-                            path.moveTo(startX, startY);
-                            path.lineTo(endX, startY);
-                            path.lineTo((startX + endX) / 2, endY);
-                            path.close();
-                            break;
-                    }
-                    paths.add(new PathWithPaint(path, new Paint(currentPaint)));
-                }
-
-                // Zapisz aktualny stan w historii
-                if (historyIndex < history.size() - 1) {
-                    while (history.size() > historyIndex + 1) {
-                        history.remove(history.size() - 1);
+                Stroke stroke;
+                if (isEraserActive || currentShape == ShapeType.LINE) {
+                    if (smoother.end(endX, endY)) {
+                        addStrokePoint(endX, endY, event.getPressure());
                     }
+                    stroke = currentStroke;
+                    stroke.trimToSize();
+                } else {
+                    // Figura zapisywana jest jako punkt początkowy i końcowy
+                    stroke = new Stroke(currentStyle(), currentShape, new float[]{startX, startY, endX, endY}, 2);
                 }
+                currentStroke = null;
+                currentPath = new Path();
+                markInput(event);
 
-                List<PathWithPaint> pathsCopy = new ArrayList<>();
-                for (PathWithPaint pwp : paths) {
-                    Path pathCopy = new Path(pwp.path);
-                    Paint paintCopy = new Paint(pwp.paint);
-                    pathsCopy.add(new PathWithPaint(pathCopy, paintCopy));
+                // Gumka, która nie dotknęła żadnej ścieżki, nie jest zapisywana
+                if (isEraserActive && !erasesAnything(stroke)) {
+                    invalidate();
+                    return true;
                 }
 
-                history.add(pathsCopy);
-                historyIndex++;
-
-                currentPath = new Path();
+                commitStroke(stroke);
                 invalidate();
                 return true;
+
+            case MotionEvent.ACTION_CANCEL:
+                cancelCurrentStroke();
+                return true;
         }
         return false;
     }
@@ -295,41 +930,65 @@ public class DrawingView extends View {
      */
     public void setPaint(Paint paint) {
         this.currentPaint = paint;
+        //Efekty stemplujące zależą od grubości pędzla
+        PaintPool.applyBrushStyle(currentPaint, brushStyle);
     }
 
     /**
-     * Metoda do czyszczenia rysunku, resetuje historię i tło.
+     * Metoda do czyszczenia rysunku, usuwa ścieżki i tło.
+     * Czyszczenie można cofnąć.
      */
     public void clear() {
-        paths.clear();
         currentPath = new Path();
         startX = startY = endX = endY = 0;
 
-        //Reset historii z pustym stanem
-        history.clear();
-        history.add(new ArrayList<>());
-        historyIndex = 0;
-
-        //Czyszczenie tła
-        hasBackground = false;
-        backgroundBitmap = null;
+        List<DrawingHistory.Command> commands = new ArrayList<>();
+        for (Layer layer : layers) {
+            commands.add(new DrawingHistory.ClearCommand<>(layer.getStrokes()));
+        }
+        commands.add(new DrawingState.BackgroundCommand(state, null, null));
+        String background = state.backgroundUri;
+        history.execute(new DrawingHistory.CompositeCommand(commands));
+        state.journalBackground(background);
 
         invalidate();
     }
 
+    /**
+     * Ustawia maksymalną liczbę operacji możliwych do cofnięcia.
+     * @param maxDepth - maksymalna liczba operacji
+     */
+    public void setHistoryDepth(int maxDepth) {
+        history.setMaxDepth(maxDepth);
+    }
+
     /**
      * Ustawia aktualny kształt lub aktywuje gumkę
+     * ("Eraser" usuwa piksele warstwy, "StrokeEraser" usuwa całe ścieżki)
      * @param shape - nazwa kształtu lub gumka
      */
     public void setShape(String shape) {
         if (shape.equals("Eraser")) {
             isEraserActive = true;
-            // Aktualizacja szerokości gumki przy każdym jej wyborze
-            eraserPaint.setStrokeWidth(ERASER_STROKE_WIDTH);
-        } else {
+            isStrokeEraserActive = false;
+            currentPath = new Path();
+        } else if (shape.equals("StrokeEraser")) {
             isEraserActive = false;
-            currentShape = shape;
+            isStrokeEraserActive = true;
+            currentPath = new Path();
+        } else {
+            setShape(ShapeType.fromName(shape));
         }
+    }
+
+    /**
+     * Ustawia aktualny kształt i wyłącza gumkę.
+     * @param shape - kształt
+     */
+    public void setShape(ShapeType shape) {
+        isEraserActive = false;
+        isStrokeEraserActive = false;
+        currentShape = shape;
         currentPath = new Path();
     }
 
@@ -337,22 +996,19 @@ public class DrawingView extends View {
      * Metoda do cofania ostatniej operacji rysowania.
      */
     public void undo() {
-        if (historyIndex > 0) {
-            historyIndex--;
-
-            //Głębokie kopiowanie stanu z historii
-            paths.clear();
-            List<PathWithPaint> historicalPaths = history.get(historyIndex);
-            for (PathWithPaint pwp : historicalPaths) {
-                Path pathCopy = new Path(pwp.path);
-                Paint paintCopy = new Paint(pwp.paint);
-                paths.add(new PathWithPaint(pathCopy, paintCopy));
-            }
+        List<Layer> layersBefore = new ArrayList<>(layers);
+        String background = state.backgroundUri;
+        if (history.undo()) {
+            //Zmiany ścieżek trafiły do zapisu wraz z operacją, pozostają zmiany warstw i tła
+            state.journalLayers(layersBefore);
+            state.journalBackground(background);
 
             //Reset aktualnie rysowanej figury
             currentPath = new Path();
             startX = startY = endX = endY = 0;
 
+            //Warstwy odświeżają tylko kafelki pod zmienionymi ścieżkami
+            ensureActiveLayer();
             invalidate();
         }
     }
@@ -361,87 +1017,463 @@ public class DrawingView extends View {
      * Metoda do przywracania ostatniej operacji rysowania.
      */
     public void redo() {
-        if (historyIndex < history.size() - 1) {
-            historyIndex++;
-
-            //Głębokie kopiowanie stanu z historii
-            paths.clear();
-            List<PathWithPaint> historicalPaths = history.get(historyIndex);
-            for (PathWithPaint pwp : historicalPaths) {
-                Path pathCopy = new Path(pwp.path);
-                Paint paintCopy = new Paint(pwp.paint);
-                paths.add(new PathWithPaint(pathCopy, paintCopy));
-            }
+        List<Layer> layersBefore = new ArrayList<>(layers);
+        String background = state.backgroundUri;
+        if (history.redo()) {
+            //Zmiany ścieżek trafiły do zapisu wraz z operacją, pozostają zmiany warstw i tła
+            state.journalLayers(layersBefore);
+            state.journalBackground(background);
 
             //Reset aktualnie rysowanej figury
             currentPath = new Path();
             startX = startY = endX = endY = 0;
 
+            //Warstwy odświeżają tylko kafelki pod zmienionymi ścieżkami
+            ensureActiveLayer();
             invalidate();
         }
     }
 
     /**
-     * Zapisuje aktualny rysunek jako plik PNG.
+     * Zapisuje aktualny rysunek do pliku w wybranym formacie.
+     * Rysowanie i kompresja odbywają się w tle, a wątek główny kopiuje jedynie listę ścieżek.
      * @param context - Kontekst aplikacji
+     * @param format - format zapisu
+     * @param quality - jakość od 0 do 100 (pomijana dla PNG)
+     * @param listener - odbiorca informacji o przebiegu zapisu
+     * @return zadanie pozwalające anulować zapis
      */
-    public void saveDrawing(Context context) {
-        //Tworzenie bitmapy z widoku
-        Bitmap bitmap = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-        draw(canvas);
-
-        //Zapisywanie bitmapy do pliku
-        String fileName = "rysunek_" + System.currentTimeMillis() + ".png";
+    public DrawingExporter.Task saveDrawing(Context context, DrawingExporter.Format format, int quality,
+                                            DrawingExporter.Listener listener) {
+        String fileName = "rysunek_" + System.currentTimeMillis() + format.getExtension();
         File file = new File(context.getExternalFilesDir(Environment.DIRECTORY_PICTURES), fileName);
+        long start = System.nanoTime();
+        return exporter.export(snapshotDocument(), state.backgroundBitmap, canvasWidth, canvasHeight,
+                format, quality, file, new DrawingExporter.Listener() {
+                    @Override
+                    public void onProgress(int percent) {
+                        listener.onProgress(percent);
+                    }
 
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
-            Toast.makeText(context, "Rysunek zapisany: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
-        } catch (IOException e) {
-            Toast.makeText(context, "Błąd podczas zapisywania rysunku", Toast.LENGTH_SHORT).show();
-            e.getMessage();
-        }
+                    @Override
+                    public void onSaved(File file) {
+                        metrics.record(DrawingMetrics.Metric.EXPORT_TIME, System.nanoTime() - start);
+                        listener.onSaved(file);
+                    }
+
+                    @Override
+                    public void onError(IOException e) {
+                        listener.onError(e);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        listener.onCancelled();
+                    }
+                });
     }
 
     /**
      * Wczytuje obraz z lokalizacji i ustawia go jako tło rysunku.
+     * Obraz dekodowany jest w tle z pomniejszeniem do rozmiaru płótna.
+     * Ponowne wywołanie anuluje poprzednie wczytywanie.
      * @param imageUri - URI obrazu
      * @param context - Kontekst aplikacji
      */
     public void loadImage(Uri imageUri, Context context) {
+        long start = System.nanoTime();
+        backgroundLoader.load(context.getContentResolver(), imageUri, canvasWidth, canvasHeight,
+                new BackgroundLoader.Listener() {
+                    @Override
+                    public void onLoaded(Bitmap bitmap) {
+                        metrics.record(DrawingMetrics.Metric.IMAGE_DECODE_TIME, System.nanoTime() - start);
+                        String background = state.backgroundUri;
+                        history.execute(new DrawingState.BackgroundCommand(state, bitmap, imageUri.toString()));
+                        state.journalBackground(background);
+                        invalidate(); //Odśwież widok
+                        Toast.makeText(context, "Obraz wczytany pomyślnie", Toast.LENGTH_SHORT).show();
+                    }
+
+                    @Override
+                    public void onError(IOException e) {
+                        Toast.makeText(context, "Błąd podczas wczytywania obrazu", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    /**
+     * Odtwarza rysunek zapisany w pliku dokumentu i włącza jego bieżący zapis.
+     * Plik jest odwzorowywany w pamięci, a punkty ścieżek dekodowane dopiero przy rysowaniu
+     * ścieżek widocznych w widoku, więc czas otwarcia prawie nie zależy od liczby ścieżek.
+     * Odtworzony rysunek staje się stanem początkowym, bez historii operacji.
+     * @param file - plik dokumentu
+     * @param context - Kontekst aplikacji
+     */
+    public void openAutosave(File file, Context context) {
         try {
-            //Wczytaj bitmapę z URI
-            InputStream imageStream = context.getContentResolver().openInputStream(imageUri);
-            Bitmap loadedBitmap = BitmapFactory.decodeStream(imageStream);
+            long start = System.nanoTime();
+            DrawingDocument document = DocumentAutosave.restore(file);
+            if (document != null) {
+                metrics.record(DrawingMetrics.Metric.DOCUMENT_OPEN_TIME, System.nanoTime() - start);
+                loadDocument(document, context);
+            }
+        } catch (IOException e) {
+            Toast.makeText(context, "Nie udało się odtworzyć rysunku", Toast.LENGTH_SHORT).show();
+        }
+        enableAutosave(file);
+    }
+
+    /**
+     * Włącza bieżący zapis rysunku do pliku dokumentu bez odczytu pliku,
+     * np. gdy rysunek został już odtworzony ze stanu aktywności.
+     * Zapis pozostaje włączony, jeśli model rysunku już go posiada.
+     * @param file - plik dokumentu
+     */
+    public void enableAutosave(File file) {
+        if (state.autosave == null) {
+            state.autosave = new DocumentAutosave(file);
+        }
+    }
+
+    /**
+     * Zastępuje warstwy rysunku warstwami dokumentu i czyści historię operacji.
+     */
+    private void loadDocument(DrawingDocument document, Context context) {
+        for (Layer layer : layers) {
+            layer.release();
+        }
+        layers.clear();
+        for (DrawingDocument.DocumentLayer saved : document.getLayers()) {
+            Layer layer = createLayer(saved.getName());
+            layer.setVisible(saved.isVisible());
+            layer.setOpacity(saved.getOpacity());
+            layer.setBlendMode(saved.getBlendMode());
+            layer.getStrokes().addAll(saved.getStrokes());
+            layers.add(layer);
+        }
+        state.activeLayer = layers.get(layers.size() - 1);
+        history.clear();
+        if (document.getBackgroundUri() != null) {
+            restoreBackground(Uri.parse(document.getBackgroundUri()), context);
+        }
+        invalidate();
+    }
+
+    /**
+     * @return model rysunku, który można przekazać nowemu widokowi po zmianie konfiguracji
+     */
+    public DrawingState getDrawingState() {
+        return state;
+    }
+
+    /**
+     * Przejmuje model rysunku poprzedniego widoku, np. po obrocie ekranu.
+     * Ścieżki, historia i tło nie są kopiowane, a kafelki warstw rysowane są ponownie
+     * dopiero przy rysowaniu, więc czas przejęcia nie zależy od rozmiaru rysunku.
+     * @param retained - model rysunku zwrócony przez getDrawingState
+     */
+    public void attachState(DrawingState retained) {
+        for (Layer layer : layers) {
+            layer.release();
+        }
+        useState(retained);
+        if (retained.canvasWidth > 0) {
+            fixedCanvasSize = true;
+            canvasWidth = retained.canvasWidth;
+            canvasHeight = retained.canvasHeight;
+        }
+        scale = renderScale = retained.scale;
+        for (Layer layer : layers) {
+            layer.setMaxTiles(maxTiles);
+        }
+        resetTiles();
+        scrollCanvasTo(retained.viewportX, retained.viewportY);
+    }
 
-            //Przeskaluj bitmapę do rozmiaru widoku jeśli jest potrzeba
-            if (getWidth() > 0 && getHeight() > 0) {
-                backgroundBitmap = Bitmap.createScaledBitmap(loadedBitmap, getWidth(), getHeight(), true);
+    /**
+     * Zapisuje rysunek w stanie aktywności, aby przetrwał zamknięcie procesu przez system.
+     * Obiekty Path i bitmapy nie są zapisywane - rysunek zapisywany jest w formacie dokumentu,
+     * a tło jako odnośnik do obrazu. Jeśli bieżący zapis dokumentu jest włączony, w stanie aktywności
+     * pozostaje tylko ścieżka jego pliku. W przeciwnym razie dokument do MAX_STATE_BYTES zapisywany jest
+     * w stanie aktywności, a większy dokument włącza bieżący zapis do pliku w katalogu cacheDir,
+     * wykonywany w wątku tła. Historia operacji nie jest zapisywana.
+     * @param out - stan aktywności
+     * @param cacheDir - katalog pliku zapisu, używany, gdy bieżący zapis dokumentu jest wyłączony
+     */
+    public void saveState(Bundle out, File cacheDir) {
+        if (state.autosave == null) {
+            DrawingDocument document = snapshotDocument();
+            byte[] bytes = DocumentWriter.encode(document, MAX_STATE_BYTES);
+            if (bytes != null) {
+                out.putByteArray(KEY_DOCUMENT, bytes);
             } else {
-                backgroundBitmap = loadedBitmap;
+                //Kolejne zmiany rysunku dopisywane są do tego samego pliku
+                state.autosave = new DocumentAutosave(new File(cacheDir, STATE_FILE));
+                state.autosave.save(document);
             }
+        }
+        if (state.autosave != null) {
+            //Bieżący zapis zawiera cały rysunek, zapisywana jest tylko ścieżka pliku
+            out.putString(KEY_DOCUMENT_FILE, state.autosave.getFile().getPath());
+        }
+        out.putInt(KEY_ACTIVE_LAYER, getActiveLayerIndex());
+        if (fixedCanvasSize) {
+            out.putInt(KEY_CANVAS_WIDTH, canvasWidth);
+            out.putInt(KEY_CANVAS_HEIGHT, canvasHeight);
+        }
+        out.putFloat(KEY_VIEWPORT_X, viewportX);
+        out.putFloat(KEY_VIEWPORT_Y, viewportY);
+        out.putFloat(KEY_SCALE, scale);
+    }
 
-            hasBackground = true;
-            invalidate(); //Odśwież widok
-            Toast.makeText(context, "Obraz wczytany pomyślnie", Toast.LENGTH_SHORT).show();
-
+    /**
+     * Odtwarza rysunek zapisany przez saveState. Punkty ścieżek dekodowane są dopiero przy rysowaniu,
+     * a odtworzony rysunek staje się stanem początkowym, bez historii operacji.
+     * @param in - stan aktywności
+     * @param context - Kontekst aplikacji
+     * @return true, jeśli odtworzono rysunek; false, gdy stan go nie zawiera lub jest nieczytelny
+     */
+    public boolean restoreState(Bundle in, Context context) {
+        long start = System.nanoTime();
+        DrawingDocument document;
+        try {
+            byte[] bytes = in.getByteArray(KEY_DOCUMENT);
+            String path = in.getString(KEY_DOCUMENT_FILE);
+            if (bytes != null) {
+                document = DocumentReader.read(ByteBuffer.wrap(bytes));
+            } else if (path != null) {
+                document = DocumentAutosave.restore(new File(path));
+            } else {
+                return false;
+            }
         } catch (IOException e) {
-            e.getMessage();
-            Toast.makeText(context, "Błąd podczas wczytywania obrazu", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+        if (document == null) {
+            return false;
         }
+        metrics.record(DrawingMetrics.Metric.DOCUMENT_OPEN_TIME, System.nanoTime() - start);
+        scale = renderScale = in.getFloat(KEY_SCALE, 1f);
+        loadDocument(document, context);
+        int activeLayer = in.getInt(KEY_ACTIVE_LAYER, layers.size() - 1);
+        setActiveLayer(Math.max(0, Math.min(activeLayer, layers.size() - 1)));
+        if (in.containsKey(KEY_CANVAS_WIDTH)) {
+            setCanvasSize(in.getInt(KEY_CANVAS_WIDTH, canvasWidth), in.getInt(KEY_CANVAS_HEIGHT, canvasHeight));
+        }
+        scrollCanvasTo(in.getFloat(KEY_VIEWPORT_X, 0), in.getFloat(KEY_VIEWPORT_Y, 0));
+        return true;
+    }
+
+    /**
+     * Wczytuje tło zapisane w dokumencie bez dodawania operacji do historii.
+     * Brak dostępu do obrazu nie jest zgłaszany - rysunek zostaje bez tła.
+     */
+    private void restoreBackground(Uri imageUri, Context context) {
+        long start = System.nanoTime();
+        backgroundLoader.load(context.getContentResolver(), imageUri, canvasWidth, canvasHeight,
+                new BackgroundLoader.Listener() {
+                    @Override
+                    public void onLoaded(Bitmap bitmap) {
+                        metrics.record(DrawingMetrics.Metric.IMAGE_DECODE_TIME, System.nanoTime() - start);
+                        new DrawingState.BackgroundCommand(state, bitmap, imageUri.toString()).apply();
+                        invalidate();
+                    }
+
+                    @Override
+                    public void onError(IOException e) {
+                        String background = state.backgroundUri;
+                        state.backgroundUri = null;
+                        state.journalBackground(background);
+                    }
+                });
     }
 
     /**
-     * Klasa reprezentująca ścieżkę i styl rysowania.
+     * Tworzy kopię warstw rysunku do zapisu w tle. Kopiowane są tylko listy ścieżek.
+     * @return kopia dokumentu
      */
-    public static class PathWithPaint {
-        Path path;
-        Paint paint;
+    private DrawingDocument snapshotDocument() {
+        DrawingDocument document = new DrawingDocument();
+        document.getLayers().clear();
+        for (Layer layer : layers) {
+            DrawingDocument.DocumentLayer copy =
+                    new DrawingDocument.DocumentLayer(layer.getName(), new ArrayList<>(layer.getStrokes()));
+            copy.setVisible(layer.isVisible());
+            copy.setOpacity(layer.getOpacity());
+            copy.setBlendMode(layer.getBlendMode());
+            document.getLayers().add(copy);
+        }
+        document.setBackgroundUri(state.backgroundUri);
+        return document;
+    }
+
+    /**
+     * @return pomiary wydajności rysowania
+     */
+    public DrawingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Wypisuje pomiary wydajności wraz z szacowaną pamięcią ścieżek wszystkich warstw
+     * oraz ścieżek, które przechowuje już tylko historia operacji.
+     * Pamięć liczona jest przy każdym wywołaniu, a nie przy każdej zmianie rysunku.
+     * @param out - miejsce zapisu
+     * @throws IOException błąd zapisu
+     */
+    public void dumpMetrics(Appendable out) throws IOException {
+        long bytes = 0;
+        for (Layer layer : layers) {
+            for (Stroke stroke : layer.getStrokes()) {
+                bytes += stroke.estimateBytes();
+            }
+        }
+        metrics.setModelBytes(bytes);
+        metrics.setHistoryBytes(history.estimateBytes());
+        metrics.dump(out);
+    }
+
+    /**
+     * @return warstwy rysunku od najniższej do najwyższej, tylko do odczytu
+     */
+    public List<Layer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * @return numer warstwy, na której zapisywane są nowe ścieżki
+     */
+    public int getActiveLayerIndex() {
+        return layers.indexOf(state.activeLayer);
+    }
+
+    /**
+     * Ustawia warstwę, na której zapisywane są nowe ścieżki.
+     * @param index - numer warstwy
+     */
+    public void setActiveLayer(int index) {
+        state.activeLayer = layers.get(index);
+    }
+
+    /**
+     * Dodaje pustą warstwę na wierzchu rysunku i ustawia ją jako aktywną. Operację można cofnąć.
+     * @return true, jeśli dodano warstwę; false po osiągnięciu limitu warstw
+     */
+    public boolean addLayer() {
+        if (layers.size() >= MAX_LAYERS) {
+            return false;
+        }
+        Layer layer = createLayer(DrawingDocument.defaultLayerName(layers.size()));
+        List<Layer> before = new ArrayList<>(layers);
+        history.execute(new DrawingHistory.AddCommand<>(layers, layer));
+        state.journalLayers(before);
+        state.activeLayer = layer;
+        invalidate();
+        return true;
+    }
+
+    /**
+     * Usuwa warstwę wraz z jej ścieżkami. Operację można cofnąć.
+     * @param index - numer warstwy
+     * @return true, jeśli usunięto warstwę; ostatniej warstwy nie można usunąć
+     */
+    public boolean removeLayer(int index) {
+        if (layers.size() <= 1) {
+            return false;
+        }
+        List<Layer> before = new ArrayList<>(layers);
+        history.execute(new DrawingState.RemoveLayerCommand(state, index));
+        state.journalLayers(before);
+        ensureActiveLayer();
+        invalidate();
+        return true;
+    }
+
+    /**
+     * Zmienia widoczność warstwy.
+     * @param index - numer warstwy
+     * @param visible - widoczność
+     */
+    public void setLayerVisible(int index, boolean visible) {
+        layers.get(index).setVisible(visible);
+        state.journalSettings(layers.get(index));
+        invalidate();
+    }
+
+    /**
+     * Zmienia krycie warstwy. Kafelki warstwy nie są rysowane od nowa.
+     * @param index - numer warstwy
+     * @param opacity - krycie od 0 do 1
+     */
+    public void setLayerOpacity(int index, float opacity) {
+        layers.get(index).setOpacity(opacity);
+        state.journalSettings(layers.get(index));
+        invalidate();
+    }
+
+    /**
+     * Zmienia tryb mieszania warstwy. Kafelki warstwy nie są rysowane od nowa.
+     * @param index - numer warstwy
+     * @param blendMode - tryb mieszania
+     */
+    public void setLayerBlendMode(int index, BlendMode blendMode) {
+        layers.get(index).setBlendMode(blendMode);
+        state.journalSettings(layers.get(index));
+        invalidate();
+    }
+
+    /**
+     * Ustawia aktywną warstwę na najwyższą, jeśli aktywna warstwa została usunięta z rysunku.
+     */
+    private void ensureActiveLayer() {
+        if (!layers.contains(state.activeLayer)) {
+            state.activeLayer = layers.get(layers.size() - 1);
+        }
+    }
+
+    /**
+     * Anuluje wczytywanie tła i zwalnia kafelki po odłączeniu widoku.
+     * Bieżący zapis dokumentu należy do modelu rysunku i zamykany jest przez DrawingState.release.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        backgroundLoader.cancel();
+        releaseFillRaster();
+        //Model rysunku pamięta położenie widoku dla widoku, który go przejmie
+        state.canvasWidth = fixedCanvasSize ? canvasWidth : 0;
+        state.canvasHeight = fixedCanvasSize ? canvasHeight : 0;
+        state.viewportX = viewportX;
+        state.viewportY = viewportY;
+        state.scale = scale;
+        //Kafelki zostaną utworzone ponownie przy kolejnym rysowaniu
+        for (Layer layer : layers) {
+            layer.release();
+        }
+    }
+
+    /**
+     * Obsługa gestu powiększania. Punkt płótna pod palcami pozostaje pod nimi,
+     * a przesunięcie punktu skupienia przesuwa widok.
+     */
+    private class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScaleBegin(ScaleGestureDetector detector) {
+            gestureFocusX = detector.getFocusX();
+            gestureFocusY = detector.getFocusY();
+            return true;
+        }
 
-        PathWithPaint(Path path, Paint paint) {
-            this.path = path;
-            this.paint = paint;
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            //Punkt płótna pod poprzednim punktem skupienia
+            float canvasX = viewportX + gestureFocusX / scale;
+            float canvasY = viewportY + gestureFocusY / scale;
+            scale = Math.max(MIN_SCALE, Math.min(scale * detector.getScaleFactor(), MAX_SCALE));
+            gestureFocusX = detector.getFocusX();
+            gestureFocusY = detector.getFocusY();
+            scrollCanvasTo(canvasX - gestureFocusX / scale, canvasY - gestureFocusY / scale);
+            return true;
         }
     }
 }
@@ -0,0 +1,189 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.Arrays;
+
+/**
+ * Klasa FloodFill wyznacza obszar wypełnienia (wiadro z farbą) na tablicy pikseli ARGB.
+ * Algorytm linii skanujących wypełnia od razu cały poziomy odcinek pikseli i z sąsiednich wierszy
+ * odkłada na stos tylko początki nowych odcinków, więc każdy piksel sprawdzany jest kilka razy,
+ * a stos rośnie z liczbą odcinków, a nie pikseli.
+ * Wynikiem jest lista prostokątów: odcinki o tych samych końcach w kolejnych wierszach łączone są
+ * w jeden prostokąt, dzięki czemu jednolity obszar zapisywany jest w kilku punktach.
+ * Klasa nie korzysta z klas Androida, a jej obiekt można używać wielokrotnie w jednym wątku.
+ */
+public class FloodFill {
+    //Stos indeksów pikseli rozpoczynających odcinki do wypełnienia
+    private int[] stack = new int[256];
+    //Wypełnione piksele
+    private boolean[] filled = new boolean[0];
+    //Odcinki poprzedniego i bieżącego wiersza przy łączeniu w prostokąty: początek, koniec, pierwszy wiersz
+    private int[] previousRuns = new int[48];
+    private int[] currentRuns = new int[48];
+    //Prostokąty wyniku zapisane jako pary punktów: lewy górny i prawy dolny róg
+    private float[] rectangles = new float[64];
+    private int rectangleCount;
+
+    /**
+     * Wyznacza obszar pikseli podobnych do piksela początkowego, połączonych z nim bokami.
+     * @param pixels - piksele ARGB zapisane wierszami
+     * @param width - szerokość obrazu
+     * @param height - wysokość obrazu
+     * @param x - kolumna piksela początkowego
+     * @param y - wiersz piksela początkowego
+     * @param tolerance - największa różnica każdej składowej koloru (0-255) względem piksela początkowego
+     * @return współrzędne prostokątów obszaru jako pary punktów {left, top}, {right, bottom}
+     *         w pikselach obrazu lub pusta tablica, gdy punkt leży poza obrazem
+     */
+    public float[] fill(int[] pixels, int width, int height, int x, int y, int tolerance) {
+        rectangleCount = 0;
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return new float[0];
+        }
+        int size = width * height;
+        if (filled.length < size) {
+            filled = new boolean[size];
+        } else {
+            Arrays.fill(filled, 0, size, false);
+        }
+
+        int seed = pixels[y * width + x];
+        int top = y;
+        int bottom = y;
+        int stackSize = 0;
+        stack[stackSize++] = y * width + x;
+        while (stackSize > 0) {
+            int index = stack[--stackSize];
+            if (filled[index]) {
+                continue;
+            }
+            int row = index / width;
+            int rowStart = row * width;
+            //Rozszerzenie odcinka w lewo i w prawo
+            int left = index;
+            while (left > rowStart && !filled[left - 1] && matches(pixels[left - 1], seed, tolerance)) {
+                left--;
+            }
+            int right = index;
+            while (right < rowStart + width - 1 && !filled[right + 1] && matches(pixels[right + 1], seed, tolerance)) {
+                right++;
+            }
+            Arrays.fill(filled, left, right + 1, true);
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+
+            //Początki odcinków w sąsiednich wierszach pod wypełnionym odcinkiem
+            for (int neighbour = -width; neighbour <= width; neighbour += 2 * width) {
+                int from = left + neighbour;
+                if (from < 0 || from >= size) {
+                    continue;
+                }
+                boolean inRun = false;
+                for (int i = from, to = right + neighbour; i <= to; i++) {
+                    boolean open = !filled[i] && matches(pixels[i], seed, tolerance);
+                    if (open && !inRun) {
+                        if (stackSize == stack.length) {
+                            stack = Arrays.copyOf(stack, stackSize * 2);
+                        }
+                        stack[stackSize++] = i;
+                    }
+                    inRun = open;
+                }
+            }
+        }
+        mergeRows(width, top, bottom);
+        return Arrays.copyOf(rectangles, rectangleCount * 4);
+    }
+
+    /**
+     * Sprawdza, czy każda składowa koloru różni się od koloru początkowego najwyżej o tolerancję.
+     */
+    private static boolean matches(int color, int seed, int tolerance) {
+        if (color == seed) {
+            return true;
+        }
+        return Math.abs((color >>> 24) - (seed >>> 24)) <= tolerance
+                && Math.abs(((color >> 16) & 0xFF) - ((seed >> 16) & 0xFF)) <= tolerance
+                && Math.abs(((color >> 8) & 0xFF) - ((seed >> 8) & 0xFF)) <= tolerance
+                && Math.abs((color & 0xFF) - (seed & 0xFF)) <= tolerance;
+    }
+
+    /**
+     * Zamienia wypełnione piksele na prostokąty. Odcinek wiersza o tych samych końcach co odcinek
+     * wiersza powyżej przedłuża jego prostokąt, pozostałe odcinki zamykają prostokąty i otwierają nowe.
+     */
+    private void mergeRows(int width, int top, int bottom) {
+        int previousCount = 0;
+        for (int row = top; row <= bottom + 1; row++) {
+            int currentCount = 0;
+            if (row <= bottom) {
+                int rowStart = row * width;
+                int x = 0;
+                while (x < width) {
+                    if (!filled[rowStart + x]) {
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < width && filled[rowStart + x]) {
+                        x++;
+                    }
+                    if (currentCount + 3 > currentRuns.length) {
+                        currentRuns = Arrays.copyOf(currentRuns, currentRuns.length * 2);
+                    }
+                    currentRuns[currentCount] = start;
+                    currentRuns[currentCount + 1] = x;
+                    currentRuns[currentCount + 2] = row;
+                    currentCount += 3;
+                }
+            }
+
+            //Odcinki obu wierszy są uporządkowane, więc wystarczy jeden przebieg
+            int i = 0;
+            int j = 0;
+            while (i < previousCount) {
+                while (j < currentCount && currentRuns[j] < previousRuns[i]) {
+                    j += 3;
+                }
+                if (j < currentCount && currentRuns[j] == previousRuns[i]
+                        && currentRuns[j + 1] == previousRuns[i + 1]) {
+                    currentRuns[j + 2] = previousRuns[i + 2];
+                } else {
+                    addRectangle(previousRuns[i], previousRuns[i + 2], previousRuns[i + 1], row);
+                }
+                i += 3;
+            }
+
+            int[] swap = previousRuns;
+            previousRuns = currentRuns;
+            currentRuns = swap;
+            previousCount = currentCount;
+        }
+    }
+
+    private void addRectangle(int left, int top, int right, int bottom) {
+        int offset = rectangleCount * 4;
+        if (offset + 4 > rectangles.length) {
+            rectangles = Arrays.copyOf(rectangles, rectangles.length * 2);
+        }
+        rectangles[offset] = left;
+        rectangles[offset + 1] = top;
+        rectangles[offset + 2] = right;
+        rectangles[offset + 3] = bottom;
+        rectangleCount++;
+    }
+}
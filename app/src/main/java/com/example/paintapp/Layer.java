@@ -0,0 +1,309 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa Layer reprezentuje warstwę rysunku z własną listą ścieżek i własnymi kafelkami.
+ * Kafelki warstwy są przezroczyste i przechowują tylko jej ścieżki, dlatego zmiana jednej warstwy
+ * nie wymaga rysowania pozostałych. Warstwa łączona jest z warstwami pod nią
+ * z ustawioną przezroczystością i trybem mieszania.
+ */
+public class Layer implements StrokeList.Listener {
+    private final StrokeList strokes = new StrokeList();
+    private final TileCache tiles = new TileCache(1);
+    private final StrokeRenderer renderer;
+    private String name;
+    private boolean visible = true;
+    private float opacity = 1f;
+    private BlendMode blendMode = BlendMode.NORMAL;
+    //Pędzel łączenia kafelków warstwy z warstwami pod nią
+    private final Paint compositePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    //Powiększenie, w którym narysowane są kafelki
+    private float renderScale = 1f;
+    //Ścieżki przecinające rysowany kafelek, lista wielokrotnego użytku
+    private final List<Stroke> visibleStrokes = new ArrayList<>();
+    //Granice zmienionej ścieżki
+    private final float[] bounds = new float[4];
+
+    /**
+     * Konstruktor.
+     * @param name - nazwa warstwy
+     * @param renderer - renderer ścieżek używany w wątku głównym
+     */
+    public Layer(String name, StrokeRenderer renderer) {
+        this.name = name;
+        this.renderer = renderer;
+        strokes.setListener(this);
+    }
+
+    public StrokeList getStrokes() {
+        return strokes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Ustawia widoczność warstwy. Kafelki ukrytej warstwy są zwalniane.
+     * @param visible - widoczność
+     */
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+        if (!visible) {
+            tiles.clear();
+        }
+    }
+
+    public float getOpacity() {
+        return opacity;
+    }
+
+    /**
+     * Ustawia przezroczystość warstwy. Nie wymaga rysowania kafelków od nowa.
+     * @param opacity - krycie od 0 do 1
+     */
+    public void setOpacity(float opacity) {
+        this.opacity = Math.max(0f, Math.min(opacity, 1f));
+        compositePaint.setAlpha(Math.round(this.opacity * 255));
+    }
+
+    public BlendMode getBlendMode() {
+        return blendMode;
+    }
+
+    /**
+     * Ustawia tryb mieszania warstwy. Nie wymaga rysowania kafelków od nowa.
+     * @param blendMode - tryb mieszania
+     */
+    public void setBlendMode(BlendMode blendMode) {
+        this.blendMode = blendMode;
+        compositePaint.setXfermode(blendMode == BlendMode.NORMAL
+                ? null : new PorterDuffXfermode(toPorterDuff(blendMode)));
+    }
+
+    /**
+     * Ustawia rozmiar płótna i powiększenie kafelków. Usuwa wszystkie kafelki.
+     * @param width - szerokość płótna
+     * @param height - wysokość płótna
+     * @param renderScale - powiększenie, w którym rysowane są kafelki
+     */
+    public void setCanvasSize(int width, int height, float renderScale) {
+        this.renderScale = renderScale;
+        tiles.setCanvasSize(Math.round(width * renderScale), Math.round(height * renderScale));
+    }
+
+    /**
+     * Ustawia maksymalną liczbę kafelków warstwy w pamięci.
+     * @param maxTiles - maksymalna liczba kafelków
+     */
+    public void setMaxTiles(int maxTiles) {
+        tiles.setMaxTiles(maxTiles);
+    }
+
+    /**
+     * Oznacza wszystkie kafelki warstwy do ponownego narysowania.
+     */
+    public void invalidateAll() {
+        tiles.invalidateAll();
+    }
+
+    /**
+     * Zwalnia kafelki warstwy.
+     */
+    public void release() {
+        tiles.clear();
+    }
+
+    /**
+     * Rysuje kafelki warstwy przecinające prostokąt płótna, łącząc je z zawartością płótna.
+     * Nieaktualne kafelki są najpierw rysowane od nowa.
+     * Jeśli prostokąt obejmuje więcej kafelków niż mieści pamięć, rysowane są tylko kafelki w pamięci.
+     * @param canvas - płótno przekształcone do współrzędnych płótna rysunku
+     * @param left - lewa krawędź widocznego prostokąta
+     * @param top - górna krawędź widocznego prostokąta
+     * @param right - prawa krawędź widocznego prostokąta
+     * @param bottom - dolna krawędź widocznego prostokąta
+     */
+    public void draw(Canvas canvas, float left, float top, float right, float bottom) {
+        draw(canvas, left, top, right, bottom, null, null);
+    }
+
+    /**
+     * Rysuje kafelki warstwy razem z podglądem rysowanej gumki. Gumka usuwa piksele tylko tej warstwy,
+     * dlatego warstwa jest najpierw składana na osobnej bitmapie widocznego prostokąta.
+     * @param canvas - płótno przekształcone do współrzędnych płótna rysunku
+     * @param left - lewa krawędź widocznego prostokąta
+     * @param top - górna krawędź widocznego prostokąta
+     * @param right - prawa krawędź widocznego prostokąta
+     * @param bottom - dolna krawędź widocznego prostokąta
+     * @param eraserPath - rysowana ścieżka gumki lub null
+     * @param eraserPaint - pędzel gumki w trybie CLEAR lub null
+     */
+    public void draw(Canvas canvas, float left, float top, float right, float bottom,
+                     Path eraserPath, Paint eraserPaint) {
+        if (!visible || opacity == 0 || strokes.isEmpty() || tiles.getColumns() == 0 || tiles.getRows() == 0) {
+            return;
+        }
+        if (eraserPath != null) {
+            int layerCount = canvas.saveLayer(left, top, right, bottom, compositePaint);
+            drawTiles(canvas, left, top, right, bottom, null);
+            canvas.drawPath(eraserPath, eraserPaint);
+            canvas.restoreToCount(layerCount);
+            return;
+        }
+        drawTiles(canvas, left, top, right, bottom, compositePaint);
+    }
+
+    /**
+     * Rysuje kafelki przecinające prostokąt płótna, rysując od nowa nieaktualne kafelki.
+     */
+    private void drawTiles(Canvas canvas, float left, float top, float right, float bottom, Paint paint) {
+        int firstColumn = tiles.firstColumn(left * renderScale);
+        int lastColumn = tiles.lastColumn(right * renderScale);
+        int firstRow = tiles.firstRow(top * renderScale);
+        int lastRow = tiles.lastRow(bottom * renderScale);
+        boolean renderMissing = (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1) <= tiles.getMaxTiles();
+
+        int saveCount = canvas.save();
+        canvas.scale(1 / renderScale, 1 / renderScale);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                TileCache.Tile tile = renderMissing ? tiles.get(column, row) : tiles.peek(column, row);
+                if (tile == null) {
+                    continue;
+                }
+                if (tile.isDirty()) {
+                    renderTile(tile);
+                }
+                canvas.drawBitmap(tile.getBitmap(), tile.getLeft(), tile.getTop(), paint);
+            }
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Nowa ścieżka na wierzchu warstwy jest dorysowywana do aktualnych kafelków, które przecina.
+     * @param stroke - ścieżka
+     */
+    @Override
+    public void onStrokeAppended(Stroke stroke) {
+        if (tiles.getColumns() == 0 || tiles.getRows() == 0) {
+            return;
+        }
+        stroke.getBounds(bounds);
+        float padding = StrokeRenderer.padding(stroke.getStyle(), stroke.getShape());
+        int firstColumn = tiles.firstColumn((bounds[0] - padding) * renderScale);
+        int lastColumn = tiles.lastColumn((bounds[2] + padding) * renderScale);
+        int firstRow = tiles.firstRow((bounds[1] - padding) * renderScale);
+        int lastRow = tiles.lastRow((bounds[3] + padding) * renderScale);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                TileCache.Tile tile = tiles.peek(column, row);
+                if (tile != null && !tile.isDirty()) {
+                    Canvas tileCanvas = tile.getCanvas();
+                    int saveCount = tileCanvas.save();
+                    tileCanvas.translate(-tile.getLeft(), -tile.getTop());
+                    tileCanvas.scale(renderScale, renderScale);
+                    renderer.drawStroke(tileCanvas, stroke);
+                    tileCanvas.restoreToCount(saveCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Po usunięciu ścieżki kafelki pod nią są oznaczane do ponownego narysowania.
+     * @param stroke - ścieżka
+     */
+    @Override
+    public void onStrokeChanged(Stroke stroke) {
+        stroke.getBounds(bounds);
+        float padding = StrokeRenderer.padding(stroke.getStyle(), stroke.getShape());
+        tiles.invalidate((bounds[0] - padding) * renderScale, (bounds[1] - padding) * renderScale,
+                (bounds[2] + padding) * renderScale, (bounds[3] + padding) * renderScale);
+    }
+
+    @Override
+    public void onCleared() {
+        tiles.invalidateAll();
+    }
+
+    /**
+     * Rysuje od nowa zawartość kafelka w powiększeniu kafelków.
+     * Ścieżki wyszukiwane są w indeksie przestrzennym warstwy.
+     * @param tile - kafelek
+     */
+    private void renderTile(TileCache.Tile tile) {
+        Canvas tileCanvas = tile.getCanvas();
+        tileCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        int saveCount = tileCanvas.save();
+        tileCanvas.translate(-tile.getLeft(), -tile.getTop());
+        tileCanvas.scale(renderScale, renderScale);
+        float left = tile.getLeft() / renderScale;
+        float top = tile.getTop() / renderScale;
+        float size = TileCache.TILE_SIZE / renderScale;
+        strokes.getIndex().queryRect(left, top, left + size, top + size, visibleStrokes);
+        for (int i = 0, n = visibleStrokes.size(); i < n; i++) {
+            renderer.drawStroke(tileCanvas, visibleStrokes.get(i));
+        }
+        visibleStrokes.clear();
+        tileCanvas.restoreToCount(saveCount);
+        tile.setDirty(false);
+    }
+
+    /**
+     * Zwraca tryb PorterDuff odpowiadający trybowi mieszania.
+     * @param blendMode - tryb mieszania
+     * @return tryb PorterDuff
+     */
+    static PorterDuff.Mode toPorterDuff(BlendMode blendMode) {
+        switch (blendMode) {
+            case MULTIPLY:
+                return PorterDuff.Mode.MULTIPLY;
+            case SCREEN:
+                return PorterDuff.Mode.SCREEN;
+            case OVERLAY:
+                return PorterDuff.Mode.OVERLAY;
+            case DARKEN:
+                return PorterDuff.Mode.DARKEN;
+            case LIGHTEN:
+                return PorterDuff.Mode.LIGHTEN;
+            case ADD:
+                return PorterDuff.Mode.ADD;
+            default:
+                return PorterDuff.Mode.SRC_OVER;
+        }
+    }
+}
@@ -28,6 +28,12 @@ import android.widget.Toast;
 import android.widget.LinearLayout;
 import android.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
 
 
 
@@ -43,7 +49,13 @@ public class MainActivity extends AppCompatActivity {
     private Paint paint;
     private int brushSize = 5;
     private static final int PICK_IMAGE = 1;
-    private String currentShape = "Line";
+    private ShapeType currentShape = ShapeType.LINE;
+    //Jakość zapisu w formatach stratnych
+    private static final int EXPORT_QUALITY = 90;
+    //Aktualnie wykonywany zapis rysunku
+    private DrawingExporter.Task exportTask;
+    //Plik bieżącego zapisu rysunku
+    private static final String AUTOSAVE_FILE = "autosave.pntd";
 
     /**
      * Metoda onCreate jest wywoływana po tworzeniu aktywności.
@@ -66,10 +78,24 @@ public class MainActivity extends AppCompatActivity {
         drawingView = findViewById(R.id.drawing_view);
         drawingView.setPaint(paint);
         drawingView.setShape(currentShape);
+        //Odtworzenie rysunku: po obrocie ekranu z modelu w pamięci, po zamknięciu procesu
+        //ze stanu aktywności, a w pozostałych przypadkach z poprzedniej sesji
+        DrawingStateHolder holder = new ViewModelProvider(this).get(DrawingStateHolder.class);
+        File autosaveFile = new File(getFilesDir(), AUTOSAVE_FILE);
+        if (holder.getState() != null) {
+            drawingView.attachState(holder.getState());
+        } else {
+            if (savedInstanceState != null && drawingView.restoreState(savedInstanceState, this)) {
+                drawingView.enableAutosave(autosaveFile);
+            } else {
+                drawingView.openAutosave(autosaveFile, this);
+            }
+            holder.setState(drawingView.getDrawingState());
+        }
 
         //Przycisk zapisu rysunku
         ImageButton saveButton = findViewById(R.id.save_button);
-        saveButton.setOnClickListener(v -> drawingView.saveDrawing(MainActivity.this));  //Zapisz rysunek
+        saveButton.setOnClickListener(v -> showSaveFormatDialog());  //Zapisz rysunek
 
         //Przycisk odczytu rysunku
         ImageButton loadButton = findViewById(R.id.readFF_button);
@@ -82,7 +108,7 @@ public class MainActivity extends AppCompatActivity {
 
         //Przycisk gumki
         ImageButton eraserButton = findViewById(R.id.eraser_button);
-        eraserButton.setOnClickListener(v -> drawingView.setShape("Eraser"));
+        eraserButton.setOnClickListener(v -> showEraserDialog());
 
         //Przycisk wyboru koloru
         ImageButton colorPickerButton = findViewById(R.id.color_picker_button);
@@ -124,6 +150,43 @@ public class MainActivity extends AppCompatActivity {
         //Przycisk zmiany stylu pędzla
         ImageButton brushStyleButton = findViewById(R.id.brush_style_button);
         brushStyleButton.setOnClickListener(v -> showBrushStyleDialog());
+
+        //Przycisk warstw
+        ImageButton layersButton = findViewById(R.id.layers_button);
+        layersButton.setOnClickListener(v -> showLayersDialog());
+    }
+
+    /**
+     * Metoda onSaveInstanceState zapisuje rysunek w zwartym formacie dokumentu,
+     * aby przetrwał zamknięcie procesu przez system.
+     * @param outState odniesienie do obiektu Bundle
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        drawingView.saveState(outState, getCacheDir());
+    }
+
+    /**
+     * Metoda dump wypisuje stan aktywności wraz z pomiarami wydajności rysowania z bieżącej sesji.
+     * Wywoływana tylko na żądanie, np. przez "adb shell dumpsys activity com.example.paintapp",
+     * więc zwykłe działanie aplikacji nie ponosi kosztu liczenia pamięci ścieżek.
+     * @param prefix - wcięcie kolejnych wierszy
+     * @param fd - deskryptor pliku wyniku
+     * @param writer - miejsce zapisu
+     * @param args - dodatkowe argumenty polecenia
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        writer.print(prefix);
+        writer.println("DrawingMetrics:");
+        try {
+            drawingView.dumpMetrics(writer);
+        } catch (IOException e) {
+            //PrintWriter nie zgłasza błędów zapisu
+        }
+        writer.println();
     }
 
     /**
@@ -142,6 +205,62 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Metoda do wyświetlenia okna wyboru formatu zapisu.
+     */
+    private void showSaveFormatDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Wybierz format zapisu")
+                .setItems(new String[]{"PNG", "JPEG", "WebP"}, (dialog, which) ->
+                        saveDrawing(DrawingExporter.Format.values()[which]))
+                .show();
+    }
+
+    /**
+     * Metoda zapisuje rysunek w tle, wyświetlając postęp z możliwością anulowania.
+     * @param format - format zapisu
+     */
+    private void saveDrawing(DrawingExporter.Format format) {
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("Zapisywanie rysunku")
+                .setMessage("Postęp: 0%")
+                .setCancelable(false)
+                .setNegativeButton("Anuluj", (dialog, which) -> {
+                    if (exportTask != null) {
+                        exportTask.cancel();
+                    }
+                })
+                .show();
+
+        exportTask = drawingView.saveDrawing(this, format, EXPORT_QUALITY, new DrawingExporter.Listener() {
+            @Override
+            public void onProgress(int percent) {
+                progressDialog.setMessage("Postęp: " + percent + "%");
+            }
+
+            @Override
+            public void onSaved(File file) {
+                progressDialog.dismiss();
+                exportTask = null;
+                Toast.makeText(MainActivity.this, "Rysunek zapisany: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(IOException e) {
+                progressDialog.dismiss();
+                exportTask = null;
+                Toast.makeText(MainActivity.this, "Błąd podczas zapisywania rysunku", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onCancelled() {
+                progressDialog.dismiss();
+                exportTask = null;
+                Toast.makeText(MainActivity.this, "Zapis anulowany", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     /**
      * Metoda do wyświetlenia okna wyboru kształtu.
      */
@@ -149,54 +268,131 @@ public class MainActivity extends AppCompatActivity {
     private void showShapePickerDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Wybierz kształt")
-                .setItems(new String[]{"Linia", "Prostokąt", "Elipsa", "Trójkąt"}, (dialog, which) -> {
-                    switch (which) {
-                        case 0:
-                            currentShape = "Line";
-                            break;
-                        case 1:
-                            currentShape = "Rectangle";
-                            break;
-                        case 2:
-                            currentShape = "Ellipse";
-                            break;
-                        case 3:
-                            currentShape = "Triangle";
-                            break;
-                    }
+                .setItems(ShapeType.displayNames(), (dialog, which) -> {
+                    //Pozycje listy odpowiadają kolejności figur dostępnych do wyboru
+                    currentShape = ShapeType.selectable()[which];
                     drawingView.setShape(currentShape);
                 })
                 .show();
     }
 
+    /**
+     * Metoda do wyświetlenia okna wyboru rodzaju gumki.
+     */
+    private void showEraserDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Wybierz gumkę")
+                .setItems(new String[]{"Gumka", "Gumka ścieżek"}, (dialog, which) ->
+                        drawingView.setShape(which == 0 ? "Eraser" : "StrokeEraser"))
+                .show();
+    }
+
     /**
      * Metoda do wyświetlenia okna wyboru stylu pędzla.
      */
     private void showBrushStyleDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Wybierz styl pędzla")
-                .setItems(new String[]{"Normalny", "Kreskowany", "Kropkowany", "Rozmyty"}, (dialog, which) -> {
+                .setItems(BrushStyle.displayNames(), (dialog, which) -> {
+                    //Pozycje listy odpowiadają kolejności styli
+                    BrushStyle style = BrushStyle.values()[which];
+                    drawingView.setBrushStyle(style);
+                    Toast.makeText(MainActivity.this, "Styl: " + style.getDisplayName(), Toast.LENGTH_SHORT).show();
+                })
+                .show();
+    }
+
+    /**
+     * Metoda do wyświetlenia listy warstw. Aktywna warstwa oznaczona jest gwiazdką.
+     */
+    private void showLayersDialog() {
+        int count = drawingView.getLayers().size();
+        String[] items = new String[count + 2];
+        for (int i = 0; i < count; i++) {
+            Layer layer = drawingView.getLayers().get(i);
+            items[i] = (i == drawingView.getActiveLayerIndex() ? "* " : "") + layer.getName()
+                    + (layer.isVisible() ? "" : " (ukryta)");
+        }
+        items[count] = "Dodaj warstwę";
+        items[count + 1] = "Uprość rysunek";
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Warstwy")
+                .setItems(items, (dialog, which) -> {
+                    if (which < count) {
+                        showLayerOptionsDialog(which);
+                    } else if (which == count + 1) {
+                        drawingView.simplifyDrawing((strokeCount, removedPoints) ->
+                                Toast.makeText(MainActivity.this, "Uproszczono ścieżki: " + strokeCount
+                                        + ", usunięto punktów: " + removedPoints, Toast.LENGTH_SHORT).show());
+                    } else if (!drawingView.addLayer()) {
+                        Toast.makeText(MainActivity.this, "Osiągnięto limit warstw", Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .show();
+    }
+
+    /**
+     * Metoda do wyświetlenia ustawień wybranej warstwy.
+     * @param index - numer warstwy
+     */
+    private void showLayerOptionsDialog(int index) {
+        Layer layer = drawingView.getLayers().get(index);
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(layer.getName())
+                .setItems(new String[]{"Ustaw jako aktywną", layer.isVisible() ? "Ukryj" : "Pokaż",
+                        "Krycie", "Tryb mieszania", "Usuń"}, (dialog, which) -> {
                     switch (which) {
                         case 0:
-                            drawingView.setBrushStyle(DrawingView.BrushStyle.NORMAL);
-                            Toast.makeText(MainActivity.this, "Styl: Normalny", Toast.LENGTH_SHORT).show();
+                            drawingView.setActiveLayer(index);
                             break;
                         case 1:
-                            drawingView.setBrushStyle(DrawingView.BrushStyle.DASHED);
-                            Toast.makeText(MainActivity.this, "Styl: Kreskowany", Toast.LENGTH_SHORT).show();
+                            drawingView.setLayerVisible(index, !layer.isVisible());
                             break;
                         case 2:
-                            drawingView.setBrushStyle(DrawingView.BrushStyle.DOTTED);
-                            Toast.makeText(MainActivity.this, "Styl: Kropkowany", Toast.LENGTH_SHORT).show();
+                            showLayerOpacityDialog(index);
                             break;
                         case 3:
-                            drawingView.setBrushStyle(DrawingView.BrushStyle.BLUR);
-                            Toast.makeText(MainActivity.this, "Styl: Rozmyty", Toast.LENGTH_SHORT).show();
+                            showLayerBlendModeDialog(index);
+                            break;
+                        case 4:
+                            if (!drawingView.removeLayer(index)) {
+                                Toast.makeText(MainActivity.this, "Nie można usunąć ostatniej warstwy", Toast.LENGTH_SHORT).show();
+                            }
                             break;
                     }
                 })
                 .show();
     }
+
+    /**
+     * Metoda do wyświetlenia okna wyboru krycia warstwy.
+     * @param index - numer warstwy
+     */
+    private void showLayerOpacityDialog(int index) {
+        int[] percents = {100, 75, 50, 25};
+        String[] items = new String[percents.length];
+        for (int i = 0; i < percents.length; i++) {
+            items[i] = percents[i] + "%";
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Krycie warstwy")
+                .setItems(items, (dialog, which) -> drawingView.setLayerOpacity(index, percents[which] / 100f))
+                .show();
+    }
+
+    /**
+     * Metoda do wyświetlenia okna wyboru trybu mieszania warstwy.
+     * @param index - numer warstwy
+     */
+    private void showLayerBlendModeDialog(int index) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Tryb mieszania")
+                .setItems(BlendMode.displayNames(), (dialog, which) ->
+                        drawingView.setLayerBlendMode(index, BlendMode.values()[which]))
+                .show();
+    }
+
     /**
      * Metoda do wyświetlenia okna wyboru grubości pędzla.
      */
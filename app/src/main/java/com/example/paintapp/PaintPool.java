@@ -0,0 +1,116 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Klasa PaintPool przechowuje wspólne obiekty Paint dla styli ścieżek.
+ * Ścieżki o takim samym stylu korzystają z jednego obiektu Paint,
+ * a najdawniej używane pędzle są usuwane po przekroczeniu limitu.
+ * Zwracanych obiektów Paint nie wolno modyfikować.
+ */
+public class PaintPool {
+    //Domyślna maksymalna liczba przechowywanych pędzli
+    public static final int DEFAULT_MAX_SIZE = 64;
+    //Promień rozmycia pędzla w stylu BLUR
+    public static final float BLUR_RADIUS = StrokeStyle.BLUR_RADIUS;
+
+    //Wspólna pula używana przez widoki rysowania
+    private static final PaintPool SHARED = new PaintPool(DEFAULT_MAX_SIZE);
+
+    private final Map<StrokeStyle, Paint> paints;
+
+    /**
+     * Konstruktor puli.
+     * @param maxSize - maksymalna liczba przechowywanych pędzli
+     */
+    public PaintPool(final int maxSize) {
+        //Kolejność dostępu pozwala usuwać najdawniej używane pędzle
+        paints = new LinkedHashMap<StrokeStyle, Paint>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StrokeStyle, Paint> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return wspólna pula pędzli
+     */
+    public static PaintPool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Zwraca wspólny pędzel dla stylu, tworząc go przy pierwszym użyciu.
+     * @param style - styl ścieżki
+     * @return pędzel, którego nie wolno modyfikować
+     */
+    public synchronized Paint get(StrokeStyle style) {
+        Paint paint = paints.get(style);
+        if (paint == null) {
+            paint = createPaint(style);
+            paints.put(style, paint);
+        }
+        return paint;
+    }
+
+    /**
+     * @return liczba przechowywanych pędzli
+     */
+    public synchronized int size() {
+        return paints.size();
+    }
+
+    /**
+     * Tworzy pędzel odpowiadający stylowi.
+     * @param style - styl ścieżki
+     * @return nowy pędzel
+     */
+    private static Paint createPaint(StrokeStyle style) {
+        Paint paint = new Paint();
+        paint.setColor(style.getColor());
+        paint.setStrokeWidth(style.getStrokeWidth());
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setAntiAlias(true);
+        if (style.isEraser()) {
+            paint.setStrokeCap(Paint.Cap.ROUND); // Zaokrąglone końce dla płynniejszego wyglądu
+            paint.setStrokeJoin(Paint.Join.ROUND); // Zaokrąglone załamania całego gestu gumki
+            //Gumka usuwa piksele warstwy zamiast zamalowywać je kolorem, więc tło pozostaje widoczne
+            paint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+        }
+        applyBrushStyle(paint, style.getBrushStyle());
+        return paint;
+    }
+
+    /**
+     * Ustawia efekty pędzla odpowiadające stylowi. Efekty pochodzą z rejestru BrushEffects,
+     * więc zmiana stylu nie tworzy nowych obiektów. Efekty stemplujące zależą od grubości pędzla,
+     * dlatego metodę należy wywołać ponownie po zmianie grubości.
+     * @param paint - pędzel
+     * @param style - styl pędzla
+     */
+    public static void applyBrushStyle(Paint paint, BrushStyle style) {
+        paint.setPathEffect(BrushEffects.pathEffect(style, paint.getStrokeWidth()));
+        paint.setMaskFilter(BrushEffects.maskFilter(style));
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Path;
+
+/**
+ * Klasa PathAdapter przekazuje elementy ścieżki do obiektu android.graphics.Path.
+ */
+public class PathAdapter implements PathSink {
+    private Path path;
+
+    /**
+     * Konstruktor adaptera.
+     * @param path - ścieżka docelowa
+     */
+    public PathAdapter(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Zmienia ścieżkę docelową.
+     * @param path - nowa ścieżka docelowa
+     */
+    public void setPath(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        path.moveTo(x, y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        path.lineTo(x, y);
+    }
+
+    @Override
+    public void quadTo(float x1, float y1, float x2, float y2) {
+        path.quadTo(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+        path.cubicTo(x1, y1, x2, y2, x3, y3);
+    }
+
+    @Override
+    public void close() {
+        path.close();
+    }
+
+    @Override
+    public void addOval(float left, float top, float right, float bottom) {
+        path.addOval(left, top, right, bottom, Path.Direction.CW);
+    }
+}
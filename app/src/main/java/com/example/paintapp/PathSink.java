@@ -0,0 +1,70 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Interfejs PathSink odbiera kolejne elementy ścieżki.
+ * Pozwala budować geometrię niezależnie od klasy android.graphics.Path.
+ */
+public interface PathSink {
+    /**
+     * Rozpoczyna nowy fragment ścieżki w podanym punkcie.
+     * @param x - współrzędna x
+     * @param y - współrzędna y
+     */
+    void moveTo(float x, float y);
+
+    /**
+     * Dodaje odcinek prosty do podanego punktu.
+     * @param x - współrzędna x
+     * @param y - współrzędna y
+     */
+    void lineTo(float x, float y);
+
+    /**
+     * Dodaje krzywą kwadratową do podanego punktu.
+     * @param x1 - współrzędna x punktu kontrolnego
+     * @param y1 - współrzędna y punktu kontrolnego
+     * @param x2 - współrzędna x punktu końcowego
+     * @param y2 - współrzędna y punktu końcowego
+     */
+    void quadTo(float x1, float y1, float x2, float y2);
+
+    /**
+     * Dodaje krzywą sześcienną Béziera do podanego punktu.
+     * @param x1 - współrzędna x pierwszego punktu kontrolnego
+     * @param y1 - współrzędna y pierwszego punktu kontrolnego
+     * @param x2 - współrzędna x drugiego punktu kontrolnego
+     * @param y2 - współrzędna y drugiego punktu kontrolnego
+     * @param x3 - współrzędna x punktu końcowego
+     * @param y3 - współrzędna y punktu końcowego
+     */
+    void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3);
+
+    /**
+     * Zamyka aktualny fragment ścieżki odcinkiem do jego początku.
+     */
+    void close();
+
+    /**
+     * Dodaje elipsę wpisaną w prostokąt jako osobny fragment ścieżki.
+     * @param left - lewa krawędź
+     * @param top - górna krawędź
+     * @param right - prawa krawędź
+     * @param bottom - dolna krawędź
+     */
+    void addOval(float left, float top, float right, float bottom);
+}
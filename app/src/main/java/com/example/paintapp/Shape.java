@@ -0,0 +1,43 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Interfejs Shape opisuje figurę, którą można narysować przeciągając palcem.
+ * Ta sama geometria służy do podglądu w trakcie rysowania i do rysowania zatwierdzonej ścieżki.
+ * Nowe figury implementują ten interfejs i są rejestrowane w wyliczeniu ShapeType.
+ */
+public interface Shape {
+    /**
+     * Buduje geometrię figury z zapisanych punktów.
+     * Figury rysowane przeciąganiem korzystają z pierwszego i ostatniego punktu.
+     * Metoda nie powinna alokować pamięci, ponieważ jest wywoływana w każdej klatce podglądu.
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @param pointCount - liczba punktów, co najmniej 1
+     * @param sink - odbiorca elementów ścieżki
+     */
+    void outline(float[] points, int pointCount, PathSink sink);
+
+    /**
+     * Rozszerza prostokąt ograniczający punkty do granic całej geometrii figury.
+     * Domyślnie figura mieści się w prostokącie wyznaczonym przez punkty.
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @param pointCount - liczba punktów
+     * @param bounds - granice punktów {left, top, right, bottom}, rozszerzane w miejscu
+     */
+    default void bounds(float[] points, int pointCount, float[] bounds) {
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wyliczenie ShapeType jest rejestrem figur dostępnych w aplikacji.
+ * Każda pozycja łączy nazwę używaną w kodzie, nazwę wyświetlaną i implementację figury,
+ * dzięki czemu obsługa dotyku i rysowania nie porównuje nazw.
+ * Numer pozycji (ordinal) zapisywany jest w dokumencie, więc nowe figury dodaje się na końcu.
+ * Figury bez nazwy wyświetlanej powstają wyłącznie w kodzie i nie są pokazywane użytkownikowi.
+ */
+public enum ShapeType implements Shape {
+    LINE("Line", "Linia", new Shapes.Freehand()),
+    RECTANGLE("Rectangle", "Prostokąt", new Shapes.Rectangle()),
+    ELLIPSE("Ellipse", "Elipsa", new Shapes.Ellipse()),
+    TRIANGLE("Triangle", "Trójkąt", new Shapes.Triangle()),
+    SEGMENT("Segment", "Odcinek", new Shapes.Segment()),
+    ARROW("Arrow", "Strzałka", new Shapes.Arrow()),
+    POLYGON("Polygon", "Sześciokąt", new Shapes.Polygon(6)),
+    STAR("Star", "Gwiazda", new Shapes.Polygon(5, 0.4f)),
+    ROUNDED_RECTANGLE("RoundedRectangle", "Zaokrąglony prostokąt", new Shapes.RoundedRectangle(0.2f)),
+    FILL("Fill", "Wypełnienie", new Shapes.Fill()),
+    //Linia uproszczona po zatwierdzeniu, niedostępna w oknie wyboru figur
+    CURVE("Curve", null, new Shapes.Curve());
+
+    //Mapa nazw figur używanych przez interfejs użytkownika
+    private static final Map<String, ShapeType> BY_NAME = new HashMap<>();
+
+    static {
+        for (ShapeType type : values()) {
+            BY_NAME.put(type.shapeName, type);
+        }
+    }
+
+    //Nazwa figury używana w kodzie
+    private final String shapeName;
+    //Nazwa figury wyświetlana użytkownikowi
+    private final String displayName;
+    //Implementacja geometrii figury
+    private final Shape shape;
+
+    ShapeType(String shapeName, String displayName, Shape shape) {
+        this.shapeName = shapeName;
+        this.displayName = displayName;
+        this.shape = shape;
+    }
+
+    /**
+     * @return nazwa figury używana w kodzie, np. "Line"
+     */
+    public String getShapeName() {
+        return shapeName;
+    }
+
+    /**
+     * @return nazwa figury wyświetlana użytkownikowi lub null dla figur niedostępnych w oknie wyboru
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public void outline(float[] points, int pointCount, PathSink sink) {
+        shape.outline(points, pointCount, sink);
+    }
+
+    @Override
+    public void bounds(float[] points, int pointCount, float[] bounds) {
+        shape.bounds(points, pointCount, bounds);
+    }
+
+    /**
+     * Oblicza granice podglądu figury przeciąganej między dwoma punktami. Nie tworzy obiektów,
+     * bo wywoływana jest przy każdym ruchu palca.
+     * @param points - punkt początkowy i końcowy {x0, y0, x1, y1}
+     * @param bounds - tablica {left, top, right, bottom} do wypełnienia
+     */
+    public void previewBounds(float[] points, float[] bounds) {
+        bounds[0] = Math.min(points[0], points[2]);
+        bounds[1] = Math.min(points[1], points[3]);
+        bounds[2] = Math.max(points[0], points[2]);
+        bounds[3] = Math.max(points[1], points[3]);
+        shape.bounds(points, 2, bounds);
+    }
+
+    /**
+     * Zwraca figurę o podanej nazwie.
+     * @param shapeName - nazwa figury, np. "Line"
+     * @return figura
+     * @throws IllegalArgumentException gdy nazwa jest nieznana
+     */
+    public static ShapeType fromName(String shapeName) {
+        ShapeType type = BY_NAME.get(shapeName);
+        if (type == null) {
+            throw new IllegalArgumentException("Nieznana figura: " + shapeName);
+        }
+        return type;
+    }
+
+    /**
+     * @return figury, które użytkownik może wybrać, w kolejności wyliczenia
+     */
+    public static ShapeType[] selectable() {
+        int count = 0;
+        ShapeType[] types = values();
+        for (ShapeType type : types) {
+            if (type.displayName != null) {
+                types[count++] = type;
+            }
+        }
+        return Arrays.copyOf(types, count);
+    }
+
+    /**
+     * @return nazwy figur wyświetlane użytkownikowi, w kolejności zwracanej przez selectable
+     */
+    public static String[] displayNames() {
+        ShapeType[] types = selectable();
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].displayName;
+        }
+        return names;
+    }
+}
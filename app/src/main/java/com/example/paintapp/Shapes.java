@@ -0,0 +1,263 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Klasa Shapes zawiera implementacje figur dostępnych w aplikacji.
+ * Figury przeciągane wpisywane są w prostokąt wyznaczony przez pierwszy i ostatni punkt.
+ */
+public final class Shapes {
+
+    private Shapes() {
+    }
+
+    /**
+     * Linia odręczna wygładzana krzywymi kwadratowymi.
+     */
+    public static class Freehand implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            StrokeSmoother.emit(points, pointCount, sink);
+        }
+    }
+
+    /**
+     * Odcinek prosty od punktu początkowego do końcowego.
+     */
+    public static class Segment implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            sink.moveTo(points[0], points[1]);
+            sink.lineTo(points[last], points[last + 1]);
+        }
+    }
+
+    /**
+     * Odcinek zakończony grotem strzałki w punkcie końcowym.
+     */
+    public static class Arrow implements Shape {
+        //Kąt między grotem a odcinkiem w radianach
+        private static final double HEAD_ANGLE = Math.toRadians(25);
+        //Maksymalna długość grotu w pikselach
+        private static final float MAX_HEAD_LENGTH = 48f;
+
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            float x1 = points[0];
+            float y1 = points[1];
+            float x2 = points[last];
+            float y2 = points[last + 1];
+            sink.moveTo(x1, y1);
+            sink.lineTo(x2, y2);
+
+            float head = headLength(x1, y1, x2, y2);
+            if (head > 0) {
+                double angle = Math.atan2(y1 - y2, x1 - x2);
+                sink.moveTo(x2 + head * (float) Math.cos(angle + HEAD_ANGLE),
+                        y2 + head * (float) Math.sin(angle + HEAD_ANGLE));
+                sink.lineTo(x2, y2);
+                sink.lineTo(x2 + head * (float) Math.cos(angle - HEAD_ANGLE),
+                        y2 + head * (float) Math.sin(angle - HEAD_ANGLE));
+            }
+        }
+
+        @Override
+        public void bounds(float[] points, int pointCount, float[] bounds) {
+            int last = (pointCount - 1) * 2;
+            float head = headLength(points[0], points[1], points[last], points[last + 1]);
+            bounds[0] = Math.min(bounds[0], points[last] - head);
+            bounds[1] = Math.min(bounds[1], points[last + 1] - head);
+            bounds[2] = Math.max(bounds[2], points[last] + head);
+            bounds[3] = Math.max(bounds[3], points[last + 1] + head);
+        }
+
+        private static float headLength(float x1, float y1, float x2, float y2) {
+            float length = (float) Math.hypot(x2 - x1, y2 - y1);
+            return Math.min(length / 3, MAX_HEAD_LENGTH);
+        }
+    }
+
+    /**
+     * Prostokąt.
+     */
+    public static class Rectangle implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            float left = Math.min(points[0], points[last]);
+            float top = Math.min(points[1], points[last + 1]);
+            float right = Math.max(points[0], points[last]);
+            float bottom = Math.max(points[1], points[last + 1]);
+            sink.moveTo(left, top);
+            sink.lineTo(right, top);
+            sink.lineTo(right, bottom);
+            sink.lineTo(left, bottom);
+            sink.close();
+        }
+    }
+
+    /**
+     * Prostokąt z zaokrąglonymi narożnikami.
+     */
+    public static class RoundedRectangle implements Shape {
+        //Promień narożnika jako część krótszego boku
+        private final float cornerRatio;
+
+        public RoundedRectangle(float cornerRatio) {
+            this.cornerRatio = cornerRatio;
+        }
+
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            float left = Math.min(points[0], points[last]);
+            float top = Math.min(points[1], points[last + 1]);
+            float right = Math.max(points[0], points[last]);
+            float bottom = Math.max(points[1], points[last + 1]);
+            float r = Math.min(right - left, bottom - top) * cornerRatio;
+            sink.moveTo(left + r, top);
+            sink.lineTo(right - r, top);
+            sink.quadTo(right, top, right, top + r);
+            sink.lineTo(right, bottom - r);
+            sink.quadTo(right, bottom, right - r, bottom);
+            sink.lineTo(left + r, bottom);
+            sink.quadTo(left, bottom, left, bottom - r);
+            sink.lineTo(left, top + r);
+            sink.quadTo(left, top, left + r, top);
+            sink.close();
+        }
+    }
+
+    /**
+     * Elipsa.
+     */
+    public static class Ellipse implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            sink.addOval(Math.min(points[0], points[last]), Math.min(points[1], points[last + 1]),
+                    Math.max(points[0], points[last]), Math.max(points[1], points[last + 1]));
+        }
+    }
+
+    /**
+     * Trójkąt z podstawą przy punkcie początkowym i wierzchołkiem przy końcowym.
+     */
+    public static class Triangle implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            sink.moveTo(points[0], points[1]);
+            sink.lineTo(points[last], points[1]);
+            sink.lineTo((points[0] + points[last]) / 2, points[last + 1]);
+            sink.close();
+        }
+    }
+
+    /**
+     * Wielokąt foremny wpisany w elipsę, z wierzchołkiem skierowanym w górę.
+     * Gwiazda to wielokąt z naprzemiennie dłuższym i krótszym promieniem.
+     */
+    public static class Polygon implements Shape {
+        //Kierunki kolejnych wierzchołków wyliczone raz w konstruktorze
+        private final float[] cos;
+        private final float[] sin;
+        //Promienie kolejnych wierzchołków jako część promienia elipsy
+        private final float[] radius;
+
+        /**
+         * Konstruktor wielokąta foremnego.
+         * @param sides - liczba boków, co najmniej 3
+         */
+        public Polygon(int sides) {
+            this(sides, 1f);
+        }
+
+        /**
+         * Konstruktor gwiazdy (dla innerRatio mniejszego niż 1).
+         * @param corners - liczba zewnętrznych wierzchołków, co najmniej 3
+         * @param innerRatio - promień wewnętrznych wierzchołków jako część zewnętrznego
+         */
+        public Polygon(int corners, float innerRatio) {
+            if (corners < 3) {
+                throw new IllegalArgumentException("Wielokąt musi mieć co najmniej 3 wierzchołki: " + corners);
+            }
+            int count = innerRatio < 1f ? corners * 2 : corners;
+            cos = new float[count];
+            sin = new float[count];
+            radius = new float[count];
+            for (int i = 0; i < count; i++) {
+                double angle = -Math.PI / 2 + 2 * Math.PI * i / count;
+                cos[i] = (float) Math.cos(angle);
+                sin[i] = (float) Math.sin(angle);
+                radius[i] = count > corners && i % 2 == 1 ? innerRatio : 1f;
+            }
+        }
+
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            int last = (pointCount - 1) * 2;
+            float cx = (points[0] + points[last]) / 2;
+            float cy = (points[1] + points[last + 1]) / 2;
+            float rx = Math.abs(points[last] - points[0]) / 2;
+            float ry = Math.abs(points[last + 1] - points[1]) / 2;
+            sink.moveTo(cx + rx * radius[0] * cos[0], cy + ry * radius[0] * sin[0]);
+            for (int i = 1; i < cos.length; i++) {
+                sink.lineTo(cx + rx * radius[i] * cos[i], cy + ry * radius[i] * sin[i]);
+            }
+            sink.close();
+        }
+    }
+
+    /**
+     * Obszar wypełnienia wiadrem z farbą zapisany jako suma prostokątów.
+     * Każda para punktów to lewy górny i prawy dolny róg prostokąta, wyznaczone przez FloodFill.
+     */
+    public static class Fill implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            for (int i = 0; i + 3 < pointCount * 2; i += 4) {
+                sink.moveTo(points[i], points[i + 1]);
+                sink.lineTo(points[i + 2], points[i + 1]);
+                sink.lineTo(points[i + 2], points[i + 3]);
+                sink.lineTo(points[i], points[i + 3]);
+                sink.close();
+            }
+        }
+    }
+
+    /**
+     * Linia odręczna uproszczona przez StrokeSimplifier, zapisana jako ciąg krzywych sześciennych Béziera.
+     * Pierwszy punkt to początek linii, a każda kolejna trójka punktów to dwa punkty kontrolne
+     * i koniec następnej krzywej. Krzywe leżą w otoczce wypukłej swoich punktów kontrolnych,
+     * więc granice punktów są granicami linii.
+     */
+    public static class Curve implements Shape {
+        @Override
+        public void outline(float[] points, int pointCount, PathSink sink) {
+            sink.moveTo(points[0], points[1]);
+            if (pointCount == 1) {
+                sink.lineTo(points[0], points[1]);
+                return;
+            }
+            for (int i = 2; i + 5 < pointCount * 2; i += 6) {
+                sink.cubicTo(points[i], points[i + 1], points[i + 2], points[i + 3], points[i + 4], points[i + 5]);
+            }
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa SpatialIndex przechowuje ścieżki w siatce komórek według granic ich rysowanego obszaru.
+ * Zapytania o prostokąt lub punkt sprawdzają tylko komórki, które go przecinają,
+ * więc ich koszt zależy od liczby ścieżek w pobliżu, a nie od liczby wszystkich ścieżek.
+ * Wyniki zwracane są w kolejności rysowania ścieżek.
+ */
+public class SpatialIndex {
+    //Domyślny rozmiar boku komórki w pikselach płótna
+    public static final int DEFAULT_CELL_SIZE = 128;
+    //Ścieżki obejmujące więcej komórek przechowywane są na osobnej liście
+    private static final int MAX_CELLS_PER_STROKE = 256;
+
+    /**
+     * Położenie ścieżki w indeksie.
+     */
+    private static class Entry {
+        //Granice rysowanego obszaru ścieżki
+        float left, top, right, bottom;
+        //Zakres komórek siatki
+        int firstColumn, firstRow, lastColumn, lastRow;
+        //Kolejność rysowania
+        long order;
+        //Flaga ścieżek przechowywanych poza siatką
+        boolean oversized;
+    }
+
+    /**
+     * Tablica mieszająca komórek siatki z kluczami typu long, która w przeciwieństwie do HashMap
+     * nie tworzy obiektu klucza przy każdym wyszukaniu. Kolizje rozwiązywane są adresowaniem liniowym.
+     */
+    private static class CellMap {
+        private long[] keys = new long[64];
+        //Lista ścieżek komórki, null oznacza wolne miejsce
+        private List<?>[] values = new List<?>[64];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        List<Stroke> get(long key) {
+            int mask = values.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return (List<Stroke>) values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, List<Stroke> cell) {
+            if ((size + 1) * 4 > values.length * 3) {
+                resize();
+            }
+            int mask = values.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    values[i] = cell;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = cell;
+            size++;
+        }
+
+        void remove(long key) {
+            int mask = values.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                return;
+            }
+            values[i] = null;
+            size--;
+            //Kolejne elementy tego samego ciągu przesuwane są na zwolnione miejsce, aby wyszukiwanie ich nie pominęło
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                boolean movable = i <= j ? home <= i || home > j : home <= i && home > j;
+                if (movable) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = null;
+                    i = j;
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            long[] oldKeys = keys;
+            List<?>[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new List<?>[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], (List<Stroke>) oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    private final int cellSize;
+    //Komórki siatki indeksowane kolumną i wierszem, tylko niepuste
+    private final CellMap cells = new CellMap();
+    //Ścieżki zbyt duże dla siatki
+    private final List<Stroke> oversized = new ArrayList<>();
+    private final Map<Stroke, Entry> entries = new IdentityHashMap<>();
+    //Granice ścieżki wielokrotnego użytku
+    private final float[] bounds = new float[4];
+    //Tablice wielokrotnego użytku do sortowania wyników zapytania
+    private long[] sortOrders = new long[64];
+    private Stroke[] sortStrokes = new Stroke[64];
+
+    /**
+     * Konstruktor indeksu z domyślnym rozmiarem komórki.
+     */
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Konstruktor indeksu.
+     * @param cellSize - rozmiar boku komórki w pikselach płótna
+     */
+    public SpatialIndex(int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Rozmiar komórki musi być dodatni: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Dodaje ścieżkę do indeksu.
+     * @param stroke - ścieżka
+     * @param order - kolejność rysowania, większe wartości rysowane są później
+     */
+    public void add(Stroke stroke, long order) {
+        Entry entry = new Entry();
+        stroke.getBounds(bounds);
+        float padding = stroke.getStyle().padding(stroke.getShape());
+        entry.left = bounds[0] - padding;
+        entry.top = bounds[1] - padding;
+        entry.right = bounds[2] + padding;
+        entry.bottom = bounds[3] + padding;
+        entry.firstColumn = cell(entry.left);
+        entry.firstRow = cell(entry.top);
+        entry.lastColumn = cell(entry.right);
+        entry.lastRow = cell(entry.bottom);
+        entry.order = order;
+        long cellCount = (long) (entry.lastColumn - entry.firstColumn + 1) * (entry.lastRow - entry.firstRow + 1);
+        entry.oversized = cellCount > MAX_CELLS_PER_STROKE;
+        if (entries.put(stroke, entry) != null) {
+            throw new IllegalArgumentException("Ścieżka jest już w indeksie");
+        }
+
+        if (entry.oversized) {
+            oversized.add(stroke);
+            return;
+        }
+        for (int row = entry.firstRow; row <= entry.lastRow; row++) {
+            for (int column = entry.firstColumn; column <= entry.lastColumn; column++) {
+                List<Stroke> cell = cells.get(key(column, row));
+                if (cell == null) {
+                    cell = new ArrayList<>(4);
+                    cells.put(key(column, row), cell);
+                }
+                cell.add(stroke);
+            }
+        }
+    }
+
+    /**
+     * Usuwa ścieżkę z indeksu.
+     * @param stroke - ścieżka
+     * @return true, jeśli ścieżka była w indeksie
+     */
+    public boolean remove(Stroke stroke) {
+        Entry entry = entries.remove(stroke);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.oversized) {
+            removeIdentity(oversized, stroke);
+            return true;
+        }
+        for (int row = entry.firstRow; row <= entry.lastRow; row++) {
+            for (int column = entry.firstColumn; column <= entry.lastColumn; column++) {
+                long key = key(column, row);
+                List<Stroke> cell = cells.get(key);
+                removeIdentity(cell, stroke);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Zwraca kolejność rysowania ścieżki.
+     * @param stroke - ścieżka
+     * @return kolejność rysowania lub -1, jeśli ścieżki nie ma w indeksie
+     */
+    public long getOrder(Stroke stroke) {
+        Entry entry = entries.get(stroke);
+        return entry != null ? entry.order : -1;
+    }
+
+    /**
+     * Zmienia kolejność rysowania ścieżki bez zmiany jej położenia w indeksie.
+     * @param stroke - ścieżka w indeksie
+     * @param order - nowa kolejność rysowania
+     */
+    public void setOrder(Stroke stroke, long order) {
+        entries.get(stroke).order = order;
+    }
+
+    /**
+     * Usuwa wszystkie ścieżki z indeksu.
+     */
+    public void clear() {
+        cells.clear();
+        oversized.clear();
+        entries.clear();
+    }
+
+    /**
+     * @return liczba ścieżek w indeksie
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Wyszukuje ścieżki, których rysowany obszar przecina prostokąt.
+     * @param left - lewa krawędź
+     * @param top - górna krawędź
+     * @param right - prawa krawędź
+     * @param bottom - dolna krawędź
+     * @param out - lista, do której dodawane są wyniki w kolejności rysowania
+     * @return lista wyników
+     */
+    public List<Stroke> queryRect(float left, float top, float right, float bottom, List<Stroke> out) {
+        int start = out.size();
+        int firstColumn = cell(left);
+        int firstRow = cell(top);
+        int lastColumn = cell(right);
+        int lastRow = cell(bottom);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<Stroke> cell = cells.get(key(column, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0, n = cell.size(); i < n; i++) {
+                    Stroke stroke = cell.get(i);
+                    Entry entry = entries.get(stroke);
+                    //Ścieżka obejmująca kilka komórek zgłaszana jest tylko z pierwszej wspólnej komórki
+                    if (column == Math.max(firstColumn, entry.firstColumn)
+                            && row == Math.max(firstRow, entry.firstRow)
+                            && intersects(entry, left, top, right, bottom)) {
+                        out.add(stroke);
+                    }
+                }
+            }
+        }
+        for (int i = 0, n = oversized.size(); i < n; i++) {
+            Stroke stroke = oversized.get(i);
+            if (intersects(entries.get(stroke), left, top, right, bottom)) {
+                out.add(stroke);
+            }
+        }
+        sortByOrder(out, start);
+        return out;
+    }
+
+    /**
+     * Wyszukuje ścieżki, których rysowany obszar zawiera punkt.
+     * @param x - współrzędna x
+     * @param y - współrzędna y
+     * @param out - lista, do której dodawane są wyniki w kolejności rysowania
+     * @return lista wyników
+     */
+    public List<Stroke> queryPoint(float x, float y, List<Stroke> out) {
+        return queryRect(x, y, x, y, out);
+    }
+
+    private static boolean intersects(Entry entry, float left, float top, float right, float bottom) {
+        return entry.left <= right && entry.right >= left && entry.top <= bottom && entry.bottom >= top;
+    }
+
+    /**
+     * Sortuje wyniki zapytania według kolejności rysowania w miejscu, bez tworzenia obiektów.
+     * Wyniki z każdej komórki są już uporządkowane, więc sortowanie przez wstawianie
+     * przesuwa zwykle niewiele elementów.
+     */
+    private void sortByOrder(List<Stroke> list, int start) {
+        int count = list.size() - start;
+        if (count < 2) {
+            return;
+        }
+        if (sortOrders.length < count) {
+            int capacity = Math.max(count, sortOrders.length * 2);
+            sortOrders = new long[capacity];
+            sortStrokes = new Stroke[capacity];
+        }
+        boolean sorted = true;
+        for (int i = 0; i < count; i++) {
+            Stroke stroke = list.get(start + i);
+            sortStrokes[i] = stroke;
+            sortOrders[i] = entries.get(stroke).order;
+            sorted &= i == 0 || sortOrders[i - 1] < sortOrders[i];
+        }
+        if (!sorted) {
+            for (int i = 1; i < count; i++) {
+                long order = sortOrders[i];
+                if (order > sortOrders[i - 1]) {
+                    continue;
+                }
+                //Pozycja wstawienia wyszukiwana binarnie w uporządkowanej części
+                int low = 0;
+                int high = i - 1;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (sortOrders[middle] < order) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                Stroke stroke = sortStrokes[i];
+                System.arraycopy(sortOrders, low, sortOrders, low + 1, i - low);
+                System.arraycopy(sortStrokes, low, sortStrokes, low + 1, i - low);
+                sortOrders[low] = order;
+                sortStrokes[low] = stroke;
+            }
+            for (int i = 0; i < count; i++) {
+                list.set(start + i, sortStrokes[i]);
+            }
+        }
+        //Tablica nie przetrzymuje usuniętych później ścieżek
+        Arrays.fill(sortStrokes, 0, count, null);
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    private static void removeIdentity(List<Stroke> list, Stroke stroke) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == stroke) {
+                list.remove(i);
+                return;
+            }
+        }
+    }
+}
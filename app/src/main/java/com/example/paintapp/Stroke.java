@@ -0,0 +1,315 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.Arrays;
+
+/**
+ * Klasa Stroke reprezentuje zatwierdzoną ścieżkę rysunku.
+ * Punkty przechowywane są w rosnącej tablicy float (pary x, y) razem ze stylem i rodzajem figury.
+ * Linia pędzla naciskowego przechowuje dodatkowo siłę nacisku w każdym punkcie.
+ * Obiekt android.graphics.Path budowany jest dopiero przy rysowaniu.
+ * Ścieżka odczytana z dokumentu może dekodować punkty dopiero przy pierwszym użyciu,
+ * znając wcześniej jedynie swoje granice.
+ */
+public class Stroke {
+    //Początkowa pojemność tablicy punktów (liczba wartości float)
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final StrokeStyle style;
+    private final ShapeType shape;
+    //Współrzędne punktów zapisane parami x, y
+    private float[] points;
+    //Liczba zajętych wartości w tablicy punktów
+    private int size;
+    //Siła nacisku w kolejnych punktach (od 0 do 1), null gdy nie jest zapisywana
+    private float[] pressures;
+    //Prostokąt ograniczający punkty
+    private float left = Float.POSITIVE_INFINITY;
+    private float top = Float.POSITIVE_INFINITY;
+    private float right = Float.NEGATIVE_INFINITY;
+    private float bottom = Float.NEGATIVE_INFINITY;
+    //Źródło jeszcze nieodczytanych punktów, null gdy punkty są w pamięci
+    private PointSource source;
+
+    /**
+     * Interfejs PointSource dostarcza punkty ścieżki odczytywane przy pierwszym użyciu.
+     */
+    interface PointSource {
+        /**
+         * @return współrzędne punktów zapisane parami x, y, o długości równej liczbie wartości
+         */
+        float[] loadPoints();
+
+        /**
+         * @return siła nacisku w kolejnych punktach lub null, gdy nie została zapisana
+         */
+        float[] loadPressures();
+    }
+
+    /**
+     * Konstruktor pustej ścieżki.
+     * @param style - styl ścieżki
+     * @param shape - rodzaj figury
+     */
+    public Stroke(StrokeStyle style, ShapeType shape) {
+        this.style = style;
+        this.shape = shape;
+        this.points = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Konstruktor ścieżki z gotowymi punktami. Tablica nie jest kopiowana.
+     * @param style - styl ścieżki
+     * @param shape - rodzaj figury
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @param pointCount - liczba punktów
+     */
+    public Stroke(StrokeStyle style, ShapeType shape, float[] points, int pointCount) {
+        this.style = style;
+        this.shape = shape;
+        this.points = points;
+        this.size = pointCount * 2;
+        for (int i = 0; i < size; i += 2) {
+            includeInBounds(points[i], points[i + 1]);
+        }
+    }
+
+    /**
+     * Konstruktor ścieżki z gotowymi punktami i siłą nacisku. Tablice nie są kopiowane.
+     * @param style - styl ścieżki
+     * @param shape - rodzaj figury
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @param pressures - siła nacisku w kolejnych punktach lub null
+     * @param pointCount - liczba punktów
+     */
+    public Stroke(StrokeStyle style, ShapeType shape, float[] points, float[] pressures, int pointCount) {
+        this(style, shape, points, pointCount);
+        this.pressures = pressures;
+    }
+
+    /**
+     * Konstruktor ścieżki, której punkty zostaną odczytane przy pierwszym użyciu.
+     * @param style - styl ścieżki
+     * @param shape - rodzaj figury
+     * @param pointCount - liczba punktów
+     * @param bounds - granice geometrii {left, top, right, bottom}
+     * @param source - źródło punktów
+     */
+    Stroke(StrokeStyle style, ShapeType shape, int pointCount, float[] bounds, PointSource source) {
+        this.style = style;
+        this.shape = shape;
+        this.size = pointCount * 2;
+        this.left = bounds[0];
+        this.top = bounds[1];
+        this.right = bounds[2];
+        this.bottom = bounds[3];
+        this.source = source;
+    }
+
+    /**
+     * Dodaje punkt na końcu ścieżki.
+     * @param x - współrzędna x
+     * @param y - współrzędna y
+     */
+    public void addPoint(float x, float y) {
+        appendPoint(x, y);
+        if (pressures != null) {
+            setLastPressure(1f);
+        }
+    }
+
+    /**
+     * Dodaje punkt na końcu ścieżki wraz z siłą nacisku, np. z MotionEvent.getPressure.
+     * Punkty dodane wcześniej bez nacisku mają pełny nacisk.
+     * @param x - współrzędna x
+     * @param y - współrzędna y
+     * @param pressure - siła nacisku, przycinana do zakresu od 0 do 1
+     */
+    public void addPoint(float x, float y, float pressure) {
+        appendPoint(x, y);
+        if (pressures == null) {
+            pressures = new float[points.length / 2];
+            Arrays.fill(pressures, 1f);
+        }
+        setLastPressure(Math.max(0f, Math.min(1f, pressure)));
+    }
+
+    private void appendPoint(float x, float y) {
+        materialize();
+        if (size + 2 > points.length) {
+            points = Arrays.copyOf(points, Math.max(points.length * 2, INITIAL_CAPACITY));
+        }
+        points[size++] = x;
+        points[size++] = y;
+        includeInBounds(x, y);
+    }
+
+    private void setLastPressure(float pressure) {
+        int index = size / 2 - 1;
+        if (index >= pressures.length) {
+            pressures = Arrays.copyOf(pressures, points.length / 2);
+        }
+        pressures[index] = pressure;
+    }
+
+    /**
+     * Zmniejsza tablicę punktów do faktycznej liczby punktów.
+     */
+    public void trimToSize() {
+        materialize();
+        if (points.length != size) {
+            points = Arrays.copyOf(points, size);
+        }
+        if (pressures != null && pressures.length != size / 2) {
+            pressures = Arrays.copyOf(pressures, size / 2);
+        }
+    }
+
+    /**
+     * Buduje geometrię ścieżki.
+     * @param sink - odbiorca elementów ścieżki
+     */
+    public void buildPath(PathSink sink) {
+        if (size > 0) {
+            materialize();
+            shape.outline(points, size / 2, sink);
+        }
+    }
+
+    public StrokeStyle getStyle() {
+        return style;
+    }
+
+    public ShapeType getShape() {
+        return shape;
+    }
+
+    /**
+     * @return liczba punktów ścieżki
+     */
+    public int getPointCount() {
+        return size / 2;
+    }
+
+    public float getX(int index) {
+        materialize();
+        return points[index * 2];
+    }
+
+    public float getY(int index) {
+        materialize();
+        return points[index * 2 + 1];
+    }
+
+    /**
+     * Zwraca tablicę punktów bez kopiowania. Tablica może być dłuższa niż liczba punktów.
+     * @return współrzędne punktów zapisane parami x, y
+     */
+    public float[] getPoints() {
+        materialize();
+        return points;
+    }
+
+    /**
+     * Zwraca siłę nacisku w kolejnych punktach bez kopiowania. Tablica może być dłuższa niż liczba punktów.
+     * @return siła nacisku od 0 do 1 lub null, gdy ścieżka nie zapisuje nacisku
+     */
+    public float[] getPressures() {
+        materialize();
+        return pressures;
+    }
+
+    public float getLeft() {
+        return left;
+    }
+
+    public float getTop() {
+        return top;
+    }
+
+    public float getRight() {
+        return right;
+    }
+
+    public float getBottom() {
+        return bottom;
+    }
+
+    /**
+     * Zwraca granice geometrii ścieżki, łącznie z elementami figury wystającymi poza punkty.
+     * @param bounds - tablica {left, top, right, bottom} do wypełnienia
+     */
+    public void getBounds(float[] bounds) {
+        bounds[0] = left;
+        bounds[1] = top;
+        bounds[2] = right;
+        bounds[3] = bottom;
+        //Granice nieodczytanej ścieżki obejmują już całą geometrię
+        if (size > 0 && isMaterialized()) {
+            shape.bounds(points, size / 2, bounds);
+        }
+    }
+
+    /**
+     * Szacuje rozmiar ścieżki w pamięci (nagłówek obiektu, pola, tablice punktów i nacisku).
+     * @return przybliżona liczba bajtów
+     */
+    public int estimateBytes() {
+        return 48 + 16 + (points != null ? points.length * 4 : 0)
+                + (pressures != null ? 16 + pressures.length * 4 : 0);
+    }
+
+    /**
+     * @return true, jeśli punkty ścieżki są w pamięci
+     */
+    public synchronized boolean isMaterialized() {
+        return source == null;
+    }
+
+    /**
+     * Zwraca źródło nieodczytanych punktów, np. aby skopiować je bez dekodowania.
+     * @return źródło punktów lub null, gdy punkty są w pamięci
+     */
+    synchronized PointSource getPointSource() {
+        return source;
+    }
+
+    /**
+     * Odczytuje punkty ze źródła i wylicza dokładne granice punktów.
+     * Ścieżki mogą być rysowane równocześnie w wątku głównym i w wątku zapisu.
+     */
+    private synchronized void materialize() {
+        if (source == null) {
+            return;
+        }
+        points = source.loadPoints();
+        pressures = source.loadPressures();
+        source = null;
+        left = top = Float.POSITIVE_INFINITY;
+        right = bottom = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i += 2) {
+            includeInBounds(points[i], points[i + 1]);
+        }
+    }
+
+    private void includeInBounds(float x, float y) {
+        left = Math.min(left, x);
+        top = Math.min(top, y);
+        right = Math.max(right, x);
+        bottom = Math.max(bottom, y);
+    }
+}
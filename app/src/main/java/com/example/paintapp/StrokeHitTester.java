@@ -0,0 +1,173 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Klasa StrokeHitTester sprawdza, czy punkt leży na narysowanej ścieżce.
+ * Obrys ścieżki jest spłaszczany do odcinków i porównywany z punktem bez tworzenia obiektu Path,
+ * dlatego test działa także poza wątkiem głównym i w testach jednostkowych.
+ * Obiekt nie jest bezpieczny wątkowo.
+ */
+public class StrokeHitTester implements PathSink {
+    //Liczba odcinków przybliżających krzywą kwadratową
+    private static final int QUAD_SEGMENTS = 8;
+    //Liczba odcinków przybliżających krzywą sześcienną
+    private static final int CUBIC_SEGMENTS = 12;
+    //Liczba odcinków przybliżających elipsę
+    private static final int OVAL_SEGMENTS = 32;
+
+    //Stan bieżącego testu
+    private float pointX, pointY, toleranceSquared;
+    private float lastX, lastY, startX, startY;
+    private boolean hit;
+    //Granice badanej ścieżki
+    private final float[] bounds = new float[4];
+
+    /**
+     * Sprawdza, czy punkt leży w odległości promienia od linii ścieżki, z uwzględnieniem grubości pędzla.
+     * @param stroke - ścieżka
+     * @param x - współrzędna x punktu
+     * @param y - współrzędna y punktu
+     * @param radius - promień wokół punktu
+     * @return true, jeśli ścieżka przechodzi przez okrąg wokół punktu
+     */
+    public boolean hits(Stroke stroke, float x, float y, float radius) {
+        float tolerance = radius + stroke.getStyle().getStrokeWidth() / 2;
+        //Szybkie odrzucenie na podstawie granic ścieżki
+        stroke.getBounds(bounds);
+        if (x < bounds[0] - tolerance || x > bounds[2] + tolerance
+                || y < bounds[1] - tolerance || y > bounds[3] + tolerance) {
+            return false;
+        }
+        if (stroke.getShape() == ShapeType.FILL) {
+            //Wypełnienie trafiane jest w całym obszarze, a nie tylko przy krawędziach
+            return hitsArea(stroke, x, y, radius);
+        }
+        pointX = x;
+        pointY = y;
+        toleranceSquared = tolerance * tolerance;
+        hit = false;
+        if (stroke.getPointCount() == 1) {
+            //Pojedyncze dotknięcie rysowane jest jako kropka
+            hit = distanceSquared(x, y, stroke.getX(0), stroke.getY(0)) <= toleranceSquared;
+        } else {
+            stroke.buildPath(this);
+        }
+        return hit;
+    }
+
+    /**
+     * Sprawdza, czy okrąg wokół punktu nachodzi na któryś z prostokątów wypełnienia.
+     */
+    private static boolean hitsArea(Stroke stroke, float x, float y, float radius) {
+        for (int i = 0; i + 1 < stroke.getPointCount(); i += 2) {
+            if (x >= stroke.getX(i) - radius && x <= stroke.getX(i + 1) + radius
+                    && y >= stroke.getY(i) - radius && y <= stroke.getY(i + 1) + radius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        lastX = startX = x;
+        lastY = startY = y;
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        if (!hit && segmentDistanceSquared(lastX, lastY, x, y) <= toleranceSquared) {
+            hit = true;
+        }
+        lastX = x;
+        lastY = y;
+    }
+
+    @Override
+    public void quadTo(float x1, float y1, float x2, float y2) {
+        if (hit) {
+            return;
+        }
+        float x0 = lastX;
+        float y0 = lastY;
+        for (int i = 1; i <= QUAD_SEGMENTS; i++) {
+            float t = (float) i / QUAD_SEGMENTS;
+            float u = 1 - t;
+            lineTo(u * u * x0 + 2 * u * t * x1 + t * t * x2, u * u * y0 + 2 * u * t * y1 + t * t * y2);
+        }
+    }
+
+    @Override
+    public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+        if (hit) {
+            return;
+        }
+        float x0 = lastX;
+        float y0 = lastY;
+        for (int i = 1; i <= CUBIC_SEGMENTS; i++) {
+            float t = (float) i / CUBIC_SEGMENTS;
+            float u = 1 - t;
+            float a = u * u * u;
+            float b = 3 * u * u * t;
+            float c = 3 * u * t * t;
+            float d = t * t * t;
+            lineTo(a * x0 + b * x1 + c * x2 + d * x3, a * y0 + b * y1 + c * y2 + d * y3);
+        }
+    }
+
+    @Override
+    public void close() {
+        lineTo(startX, startY);
+    }
+
+    @Override
+    public void addOval(float left, float top, float right, float bottom) {
+        if (hit) {
+            return;
+        }
+        float centerX = (left + right) / 2;
+        float centerY = (top + bottom) / 2;
+        float radiusX = (right - left) / 2;
+        float radiusY = (bottom - top) / 2;
+        moveTo(centerX + radiusX, centerY);
+        for (int i = 1; i <= OVAL_SEGMENTS; i++) {
+            double angle = 2 * Math.PI * i / OVAL_SEGMENTS;
+            lineTo(centerX + radiusX * (float) Math.cos(angle), centerY + radiusY * (float) Math.sin(angle));
+        }
+    }
+
+    /**
+     * Oblicza kwadrat odległości badanego punktu od odcinka.
+     */
+    private float segmentDistanceSquared(float x1, float y1, float x2, float y2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return distanceSquared(pointX, pointY, x1, y1);
+        }
+        float t = ((pointX - x1) * dx + (pointY - y1) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        return distanceSquared(pointX, pointY, x1 + t * dx, y1 + t * dy);
+    }
+
+    private static float distanceSquared(float x1, float y1, float x2, float y2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+}
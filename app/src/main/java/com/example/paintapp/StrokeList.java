@@ -0,0 +1,274 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+
+/**
+ * Klasa StrokeList przechowuje zatwierdzone ścieżki w kolejności rysowania
+ * i utrzymuje zgodny z nimi indeks przestrzenny.
+ * Operacje historii (dodanie, cofnięcie, czyszczenie) działają na niej jak na zwykłej liście,
+ * a odbiorca zmian może na ich podstawie odświeżyć tylko zmieniony fragment rysunku.
+ */
+public class StrokeList extends AbstractList<Stroke> {
+    //Odstęp kolejności rysowania kolejnych ścieżek, zostawiający miejsce na wstawienie ścieżek między nimi
+    static final long ORDER_GAP = 1L << 20;
+
+    private final ArrayList<Stroke> strokes = new ArrayList<>();
+    private final SpatialIndex index = new SpatialIndex();
+    //Kolejność rysowania nadana ostatniej ścieżce
+    private long lastOrder;
+    //Odbiorca zmian listy, null gdy brak
+    private Listener listener;
+    //Dziennik zmian listy, null gdy brak
+    private Journal journal;
+
+    /**
+     * Interfejs Listener otrzymuje informacje o zmianach listy ścieżek.
+     */
+    public interface Listener {
+        /**
+         * Ścieżka została dodana na wierzch rysunku.
+         * @param stroke - ścieżka
+         */
+        void onStrokeAppended(Stroke stroke);
+
+        /**
+         * Ścieżka została usunięta lub wstawiona pod innymi ścieżkami.
+         * @param stroke - ścieżka
+         */
+        void onStrokeChanged(Stroke stroke);
+
+        /**
+         * Usunięto wszystkie ścieżki.
+         */
+        void onCleared();
+    }
+
+    /**
+     * Interfejs Journal otrzymuje zmiany listy wraz z pozycjami ścieżek,
+     * co pozwala odtworzyć listę z zapisanego ciągu zmian.
+     */
+    public interface Journal {
+        /**
+         * Ścieżka została wstawiona na listę.
+         * @param position - pozycja ścieżki
+         * @param stroke - ścieżka
+         */
+        void onInserted(int position, Stroke stroke);
+
+        /**
+         * Ścieżka została usunięta z listy.
+         * @param position - pozycja usuniętej ścieżki
+         */
+        void onRemoved(int position);
+
+        /**
+         * Ścieżka na liście została zastąpiona inną ścieżką.
+         * @param position - pozycja ścieżki
+         * @param stroke - nowa ścieżka
+         */
+        void onReplaced(int position, Stroke stroke);
+
+        /**
+         * Usunięto wszystkie ścieżki.
+         */
+        void onCleared();
+    }
+
+    /**
+     * Ustawia dziennik zmian listy.
+     * @param journal - dziennik lub null
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Ustawia odbiorcę zmian listy.
+     * @param listener - odbiorca lub null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return indeks przestrzenny ścieżek listy
+     */
+    public SpatialIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public Stroke get(int position) {
+        return strokes.get(position);
+    }
+
+    @Override
+    public int size() {
+        return strokes.size();
+    }
+
+    @Override
+    public void add(int position, Stroke stroke) {
+        strokes.add(position, stroke);
+        boolean appended = position == strokes.size() - 1;
+        if (appended) {
+            lastOrder += ORDER_GAP;
+            index.add(stroke, lastOrder);
+        } else {
+            index.add(stroke, orderBetween(position));
+        }
+        modCount++;
+        if (listener != null) {
+            if (appended) {
+                listener.onStrokeAppended(stroke);
+            } else {
+                listener.onStrokeChanged(stroke);
+            }
+        }
+        if (journal != null) {
+            journal.onInserted(position, stroke);
+        }
+    }
+
+    /**
+     * Wyszukuje pozycję ścieżki binarnie według kolejności rysowania zapisanej w indeksie,
+     * zamiast porównywać kolejne elementy listy.
+     * @param o - szukana ścieżka
+     * @return pozycja ścieżki lub -1
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Stroke)) {
+            return -1;
+        }
+        long order = index.getOrder((Stroke) o);
+        if (order < 0) {
+            return -1;
+        }
+        //Kolejność rysowania rośnie wraz z pozycją na liście
+        int low = 0;
+        int high = strokes.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleOrder = index.getOrder(strokes.get(middle));
+            if (middleOrder < order) {
+                low = middle + 1;
+            } else if (middleOrder > order) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        //Ścieżka występuje na liście co najwyżej raz
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Stroke && index.getOrder((Stroke) o) >= 0;
+    }
+
+    @Override
+    public Stroke remove(int position) {
+        Stroke stroke = strokes.remove(position);
+        index.remove(stroke);
+        modCount++;
+        if (listener != null) {
+            listener.onStrokeChanged(stroke);
+        }
+        if (journal != null) {
+            journal.onRemoved(position);
+        }
+        return stroke;
+    }
+
+    /**
+     * Zastępuje ścieżkę na liście. Nowa ścieżka przejmuje kolejność rysowania poprzedniej,
+     * więc pozostałe ścieżki nie są numerowane od nowa.
+     * @param position - pozycja ścieżki
+     * @param stroke - nowa ścieżka
+     * @return zastąpiona ścieżka
+     */
+    @Override
+    public Stroke set(int position, Stroke stroke) {
+        Stroke previous = strokes.set(position, stroke);
+        long order = index.getOrder(previous);
+        index.remove(previous);
+        index.add(stroke, order);
+        if (listener != null) {
+            listener.onStrokeChanged(previous);
+            listener.onStrokeChanged(stroke);
+        }
+        if (journal != null) {
+            journal.onReplaced(position, stroke);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        strokes.clear();
+        index.clear();
+        lastOrder = 0;
+        modCount++;
+        if (listener != null) {
+            listener.onCleared();
+        }
+        if (journal != null) {
+            journal.onCleared();
+        }
+    }
+
+    /**
+     * Wyznacza kolejność rysowania ścieżki wstawionej między sąsiadów. Ścieżka dostaje wartość
+     * w odstępie między sąsiadami, nie dalej niż ORDER_GAP od poprzedniej ścieżki, dzięki czemu
+     * ścieżki wstawiane po kolei, np. przy cofnięciu usunięcia, odzyskują pierwotne odstępy.
+     * Dopiero po wyczerpaniu odstępu cała lista jest numerowana od nowa.
+     * @param position - pozycja wstawionej ścieżki, która nie jest ostatnia
+     * @return kolejność rysowania
+     */
+    private long orderBetween(int position) {
+        long previous = position > 0 ? index.getOrder(strokes.get(position - 1)) : 0;
+        long next = index.getOrder(strokes.get(position + 1));
+        if (next - previous >= 2) {
+            return previous + Math.min(ORDER_GAP, (next - previous) / 2);
+        }
+        renumber(position);
+        return position * ORDER_GAP + ORDER_GAP;
+    }
+
+    /**
+     * Numeruje kolejność rysowania wszystkich ścieżek od nowa z odstępem ORDER_GAP.
+     * @param skipped - pozycja ścieżki, która nie jest jeszcze w indeksie
+     */
+    private void renumber(int skipped) {
+        lastOrder = 0;
+        for (int i = 0, n = strokes.size(); i < n; i++) {
+            lastOrder += ORDER_GAP;
+            if (i != skipped) {
+                index.setOrder(strokes.get(i), lastOrder);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Klasa StrokeRenderer rysuje tło i zatwierdzone ścieżki na płótnie.
+ * Korzysta z jednej ścieżki wielokrotnego użytku, dlatego każdy wątek potrzebuje własnej instancji.
+ * Ścieżki leżące całkowicie poza obszarem przycięcia płótna są pomijane bez budowania geometrii.
+ */
+public class StrokeRenderer {
+    //Limit ostrych narożników figur (domyślny miter limit obiektu Paint)
+    public static final float MITER_LIMIT = StrokeStyle.MITER_LIMIT;
+
+    private final PaintPool paintPool;
+    //Ścieżka wielokrotnego użytku budowana z punktów kolejnych ścieżek
+    private final Path path = new Path();
+    private final PathAdapter pathAdapter = new PathAdapter(path);
+    //Granice ścieżki wielokrotnego użytku
+    private final float[] bounds = new float[4];
+    //Obrys i wypełnienie linii pędzla naciskowego
+    private final TaperedOutline taperedOutline = new TaperedOutline();
+    private final Paint fillPaint = new Paint();
+    //Wypełnienie obszaru wiadrem z farbą, bez efektów pędzla
+    private final Paint areaPaint = new Paint();
+    //Liczba narysowanych ścieżek od ostatniego odczytu, do pomiarów wydajności
+    private int drawnStrokes;
+
+    /**
+     * Konstruktor.
+     * @param paintPool - pula pędzli dla styli ścieżek
+     */
+    public StrokeRenderer(PaintPool paintPool) {
+        this.paintPool = paintPool;
+        areaPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        areaPaint.setStrokeWidth(StrokeStyle.FILL_SPREAD * 2);
+    }
+
+    /**
+     * Rysuje białe tło oraz bitmapę tła, jeśli istnieje.
+     * @param canvas - płótno do rysowania
+     * @param background - bitmapa tła lub null
+     */
+    public void drawBackground(Canvas canvas, Bitmap background) {
+        canvas.drawColor(Color.WHITE); // Ustawienie białego tła
+        if (background != null) {
+            canvas.drawBitmap(background, 0, 0, null);
+        }
+    }
+
+    /**
+     * Rysuje zatwierdzoną ścieżkę. Obiekt Path budowany jest z punktów ścieżki,
+     * tylko jeśli ścieżka przecina obszar przycięcia płótna.
+     * @param canvas - płótno do rysowania
+     * @param stroke - ścieżka
+     */
+    @SuppressWarnings("deprecation")
+    public void drawStroke(Canvas canvas, Stroke stroke) {
+        stroke.getBounds(bounds);
+        float padding = padding(stroke.getStyle(), stroke.getShape());
+        if (canvas.quickReject(bounds[0] - padding, bounds[1] - padding,
+                bounds[2] + padding, bounds[3] + padding, Canvas.EdgeType.AA)) {
+            return;
+        }
+        drawnStrokes++;
+        path.rewind();
+        if (stroke.getShape() == ShapeType.FILL) {
+            //Prostokąty wypełnienia z obrysem sięgającym pod wygładzone krawędzie sąsiednich ścieżek
+            stroke.buildPath(pathAdapter);
+            areaPaint.setColor(stroke.getStyle().getColor());
+            canvas.drawPath(path, areaPaint);
+            return;
+        }
+        Paint paint = paintPool.get(stroke.getStyle());
+        if (stroke.getStyle().getBrushStyle() == BrushStyle.PRESSURE && stroke.getShape() == ShapeType.LINE) {
+            //Linia o zmiennej grubości rysowana jest jako wypełniony obrys
+            taperedOutline.build(stroke.getPoints(), stroke.getPressures(), stroke.getPointCount(),
+                    stroke.getStyle().getStrokeWidth(), pathAdapter);
+            fillPaint.set(paint);
+            fillPaint.setStyle(Paint.Style.FILL);
+            canvas.drawPath(path, fillPaint);
+            return;
+        }
+        stroke.buildPath(pathAdapter);
+        canvas.drawPath(path, paint);
+    }
+
+    /**
+     * Zwraca liczbę ścieżek narysowanych od poprzedniego wywołania i zeruje licznik.
+     * Ścieżki pominięte poza obszarem przycięcia nie są liczone.
+     * @return liczba narysowanych ścieżek
+     */
+    public int takeDrawnCount() {
+        int count = drawnStrokes;
+        drawnStrokes = 0;
+        return count;
+    }
+
+    /**
+     * Oblicza margines, o który rysowana ścieżka wystaje poza granice swojej geometrii.
+     * Uwzględnia grubość pędzla, rozmycie, rozpylenie aerografu oraz narożniki figur.
+     * @param style - styl ścieżki
+     * @param shape - rodzaj figury
+     * @return margines w pikselach
+     */
+    public static float padding(StrokeStyle style, ShapeType shape) {
+        return style.padding(shape);
+    }
+
+    /**
+     * Oblicza margines, o który rysowana ścieżka wystaje poza granice swojej geometrii.
+     * @param strokeWidth - grubość pędzla
+     * @param brushStyle - styl pędzla
+     * @param shape - rodzaj figury
+     * @return margines w pikselach
+     */
+    public static float padding(float strokeWidth, BrushStyle brushStyle, ShapeType shape) {
+        return StrokeStyle.padding(strokeWidth, brushStyle, shape);
+    }
+}
@@ -0,0 +1,460 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.Arrays;
+
+/**
+ * Klasa StrokeSimplifier upraszcza zatwierdzone linie odręczne.
+ * Do linii rysowanej na ekranie (krzywe kwadratowe przez środki odcinków, zob. StrokeSmoother.emit)
+ * dopasowywane są krzywe sześcienne Béziera metodą Schneidera: przedział próbek linii przybliżany jest
+ * jedną krzywą, a jeśli odchylenie przekracza tolerancję, przedział dzielony jest w najdalszej próbce,
+ * jak w algorytmie Ramera-Douglasa-Peuckera. Linia zapisywana jest dalej jako ciąg krzywych
+ * (ShapeType.CURVE), który odbiega od rysowanej wcześniej linii najwyżej o tolerancję.
+ * Zwykle pozostaje kilka razy mniej punktów, co zmniejsza pamięć, rozmiar dokumentu
+ * i koszt budowania ścieżek przy rysowaniu.
+ * Obiekt nie jest bezpieczny wątkowo, ale może działać w wątku w tle, bo nie zmienia upraszczanej ścieżki.
+ */
+public class StrokeSimplifier {
+    //Domyślne dopuszczalne odchylenie w pikselach płótna, poniżej widocznej różnicy
+    public static final float DEFAULT_TOLERANCE = 0.5f;
+    //Część tolerancji dostępna dla dopasowania, reszta to zapas na zaokrąglenie współrzędnych w dokumencie
+    private static final float FIT_TOLERANCE = 0.9f;
+    //Największy odstęp próbek rysowanej linii w pikselach
+    private static final float SAMPLE_SPACING = 1f;
+    //Liczba poprawek parametrów próbek przed podziałem przedziału
+    private static final int MAX_REPARAMETERIZATIONS = 4;
+
+    private final float maxErrorSquared;
+    private final Sampler sampler = new Sampler();
+    //Próbki rysowanej linii zapisane parami x, y
+    private float[] samples = new float[256];
+    private int sampleCount;
+    //Parametry krzywej odpowiadające próbkom dopasowywanego przedziału
+    private double[] params = new double[128];
+    //Stos przedziałów do dopasowania: pary indeksów pierwszej i ostatniej próbki
+    private int[] stack = new int[64];
+    //Kierunki styczne na początku i końcu przedziałów ze stosu, po 4 wartości na przedział
+    private float[] tangents = new float[128];
+    //Punkty kontrolne wyniku: punkt początkowy i trójki punktów kolejnych krzywych
+    private float[] curve = new float[64];
+    private int curveSize;
+    //Punkty kontrolne dopasowywanej krzywej: x0, y0, x1, y1, x2, y2, x3, y3
+    private final double[] bezier = new double[8];
+    //Próbka o największym odchyleniu w ostatnim pomiarze błędu
+    private int splitIndex;
+
+    /**
+     * Konstruktor.
+     * @param tolerance - dopuszczalne odchylenie uproszczonej linii w pikselach
+     */
+    public StrokeSimplifier(float tolerance) {
+        float maxError = tolerance * FIT_TOLERANCE;
+        this.maxErrorSquared = maxError * maxError;
+    }
+
+    /**
+     * Sprawdza, czy ścieżkę można uprościć. Upraszczane są linie odręczne, z wyjątkiem linii
+     * pędzla naciskowego, którego grubość zależy od punktów, oraz ścieżek gumki, bo ich odchylenie
+     * odsłoniłoby wymazane piksele warstwy.
+     * @param stroke - ścieżka
+     * @return true, jeśli ścieżkę można uprościć
+     */
+    public static boolean canSimplify(Stroke stroke) {
+        return stroke.getShape() == ShapeType.LINE
+                && !stroke.getStyle().isEraser()
+                && stroke.getStyle().getBrushStyle() != BrushStyle.PRESSURE
+                && stroke.getPointCount() > 2;
+    }
+
+    /**
+     * Tworzy uproszczoną kopię ścieżki. Upraszczana ścieżka nie jest zmieniana.
+     * @param stroke - ścieżka
+     * @return uproszczona ścieżka lub null, jeśli ścieżki nie można uprościć lub nie ubyłoby punktów
+     */
+    public Stroke simplify(Stroke stroke) {
+        if (!canSimplify(stroke)) {
+            return null;
+        }
+        sampleCount = 0;
+        stroke.buildPath(sampler);
+        if (sampleCount < 2) {
+            return null;
+        }
+        fit();
+        int pointCount = curveSize / 2;
+        if (pointCount >= stroke.getPointCount()) {
+            return null;
+        }
+        return new Stroke(stroke.getStyle(), ShapeType.CURVE, Arrays.copyOf(curve, curveSize), pointCount);
+    }
+
+    /**
+     * Dopasowuje krzywe do wszystkich próbek. Przedziały dzielone są na stosie zamiast rekurencyjnie,
+     * więc długie linie nie przepełnią stosu wątku. Lewa część podziału zdejmowana jest ze stosu
+     * pierwsza, dzięki czemu krzywe trafiają do wyniku w kolejności linii.
+     */
+    private void fit() {
+        if (params.length < sampleCount) {
+            params = new double[sampleCount];
+        }
+        curveSize = 0;
+        appendPoint(samples[0], samples[1]);
+        int last = sampleCount - 1;
+        int stackSize = 0;
+        stack[0] = 0;
+        stack[1] = last;
+        setTangent(0, 0, 1);
+        setTangent(2, last, last - 1);
+        stackSize++;
+        while (stackSize > 0) {
+            stackSize--;
+            int first = stack[stackSize * 2];
+            int end = stack[stackSize * 2 + 1];
+            int t = stackSize * 4;
+            float t1x = tangents[t];
+            float t1y = tangents[t + 1];
+            float t2x = tangents[t + 2];
+            float t2y = tangents[t + 3];
+            if (fitInterval(first, end, t1x, t1y, t2x, t2y)) {
+                appendPoint((float) bezier[2], (float) bezier[3]);
+                appendPoint((float) bezier[4], (float) bezier[5]);
+                appendPoint((float) bezier[6], (float) bezier[7]);
+                continue;
+            }
+            //Podział w najdalszej próbce: prawa część na stos pierwsza, aby lewa została zdjęta wcześniej
+            int split = splitIndex;
+            if ((stackSize + 2) * 4 > tangents.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                tangents = Arrays.copyOf(tangents, tangents.length * 2);
+            }
+            int right = stackSize * 4;
+            int left = right + 4;
+            stack[stackSize * 2] = split;
+            stack[stackSize * 2 + 1] = end;
+            stack[stackSize * 2 + 2] = first;
+            stack[stackSize * 2 + 3] = split;
+            splitTangents(split, right, left + 2);
+            tangents[right + 2] = t2x;
+            tangents[right + 3] = t2y;
+            tangents[left] = t1x;
+            tangents[left + 1] = t1y;
+            stackSize += 2;
+        }
+    }
+
+    /**
+     * Dopasowuje jedną krzywą do próbek przedziału przy zadanych kierunkach stycznych na końcach.
+     * @return true, jeśli odchylenie krzywej mieści się w tolerancji; false, gdy przedział trzeba podzielić
+     */
+    private boolean fitInterval(int first, int last, float t1x, float t1y, float t2x, float t2y) {
+        parameterizeByChordLength(first, last);
+        generateBezier(first, last, t1x, t1y, t2x, t2y);
+        //Przedziału dwóch sąsiednich próbek nie można podzielić
+        if (last - first < 2) {
+            return true;
+        }
+        double error = maxError(first, last);
+        if (error <= maxErrorSquared) {
+            return true;
+        }
+        //Krzywa bliska próbkom poprawiana jest przez dopasowanie parametrów próbek do krzywej
+        if (error <= maxErrorSquared * 4) {
+            for (int i = 0; i < MAX_REPARAMETERIZATIONS; i++) {
+                reparameterize(first, last);
+                generateBezier(first, last, t1x, t1y, t2x, t2y);
+                error = maxError(first, last);
+                if (error <= maxErrorSquared) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nadaje próbkom parametry proporcjonalne do długości łamanej od początku przedziału.
+     */
+    private void parameterizeByChordLength(int first, int last) {
+        params[0] = 0;
+        for (int i = first + 1; i <= last; i++) {
+            params[i - first] = params[i - first - 1] + distance(i - 1, i);
+        }
+        double length = params[last - first];
+        for (int i = 1; i <= last - first; i++) {
+            params[i] /= length;
+        }
+    }
+
+    /**
+     * Wyznacza metodą najmniejszych kwadratów długości ramion krzywej o zadanych kierunkach stycznych.
+     */
+    private void generateBezier(int first, int last, float t1x, float t1y, float t2x, float t2y) {
+        double x0 = samples[first * 2];
+        double y0 = samples[first * 2 + 1];
+        double x3 = samples[last * 2];
+        double y3 = samples[last * 2 + 1];
+        double c00 = 0;
+        double c01 = 0;
+        double c11 = 0;
+        double r0 = 0;
+        double r1 = 0;
+        for (int i = first; i <= last; i++) {
+            double u = params[i - first];
+            double v = 1 - u;
+            double b0 = v * v * v;
+            double b1 = 3 * v * v * u;
+            double b2 = 3 * v * u * u;
+            double b3 = u * u * u;
+            double a1x = t1x * b1;
+            double a1y = t1y * b1;
+            double a2x = t2x * b2;
+            double a2y = t2y * b2;
+            c00 += a1x * a1x + a1y * a1y;
+            c01 += a1x * a2x + a1y * a2y;
+            c11 += a2x * a2x + a2y * a2y;
+            double dx = samples[i * 2] - (x0 * (b0 + b1) + x3 * (b2 + b3));
+            double dy = samples[i * 2 + 1] - (y0 * (b0 + b1) + y3 * (b2 + b3));
+            r0 += a1x * dx + a1y * dy;
+            r1 += a2x * dx + a2y * dy;
+        }
+        double determinant = c00 * c11 - c01 * c01;
+        double alpha1 = determinant == 0 ? 0 : (r0 * c11 - r1 * c01) / determinant;
+        double alpha2 = determinant == 0 ? 0 : (c00 * r1 - c01 * r0) / determinant;
+        double chord = Math.hypot(x3 - x0, y3 - y0);
+        //Ujemne lub zerowe ramiona zastępowane są ramionami długości jednej trzeciej cięciwy
+        if (alpha1 < chord * 1e-6 || alpha2 < chord * 1e-6) {
+            alpha1 = alpha2 = chord / 3;
+        }
+        bezier[0] = x0;
+        bezier[1] = y0;
+        bezier[2] = x0 + t1x * alpha1;
+        bezier[3] = y0 + t1y * alpha1;
+        bezier[4] = x3 + t2x * alpha2;
+        bezier[5] = y3 + t2y * alpha2;
+        bezier[6] = x3;
+        bezier[7] = y3;
+    }
+
+    /**
+     * Poprawia parametry próbek jednym krokiem metody Newtona, przybliżając punkty krzywej do próbek.
+     */
+    private void reparameterize(int first, int last) {
+        for (int i = first + 1; i < last; i++) {
+            double u = params[i - first];
+            double v = 1 - u;
+            double x = point(0, u);
+            double y = point(1, u);
+            //Pierwsza i druga pochodna krzywej
+            double dx = 3 * (v * v * (bezier[2] - bezier[0]) + 2 * v * u * (bezier[4] - bezier[2])
+                    + u * u * (bezier[6] - bezier[4]));
+            double dy = 3 * (v * v * (bezier[3] - bezier[1]) + 2 * v * u * (bezier[5] - bezier[3])
+                    + u * u * (bezier[7] - bezier[5]));
+            double ddx = 6 * (v * (bezier[4] - 2 * bezier[2] + bezier[0]) + u * (bezier[6] - 2 * bezier[4] + bezier[2]));
+            double ddy = 6 * (v * (bezier[5] - 2 * bezier[3] + bezier[1]) + u * (bezier[7] - 2 * bezier[5] + bezier[3]));
+            double ex = x - samples[i * 2];
+            double ey = y - samples[i * 2 + 1];
+            double denominator = dx * dx + dy * dy + ex * ddx + ey * ddy;
+            if (denominator != 0) {
+                params[i - first] = Math.max(0, Math.min(1, u - (ex * dx + ey * dy) / denominator));
+            }
+        }
+    }
+
+    /**
+     * Mierzy odchylenie krzywej od próbek w obie strony: odległość każdej próbki od jej punktu krzywej
+     * oraz odległość punktu krzywej w połowie między sąsiednimi próbkami od łączącego je odcinka.
+     * Próbka o największym odchyleniu zapisywana jest w splitIndex.
+     * @return kwadrat największego odchylenia
+     */
+    private double maxError(int first, int last) {
+        double maxError = 0;
+        splitIndex = (first + last) / 2;
+        for (int i = first; i < last; i++) {
+            if (i > first) {
+                double ex = point(0, params[i - first]) - samples[i * 2];
+                double ey = point(1, params[i - first]) - samples[i * 2 + 1];
+                double error = ex * ex + ey * ey;
+                if (error > maxError) {
+                    maxError = error;
+                    splitIndex = i;
+                }
+            }
+            double middle = (params[i - first] + params[i - first + 1]) / 2;
+            double error = segmentDistanceSquared(point(0, middle), point(1, middle), i, i + 1);
+            if (error > maxError) {
+                maxError = error;
+                splitIndex = Math.max(first + 1, Math.min(last - 1, i));
+            }
+        }
+        return maxError;
+    }
+
+    /**
+     * Oblicza współrzędną punktu dopasowywanej krzywej.
+     * @param axis - 0 dla x, 1 dla y
+     * @param u - parametr od 0 do 1
+     */
+    private double point(int axis, double u) {
+        double v = 1 - u;
+        return v * v * v * bezier[axis] + 3 * v * v * u * bezier[2 + axis]
+                + 3 * v * u * u * bezier[4 + axis] + u * u * u * bezier[6 + axis];
+    }
+
+    /**
+     * Zapisuje jednostkowy kierunek od próbki do innej próbki, np. styczną na końcu przedziału.
+     */
+    private void setTangent(int offset, int from, int to) {
+        float dx = samples[to * 2] - samples[from * 2];
+        float dy = samples[to * 2 + 1] - samples[from * 2 + 1];
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        tangents[offset] = dx / length;
+        tangents[offset + 1] = dy / length;
+    }
+
+    /**
+     * Zapisuje styczne w punkcie podziału: wspólny kierunek przez sąsiednie próbki, dzięki któremu
+     * krzywe łączą się gładko, albo przy ostrym zawróceniu linii osobne kierunki do sąsiednich próbek.
+     * @param split - indeks próbki podziału
+     * @param start - pozycja stycznej na początku prawej części
+     * @param end - pozycja stycznej na końcu lewej części
+     */
+    private void splitTangents(int split, int start, int end) {
+        float dx = samples[split * 2 + 2] - samples[split * 2 - 2];
+        float dy = samples[split * 2 + 3] - samples[split * 2 - 1];
+        float inX = samples[split * 2] - samples[split * 2 - 2];
+        float inY = samples[split * 2 + 1] - samples[split * 2 - 1];
+        float outX = samples[split * 2 + 2] - samples[split * 2];
+        float outY = samples[split * 2 + 3] - samples[split * 2 + 1];
+        if (dx * inX + dy * inY <= 0 || dx * outX + dy * outY <= 0) {
+            setTangent(start, split, split + 1);
+            setTangent(end, split, split - 1);
+            return;
+        }
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        tangents[start] = dx / length;
+        tangents[start + 1] = dy / length;
+        tangents[end] = -tangents[start];
+        tangents[end + 1] = -tangents[start + 1];
+    }
+
+    /**
+     * Oblicza kwadrat odległości punktu od odcinka między dwiema próbkami.
+     */
+    private double segmentDistanceSquared(double x, double y, int first, int last) {
+        double x1 = samples[first * 2];
+        double y1 = samples[first * 2 + 1];
+        double dx = samples[last * 2] - x1;
+        double dy = samples[last * 2 + 1] - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = x1 + t * dx - x;
+        double ey = y1 + t * dy - y;
+        return ex * ex + ey * ey;
+    }
+
+    private double distance(int a, int b) {
+        return Math.hypot(samples[b * 2] - samples[a * 2], samples[b * 2 + 1] - samples[a * 2 + 1]);
+    }
+
+    private void appendPoint(float x, float y) {
+        if (curveSize + 2 > curve.length) {
+            curve = Arrays.copyOf(curve, curve.length * 2);
+        }
+        curve[curveSize++] = x;
+        curve[curveSize++] = y;
+    }
+
+    /**
+     * Próbkuje rysowaną geometrię linii w odstępach nie większych niż SAMPLE_SPACING.
+     * Kolejne takie same próbki są pomijane.
+     */
+    private class Sampler implements PathSink {
+        private float lastX, lastY;
+
+        @Override
+        public void moveTo(float x, float y) {
+            addSample(x, y);
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            float x0 = lastX;
+            float y0 = lastY;
+            int steps = steps((float) Math.hypot(x - x0, y - y0));
+            for (int i = 1; i <= steps; i++) {
+                float t = (float) i / steps;
+                addSample(x0 + (x - x0) * t, y0 + (y - y0) * t);
+            }
+        }
+
+        @Override
+        public void quadTo(float x1, float y1, float x2, float y2) {
+            float x0 = lastX;
+            float y0 = lastY;
+            //Łamana punktów kontrolnych jest nie krótsza niż krzywa
+            int steps = steps((float) (Math.hypot(x1 - x0, y1 - y0) + Math.hypot(x2 - x1, y2 - y1)));
+            for (int i = 1; i <= steps; i++) {
+                float t = (float) i / steps;
+                float u = 1 - t;
+                addSample(u * u * x0 + 2 * u * t * x1 + t * t * x2, u * u * y0 + 2 * u * t * y1 + t * t * y2);
+            }
+        }
+
+        @Override
+        public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            float x0 = lastX;
+            float y0 = lastY;
+            int steps = steps((float) (Math.hypot(x1 - x0, y1 - y0) + Math.hypot(x2 - x1, y2 - y1)
+                    + Math.hypot(x3 - x2, y3 - y2)));
+            for (int i = 1; i <= steps; i++) {
+                float t = (float) i / steps;
+                float u = 1 - t;
+                addSample(u * u * u * x0 + 3 * u * u * t * x1 + 3 * u * t * t * x2 + t * t * t * x3,
+                        u * u * u * y0 + 3 * u * u * t * y1 + 3 * u * t * t * y2 + t * t * t * y3);
+            }
+        }
+
+        @Override
+        public void close() {
+            //Linie odręczne nie są zamykane
+        }
+
+        @Override
+        public void addOval(float left, float top, float right, float bottom) {
+            //Linie odręczne nie zawierają elips
+        }
+
+        private int steps(float length) {
+            return Math.max(1, (int) Math.ceil(length / SAMPLE_SPACING));
+        }
+
+        private void addSample(float x, float y) {
+            lastX = x;
+            lastY = y;
+            if (sampleCount > 0 && samples[sampleCount * 2 - 2] == x && samples[sampleCount * 2 - 1] == y) {
+                return;
+            }
+            if (sampleCount * 2 + 2 > samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[sampleCount * 2] = x;
+            samples[sampleCount * 2 + 1] = y;
+            sampleCount++;
+        }
+    }
+}
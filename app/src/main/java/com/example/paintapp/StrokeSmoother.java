@@ -0,0 +1,204 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Klasa StrokeSmoother przetwarza punkty dotyku rysowanej linii.
+ * Pomija punkty zbyt bliskie poprzedniemu lub leżące prawie na tej samej prostej,
+ * a pozostałe łączy krzywymi kwadratowymi przechodzącymi przez środki odcinków.
+ * Dzięki temu linia jest gładka niezależnie od częstotliwości próbkowania ekranu.
+ */
+public class StrokeSmoother {
+    //Minimalna odległość między zapamiętanymi punktami w pikselach
+    public static final float DEFAULT_MIN_DISTANCE = 2f;
+    //Odległość, po której punkt jest zapamiętywany niezależnie od kąta
+    public static final float DEFAULT_MAX_DISTANCE = 16f;
+    //Minimalna zmiana kierunku (w stopniach) wymagana dla punktów bliższych niż maksymalna odległość
+    public static final float DEFAULT_MIN_ANGLE = 5f;
+
+    private final PathSink sink;
+    private final float minDistance;
+    private final float maxDistance;
+    private final float cosMinAngle;
+
+    //Ostatni zapamiętany punkt
+    private float lastX, lastY;
+    //Koniec dotychczasowej ścieżki: środek ostatniego odcinka lub punkt początkowy
+    private float midX, midY;
+    //Kierunek ostatniego odcinka (wektor jednostkowy)
+    private float dirX, dirY;
+    //Liczba zapamiętanych punktów w aktualnej linii
+    private int pointCount;
+
+    /**
+     * Konstruktor z domyślnymi parametrami.
+     * @param sink - odbiorca elementów ścieżki
+     */
+    public StrokeSmoother(PathSink sink) {
+        this(sink, DEFAULT_MIN_DISTANCE, DEFAULT_MAX_DISTANCE, DEFAULT_MIN_ANGLE);
+    }
+
+    /**
+     * Konstruktor.
+     * @param sink - odbiorca elementów ścieżki
+     * @param minDistance - minimalna odległość między punktami
+     * @param maxDistance - odległość, po której punkt jest zawsze zapamiętywany
+     * @param minAngle - minimalna zmiana kierunku w stopniach
+     */
+    public StrokeSmoother(PathSink sink, float minDistance, float maxDistance, float minAngle) {
+        this.sink = sink;
+        this.minDistance = minDistance;
+        this.maxDistance = maxDistance;
+        this.cosMinAngle = (float) Math.cos(Math.toRadians(minAngle));
+    }
+
+    /**
+     * Rozpoczyna nową linię.
+     * @param x - współrzędna x punktu początkowego
+     * @param y - współrzędna y punktu początkowego
+     */
+    public void begin(float x, float y) {
+        lastX = x;
+        lastY = y;
+        midX = x;
+        midY = y;
+        dirX = dirY = 0;
+        pointCount = 1;
+        sink.moveTo(x, y);
+    }
+
+    /**
+     * Dodaje kolejny punkt dotyku.
+     * @param x - współrzędna x
+     * @param y - współrzędna y
+     * @return true, jeśli punkt został zapamiętany
+     */
+    public boolean addPoint(float x, float y) {
+        float dx = x - lastX;
+        float dy = y - lastY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (distance < minDistance) {
+            return false;
+        }
+        //Punkty bliskie i leżące na przedłużeniu ostatniego odcinka nie zmieniają kształtu
+        if (distance < maxDistance && pointCount > 1
+                && (dx * dirX + dy * dirY) / distance > cosMinAngle) {
+            return false;
+        }
+        accept(x, y, distance);
+        return true;
+    }
+
+    /**
+     * Kończy linię w podanym punkcie.
+     * @param x - współrzędna x punktu końcowego
+     * @param y - współrzędna y punktu końcowego
+     * @return true, jeśli punkt końcowy został zapamiętany
+     */
+    public boolean end(float x, float y) {
+        float dx = x - lastX;
+        float dy = y - lastY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        boolean accepted = distance > 0;
+        if (accepted) {
+            accept(x, y, distance);
+        }
+        if (pointCount > 1) {
+            sink.lineTo(lastX, lastY);
+        }
+        return accepted;
+    }
+
+    /**
+     * Buduje ścieżkę z zapamiętanych punktów linii.
+     * Daje taki sam wynik jak przetwarzanie punktów na bieżąco metodami begin, addPoint i end.
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @param pointCount - liczba punktów
+     * @param sink - odbiorca elementów ścieżki
+     */
+    public static void emit(float[] points, int pointCount, PathSink sink) {
+        sink.moveTo(points[0], points[1]);
+        for (int i = 1; i < pointCount; i++) {
+            float prevX = points[i * 2 - 2];
+            float prevY = points[i * 2 - 1];
+            float midX = (prevX + points[i * 2]) / 2;
+            float midY = (prevY + points[i * 2 + 1]) / 2;
+            if (i == 1) {
+                sink.lineTo(midX, midY);
+            } else {
+                sink.quadTo(prevX, prevY, midX, midY);
+            }
+        }
+        if (pointCount > 1) {
+            sink.lineTo(points[pointCount * 2 - 2], points[pointCount * 2 - 1]);
+        }
+    }
+
+    /**
+     * Ostatni zapamiętany punkt jest punktem kontrolnym następnej krzywej, więc razem z końcem ścieżki
+     * i nowymi punktami wyznacza obszar, który zmienia dodanie punktu.
+     * @return współrzędna x ostatniego zapamiętanego punktu
+     */
+    public float getLastX() {
+        return lastX;
+    }
+
+    /**
+     * @return współrzędna y ostatniego zapamiętanego punktu
+     */
+    public float getLastY() {
+        return lastY;
+    }
+
+    /**
+     * @return współrzędna x końca dotychczasowej ścieżki, od którego zaczyna się następna krzywa
+     */
+    public float getMidX() {
+        return midX;
+    }
+
+    /**
+     * @return współrzędna y końca dotychczasowej ścieżki, od którego zaczyna się następna krzywa
+     */
+    public float getMidY() {
+        return midY;
+    }
+
+    /**
+     * @return liczba zapamiętanych punktów w aktualnej linii
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Zapamiętuje punkt i dodaje do ścieżki krzywą kończącą się w połowie nowego odcinka.
+     */
+    private void accept(float x, float y, float distance) {
+        midX = (lastX + x) / 2;
+        midY = (lastY + y) / 2;
+        if (pointCount == 1) {
+            sink.lineTo(midX, midY);
+        } else {
+            sink.quadTo(lastX, lastY, midX, midY);
+        }
+        dirX = (x - lastX) / distance;
+        dirY = (y - lastY) / distance;
+        lastX = x;
+        lastY = y;
+        pointCount++;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Klasa StrokeStyle opisuje niezmienny styl ścieżki: kolor, grubość, styl pędzla
+ * oraz to, czy ścieżka jest gumką. Takie same style są współdzielone,
+ * więc każda ścieżka przechowuje jedynie referencję. Pamiętane jest tylko
+ * {@link #MAX_INTERNED} ostatnio używanych styli, dlatego style porównuje się przez equals.
+ */
+public final class StrokeStyle {
+    //Maksymalna liczba pamiętanych wspólnych instancji styli
+    public static final int MAX_INTERNED = 64;
+    //Wspólne instancje styli, najdawniej używane są usuwane po przekroczeniu limitu
+    private static final Map<StrokeStyle, StrokeStyle> INTERNED =
+            new LinkedHashMap<StrokeStyle, StrokeStyle>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<StrokeStyle, StrokeStyle> eldest) {
+                    return size() > MAX_INTERNED;
+                }
+            };
+    //Limit ostrych narożników figur (domyślny miter limit obiektu Paint)
+    public static final float MITER_LIMIT = 4f;
+    //Promień rozmycia pędzla w stylu BLUR
+    public static final float BLUR_RADIUS = 10f;
+    //Poszerzenie wypełnienia pokrywające wygładzone krawędzie otaczających je ścieżek
+    public static final float FILL_SPREAD = 1f;
+
+    private final int color;
+    private final float strokeWidth;
+    private final BrushStyle brushStyle;
+    private final boolean eraser;
+
+    private StrokeStyle(int color, float strokeWidth, BrushStyle brushStyle, boolean eraser) {
+        this.color = color;
+        this.strokeWidth = strokeWidth;
+        this.brushStyle = brushStyle;
+        this.eraser = eraser;
+    }
+
+    /**
+     * Zwraca wspólną instancję stylu o podanych parametrach.
+     * Instancja jest wspólna tak długo, jak styl pozostaje wśród ostatnio używanych.
+     * @param color - kolor
+     * @param strokeWidth - grubość
+     * @param brushStyle - styl pędzla
+     * @param eraser - czy styl jest gumką
+     * @return styl
+     */
+    public static StrokeStyle of(int color, float strokeWidth, BrushStyle brushStyle, boolean eraser) {
+        StrokeStyle key = new StrokeStyle(color, strokeWidth, brushStyle, eraser);
+        synchronized (INTERNED) {
+            StrokeStyle style = INTERNED.get(key);
+            if (style == null) {
+                INTERNED.put(key, key);
+                style = key;
+            }
+            return style;
+        }
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public float getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    public BrushStyle getBrushStyle() {
+        return brushStyle;
+    }
+
+    public boolean isEraser() {
+        return eraser;
+    }
+
+    /**
+     * Oblicza margines, o który ścieżka w tym stylu wystaje poza granice swojej geometrii.
+     * @param shape - rodzaj figury
+     * @return margines w pikselach
+     */
+    public float padding(ShapeType shape) {
+        return padding(strokeWidth, brushStyle, shape);
+    }
+
+    /**
+     * Oblicza margines, o który rysowana ścieżka wystaje poza granice swojej geometrii.
+     * Uwzględnia grubość pędzla, rozmycie, rozpylenie aerografu oraz narożniki figur.
+     * @param strokeWidth - grubość pędzla
+     * @param brushStyle - styl pędzla
+     * @param shape - rodzaj figury
+     * @return margines w pikselach
+     */
+    public static float padding(float strokeWidth, BrushStyle brushStyle, ShapeType shape) {
+        if (shape == ShapeType.FILL) {
+            //Wypełnienie nie zależy od pędzla
+            return FILL_SPREAD + 1;
+        }
+        float halfWidth = strokeWidth / 2;
+        if (shape != ShapeType.LINE && shape != ShapeType.CURVE) {
+            halfWidth *= MITER_LIMIT;
+        }
+        if (brushStyle == BrushStyle.AIRBRUSH) {
+            //Krople rozpylane są w promieniu grubości pędzla
+            halfWidth += strokeWidth;
+        }
+        float blur = brushStyle == BrushStyle.BLUR ? BLUR_RADIUS : 0;
+        return halfWidth + blur + 1;
+    }
+
+    /**
+     * @return liczba pamiętanych wspólnych instancji styli
+     */
+    static int internedCount() {
+        synchronized (INTERNED) {
+            return INTERNED.size();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StrokeStyle)) {
+            return false;
+        }
+        StrokeStyle other = (StrokeStyle) o;
+        return color == other.color
+                && Float.compare(strokeWidth, other.strokeWidth) == 0
+                && brushStyle == other.brushStyle
+                && eraser == other.eraser;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = color;
+        result = 31 * result + Float.floatToIntBits(strokeWidth);
+        result = 31 * result + brushStyle.hashCode();
+        result = 31 * result + (eraser ? 1 : 0);
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+/**
+ * Klasa TaperedOutline buduje obrys linii o zmiennej grubości dla pędzla naciskowego.
+ * Grubość w każdym punkcie wynika z siły nacisku zapisanej podczas rysowania (MotionEvent.getPressure),
+ * a początek i koniec linii zwężają się do ostrego zakończenia.
+ * Linie bez zapisanego nacisku, np. z dokumentów starszej wersji, mają pełny nacisk na całej długości.
+ * Obrys jest wielokątem do wypełnienia. Bufory są używane wielokrotnie, obiekt nie jest bezpieczny wątkowo.
+ */
+public class TaperedOutline {
+    //Grubość przy zerowym nacisku względem grubości pędzla
+    private static final float MIN_PRESSURE = 0.4f;
+    //Grubość końcówek linii względem grubości pędzla
+    private static final float MIN_TAPER = 0.1f;
+    //Długość zwężenia końcówek w grubościach pędzla
+    private static final float TAPER_WIDTHS = 4f;
+    //Wygładzanie zapisanego nacisku między kolejnymi punktami
+    private static final float SMOOTHING = 0.3f;
+
+    //Połowa grubości w kolejnych punktach i odległość punktów od początku linii
+    private float[] halfWidths = new float[64];
+    private float[] distances = new float[64];
+
+    /**
+     * Buduje obrys linii i przekazuje go do odbiorcy jako zamknięty wielokąt.
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @param pressures - siła nacisku od 0 do 1 w kolejnych punktach lub null, gdy nie została zapisana
+     * @param pointCount - liczba punktów
+     * @param strokeWidth - grubość pędzla
+     * @param sink - odbiorca elementów ścieżki
+     */
+    public void build(float[] points, float[] pressures, int pointCount, float strokeWidth, PathSink sink) {
+        if (pointCount == 0) {
+            return;
+        }
+        if (pointCount == 1) {
+            //Pojedyncze dotknięcie jako kropka
+            float r = strokeWidth / 2 * width(pressures != null ? pressures[0] : 1);
+            sink.addOval(points[0] - r, points[1] - r, points[0] + r, points[1] + r);
+            return;
+        }
+        if (halfWidths.length < pointCount) {
+            halfWidths = new float[pointCount];
+            distances = new float[pointCount];
+        }
+
+        //Zapisany nacisk wygładzany jest między punktami, bo czujniki nacisku są zaszumione
+        float pressure = pressures != null ? pressures[0] : 1;
+        distances[0] = 0;
+        halfWidths[0] = width(pressure);
+        for (int i = 1; i < pointCount; i++) {
+            distances[i] = distances[i - 1] + distance(points, i - 1, i);
+            float target = pressures != null ? pressures[i] : 1;
+            pressure += (target - pressure) * SMOOTHING;
+            halfWidths[i] = width(pressure);
+        }
+        float total = distances[pointCount - 1];
+        float taper = Math.min(total / 3, strokeWidth * TAPER_WIDTHS);
+        for (int i = 0; i < pointCount; i++) {
+            float ends = taper > 0 ? Math.min(distances[i], total - distances[i]) / taper : 1;
+            ends = Math.max(MIN_TAPER, Math.min(1, ends));
+            halfWidths[i] *= ends * strokeWidth / 2;
+        }
+
+        //Lewa krawędź od początku do końca, następnie prawa z powrotem
+        emitSide(points, pointCount, sink, 1);
+        emitSide(points, pointCount, sink, -1);
+        sink.close();
+    }
+
+    /**
+     * Przekazuje jedną krawędź obrysu przesuniętą wzdłuż normalnej linii.
+     * @param side - 1 dla lewej krawędzi (od początku), -1 dla prawej (od końca)
+     */
+    private void emitSide(float[] points, int pointCount, PathSink sink, int side) {
+        float normalX = 0;
+        float normalY = 1;
+        for (int step = 0; step < pointCount; step++) {
+            int i = side > 0 ? step : pointCount - 1 - step;
+            //Kierunek linii z sąsiednich punktów, powtórzone punkty zachowują poprzednią normalną
+            int previous = Math.max(0, i - 1);
+            int next = Math.min(pointCount - 1, i + 1);
+            float dx = points[next * 2] - points[previous * 2];
+            float dy = points[next * 2 + 1] - points[previous * 2 + 1];
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            if (length > 0) {
+                normalX = -dy / length;
+                normalY = dx / length;
+            }
+            float offset = halfWidths[i] * side;
+            float x = points[i * 2] + normalX * offset;
+            float y = points[i * 2 + 1] + normalY * offset;
+            if (step == 0 && side > 0) {
+                sink.moveTo(x, y);
+            } else {
+                sink.lineTo(x, y);
+            }
+        }
+    }
+
+    /**
+     * @return grubość względem grubości pędzla dla siły nacisku
+     */
+    private static float width(float pressure) {
+        return MIN_PRESSURE + (1 - MIN_PRESSURE) * pressure;
+    }
+
+    private static float distance(float[] points, int a, int b) {
+        float dx = points[b * 2] - points[a * 2];
+        float dy = points[b * 2 + 1] - points[a * 2 + 1];
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Program PaintApp - aplikacja umożliwiająca rysowanie na ekranie.
+ * Funkcjonalność: W domyślnym trybie rysowanie kolorem czarnym w wyznaczonym polu.
+ * Paleta - umożliwia wybranie innego koloru pędzla.
+ * Dwie strzałki - zmieniają grubość pędzla.
+ * Kwadrat - pozwala wybrać figurę do rysowania.
+ * Strzałka w lewo - cofa ostatnią operację.
+ * Strzałka w prawo - przywraca ostatnią operację
+ * Zapis - zapis drawingView do pliku.
+ * Wczytanie - wczytanie zdjęcia do drawingView.
+ * Krzyżyk - czyszczenie rysunku.
+ * Gumka - rysowanie w kolorze tła rysunku, co daje efekt "gumki".
+ * @author PetroniuszG
+ * @version 1.0
+ */
+package com.example.paintapp;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa TileCache dzieli płótno rysunku na kwadratowe kafelki o stałym rozmiarze
+ * i przechowuje bitmapy ostatnio używanych kafelków.
+ * Po przekroczeniu limitu bitmapa najdawniej używanego kafelka jest wykorzystywana ponownie,
+ * więc pamięć zależy od rozmiaru widoku, a nie od rozmiaru płótna.
+ * Każdy kafelek ma flagę określającą, czy jego zawartość trzeba narysować od nowa.
+ */
+public class TileCache {
+    //Rozmiar boku kafelka w pikselach bitmapy
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * Kafelek płótna z własną bitmapą.
+     */
+    public static class Tile {
+        private final int column;
+        private final int row;
+        private final Bitmap bitmap;
+        private final Canvas canvas;
+        //Flaga określająca, czy zawartość kafelka jest nieaktualna
+        private boolean dirty = true;
+        //Numer ostatniego użycia kafelka
+        private long lastUsed;
+
+        Tile(int column, int row, Bitmap bitmap) {
+            this.column = column;
+            this.row = row;
+            this.bitmap = bitmap;
+            this.canvas = new Canvas(bitmap);
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return współrzędna x lewej krawędzi kafelka na płótnie
+         */
+        public int getLeft() {
+            return column * TILE_SIZE;
+        }
+
+        /**
+         * @return współrzędna y górnej krawędzi kafelka na płótnie
+         */
+        public int getTop() {
+            return row * TILE_SIZE;
+        }
+
+        public Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        public Canvas getCanvas() {
+            return canvas;
+        }
+
+        public boolean isDirty() {
+            return dirty;
+        }
+
+        public void setDirty(boolean dirty) {
+            this.dirty = dirty;
+        }
+    }
+
+    //Kafelki w pamięci, indeksowane numerem wiersza i kolumny
+    private Tile[] grid = new Tile[0];
+    //Kafelki w pamięci w kolejności dodania
+    private final List<Tile> resident = new ArrayList<>();
+    private int columns;
+    private int rows;
+    private int maxTiles;
+    //Licznik użyć kafelków do wyboru najdawniej używanego
+    private long useCounter;
+
+    /**
+     * Konstruktor.
+     * @param maxTiles - maksymalna liczba kafelków w pamięci
+     */
+    public TileCache(int maxTiles) {
+        setMaxTiles(maxTiles);
+    }
+
+    /**
+     * Ustawia rozmiar płótna. Usuwa wszystkie kafelki.
+     * @param width - szerokość płótna
+     * @param height - wysokość płótna
+     */
+    public void setCanvasSize(int width, int height) {
+        clear();
+        columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        grid = new Tile[columns * rows];
+    }
+
+    /**
+     * Ustawia maksymalną liczbę kafelków w pamięci.
+     * Limit powinien obejmować co najmniej wszystkie kafelki widoczne jednocześnie.
+     * @param maxTiles - maksymalna liczba kafelków, co najmniej 1
+     */
+    public void setMaxTiles(int maxTiles) {
+        if (maxTiles < 1) {
+            throw new IllegalArgumentException("Liczba kafelków musi być dodatnia: " + maxTiles);
+        }
+        this.maxTiles = maxTiles;
+        while (resident.size() > maxTiles) {
+            evict().getBitmap().recycle();
+        }
+    }
+
+    /**
+     * @return maksymalna liczba kafelków w pamięci
+     */
+    public int getMaxTiles() {
+        return maxTiles;
+    }
+
+    /**
+     * @return liczba kolumn kafelków płótna
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return liczba wierszy kafelków płótna
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return liczba kafelków w pamięci
+     */
+    public int size() {
+        return resident.size();
+    }
+
+    /**
+     * Zwraca kafelek, tworząc go w razie potrzeby. Nowy kafelek jest oznaczony jako nieaktualny.
+     * @param column - kolumna kafelka
+     * @param row - wiersz kafelka
+     * @return kafelek
+     */
+    public Tile get(int column, int row) {
+        int index = row * columns + column;
+        Tile tile = grid[index];
+        if (tile == null) {
+            Bitmap bitmap;
+            if (resident.size() >= maxTiles) {
+                //Bitmapa najdawniej używanego kafelka zostaje wykorzystana ponownie
+                bitmap = evict().getBitmap();
+            } else {
+                bitmap = Bitmap.createBitmap(TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+            }
+            tile = new Tile(column, row, bitmap);
+            grid[index] = tile;
+            resident.add(tile);
+        }
+        tile.lastUsed = ++useCounter;
+        return tile;
+    }
+
+    /**
+     * Zwraca kafelek tylko, jeśli jest w pamięci.
+     * @param column - kolumna kafelka
+     * @param row - wiersz kafelka
+     * @return kafelek lub null
+     */
+    public Tile peek(int column, int row) {
+        return grid[row * columns + column];
+    }
+
+    /**
+     * Oznacza kafelki w pamięci przecinające prostokąt płótna jako nieaktualne.
+     * @param left - lewa krawędź
+     * @param top - górna krawędź
+     * @param right - prawa krawędź
+     * @param bottom - dolna krawędź
+     */
+    public void invalidate(float left, float top, float right, float bottom) {
+        if (grid.length == 0) {
+            return;
+        }
+        int firstColumn = firstColumn(left);
+        int lastColumn = lastColumn(right);
+        int firstRow = firstRow(top);
+        int lastRow = lastRow(bottom);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Tile tile = grid[row * columns + column];
+                if (tile != null) {
+                    tile.dirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Oznacza wszystkie kafelki jako nieaktualne.
+     */
+    public void invalidateAll() {
+        for (Tile tile : resident) {
+            tile.dirty = true;
+        }
+    }
+
+    /**
+     * Usuwa wszystkie kafelki i zwalnia ich bitmapy.
+     */
+    public void clear() {
+        for (Tile tile : resident) {
+            tile.getBitmap().recycle();
+        }
+        resident.clear();
+        grid = new Tile[columns * rows];
+    }
+
+    /**
+     * Zwraca pierwszą kolumnę kafelków obejmującą współrzędną, ograniczoną do płótna.
+     * @param x - współrzędna x płótna
+     * @return numer kolumny
+     */
+    public int firstColumn(float x) {
+        return clamp((int) Math.floor(x / TILE_SIZE), columns);
+    }
+
+    /**
+     * Zwraca ostatnią kolumnę kafelków obejmującą współrzędną, ograniczoną do płótna.
+     * @param x - współrzędna x płótna
+     * @return numer kolumny
+     */
+    public int lastColumn(float x) {
+        return clamp((int) Math.ceil(x / TILE_SIZE) - 1, columns);
+    }
+
+    /**
+     * Zwraca pierwszy wiersz kafelków obejmujący współrzędną, ograniczony do płótna.
+     * @param y - współrzędna y płótna
+     * @return numer wiersza
+     */
+    public int firstRow(float y) {
+        return clamp((int) Math.floor(y / TILE_SIZE), rows);
+    }
+
+    /**
+     * Zwraca ostatni wiersz kafelków obejmujący współrzędną, ograniczony do płótna.
+     * @param y - współrzędna y płótna
+     * @return numer wiersza
+     */
+    public int lastRow(float y) {
+        return clamp((int) Math.ceil(y / TILE_SIZE) - 1, rows);
+    }
+
+    private static int clamp(int index, int count) {
+        return Math.max(0, Math.min(index, count - 1));
+    }
+
+    /**
+     * Usuwa z pamięci najdawniej używany kafelek.
+     */
+    private Tile evict() {
+        int eldest = 0;
+        for (int i = 1; i < resident.size(); i++) {
+            if (resident.get(i).lastUsed < resident.get(eldest).lastUsed) {
+                eldest = i;
+            }
+        }
+        Tile tile = resident.remove(eldest);
+        grid[tile.getRow() * columns + tile.getColumn()] = null;
+        return tile;
+    }
+}
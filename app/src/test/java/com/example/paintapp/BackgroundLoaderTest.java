@@ -0,0 +1,19 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testy doboru pomniejszenia wczytywanego obrazu.
+ */
+public class BackgroundLoaderTest {
+
+    @Test
+    public void inSampleSize_keepsImageAtLeastTargetSize() {
+        //Zdjęcie 48 MP (8000x6000) dla widoku 1080x680
+        assertEquals(4, BackgroundLoader.calculateInSampleSize(8000, 6000, 1080, 680));
+        assertEquals(1, BackgroundLoader.calculateInSampleSize(1000, 800, 1080, 680));
+        assertEquals(2, BackgroundLoader.calculateInSampleSize(2160, 1360, 1080, 680));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.example.paintapp.TestStrokes.line;
+import static org.junit.Assert.*;
+
+/**
+ * Testy bieżącego zapisu dokumentu.
+ */
+public class DocumentAutosaveTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("autosave", ".pntd");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void undoAndLayerChanges_areAppended() throws IOException {
+        File file = tempFile();
+        //Zapisy wykonywane są od razu w wątku testu
+        DocumentAutosave autosave = new DocumentAutosave(file, Runnable::run);
+        autosave.strokeAdded(line(0, 0, 10, 10), 0);
+        autosave.strokeAdded(line(5, 5, 20, 20), 0);
+        long written = file.length();
+
+        autosave.strokeRemoved(0, 1);
+        DrawingDocument.DocumentLayer settings = new DrawingDocument.DocumentLayer("Warstwa 1", null);
+        settings.setVisible(false);
+        autosave.layerChanged(0, settings);
+
+        //Cofnięcie i zmiana warstwy dopisują kilka bajtów zamiast przepisywać plik
+        assertTrue(file.length() > written);
+        assertTrue(file.length() < written + 32);
+        DrawingDocument read = DocumentAutosave.restore(file);
+        assertEquals(1, read.getStrokes().size());
+        assertFalse(read.getLayers().get(0).isVisible());
+    }
+
+    @Test
+    public void savedDocument_isFollowedByAppendedChanges() throws IOException {
+        File file = tempFile();
+        DocumentAutosave autosave = new DocumentAutosave(file, Runnable::run);
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(line(0, 0, 10, 10));
+        document.getStrokes().add(line(5, 5, 20, 20));
+
+        autosave.save(document);
+        autosave.strokeAdded(line(30, 30, 40, 40), 0);
+        autosave.strokeRemoved(0, 0);
+
+        DrawingDocument read = DocumentAutosave.restore(file);
+        assertEquals(2, read.getStrokes().size());
+        assertEquals(5, read.getStrokes().get(0).getX(0), 0);
+        assertEquals(30, read.getStrokes().get(1).getX(0), 0);
+    }
+
+    @Test
+    public void deadRecords_triggerCompaction() throws IOException {
+        File file = tempFile();
+        DocumentAutosave autosave = new DocumentAutosave(file, Runnable::run);
+        autosave.strokeAdded(line(0, 0, 10, 10), 0);
+        long longest = 0;
+        //Każde cofnięcie pozostawia w pliku dwa nieaktualne rekordy
+        for (int i = 0; i <= DocumentAutosave.MIN_DEAD_RECORDS / 2; i++) {
+            autosave.strokeAdded(line(i, 0, i, 100), 0);
+            autosave.strokeRemoved(0, 1);
+            longest = Math.max(longest, file.length());
+        }
+
+        DrawingDocument read = DocumentAutosave.restore(file);
+        assertEquals(1, read.getStrokes().size());
+        //Po kompaktowaniu plik zawiera tylko pozostałą ścieżkę
+        assertTrue(file.length() < longest / 10);
+    }
+}
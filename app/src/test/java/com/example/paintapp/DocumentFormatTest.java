@@ -0,0 +1,283 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.paintapp.TestStrokes.BLACK;
+import static com.example.paintapp.TestStrokes.line;
+import static org.junit.Assert.*;
+
+/**
+ * Testy formatu dokumentu rysunku.
+ */
+public class DocumentFormatTest {
+
+    private static final StrokeStyle RED = StrokeStyle.of(0xFFFF0000, 12.5f, BrushStyle.DASHED, false);
+
+    @Test
+    public void document_roundTripsStrokesStylesAndBackground() throws IOException {
+        DrawingDocument document = new DrawingDocument();
+        document.setBackgroundUri("content://media/external/images/1");
+        document.getStrokes().add(line(BLACK, 0, 0, 10.5f, 20.25f, -3, 400));
+        document.getStrokes().add(new Stroke(RED, ShapeType.STAR, new float[]{5, 5, 50, 60}, 2));
+        document.getStrokes().add(line(BLACK, 1, 1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DocumentWriter(out).writeDocument(document);
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals("content://media/external/images/1", read.getBackgroundUri());
+        assertEquals(3, read.getStrokes().size());
+        Stroke first = read.getStrokes().get(0);
+        assertEquals(BLACK, first.getStyle());
+        assertEquals(ShapeType.LINE, first.getShape());
+        assertArrayEquals(new float[]{0, 0, 10.5f, 20.25f, -3, 400}, first.getPoints(), 0);
+        assertEquals(RED, read.getStrokes().get(1).getStyle());
+        assertEquals(ShapeType.STAR, read.getStrokes().get(1).getShape());
+        assertEquals(BLACK, read.getStrokes().get(2).getStyle());
+    }
+
+    @Test
+    public void layers_roundTripWithSettingsAndStrokes() throws IOException {
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(line(BLACK, 0, 0, 1, 1));
+        DrawingDocument.DocumentLayer top = new DrawingDocument.DocumentLayer("Cienie", new ArrayList<>());
+        top.setVisible(false);
+        top.setOpacity(0.5f);
+        top.setBlendMode(BlendMode.MULTIPLY);
+        top.getStrokes().add(line(RED, 2, 2, 3, 3));
+        top.getStrokes().add(line(BLACK, 4, 4));
+        document.getLayers().add(top);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DocumentWriter(out).writeDocument(document);
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(2, read.getLayers().size());
+        DrawingDocument.DocumentLayer first = read.getLayers().get(0);
+        assertEquals(DrawingDocument.defaultLayerName(0), first.getName());
+        assertTrue(first.isVisible());
+        assertEquals(BlendMode.NORMAL, first.getBlendMode());
+        assertEquals(1, first.getStrokes().size());
+        DrawingDocument.DocumentLayer second = read.getLayers().get(1);
+        assertEquals("Cienie", second.getName());
+        assertFalse(second.isVisible());
+        assertEquals(0.5f, second.getOpacity(), 0.01f);
+        assertEquals(BlendMode.MULTIPLY, second.getBlendMode());
+        assertEquals(2, second.getStrokes().size());
+        assertEquals(RED, second.getStrokes().get(0).getStyle());
+    }
+
+    @Test
+    public void appendedStroke_usesStylesRegisteredFromRewrittenDocument() throws IOException {
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(line(RED, 0, 0, 1, 1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DocumentWriter(out).writeDocument(document);
+
+        //Dopisanie przez nowy obiekt zapisu, tak jak po kompaktowaniu
+        DocumentWriter appender = new DocumentWriter(out);
+        appender.registerStyles(document);
+        appender.writeStroke(line(RED, 2, 2, 3, 3), 0);
+        appender.writeStroke(line(BLACK, 4, 4), 0);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(3, read.getStrokes().size());
+        assertEquals(RED, read.getStrokes().get(1).getStyle());
+        assertEquals(BLACK, read.getStrokes().get(2).getStyle());
+    }
+
+    @Test
+    public void truncatedLastRecord_isSkipped() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(out);
+        writer.writeHeader();
+        writer.writeStroke(line(BLACK, 0, 0, 100, 100), 0);
+        int complete = out.size();
+        writer.writeStroke(line(BLACK, 5, 5, 6, 6, 7, 7), 0);
+
+        byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(bytes));
+
+        assertTrue(bytes.length > complete);
+        assertEquals(1, read.getStrokes().size());
+    }
+
+    @Test
+    public void points_areDeltaEncoded() throws IOException {
+        float[] points = new float[2000];
+        for (int i = 0; i < points.length; i += 2) {
+            points[i] = 1000 + i * 0.25f;
+            points[i + 1] = 2000 - i * 0.25f;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(out);
+        writer.writeHeader();
+        writer.writeStroke(line(BLACK, points), 0);
+
+        //Małe przyrosty zajmują po jednym bajcie na współrzędną
+        assertTrue(out.size() < points.length + 64);
+    }
+
+    @Test
+    public void strokes_areDecodedOnFirstUse() throws IOException {
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(line(BLACK, 10, 20, 30, 40));
+        document.getStrokes().add(new Stroke(RED, ShapeType.ARROW, new float[]{0, 0, 90, 0}, 2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DocumentWriter(out).writeDocument(document);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+        Stroke line = read.getStrokes().get(0);
+        Stroke arrow = read.getStrokes().get(1);
+        float[] bounds = new float[4];
+        line.getBounds(bounds);
+
+        assertFalse(line.isMaterialized());
+        assertEquals(2, line.getPointCount());
+        assertArrayEquals(new float[]{10, 20, 30, 40}, bounds, 0);
+        //Granice nieodczytanej strzałki obejmują grot wystający poza punkty
+        arrow.getBounds(bounds);
+        assertTrue(bounds[1] < 0);
+        assertFalse(arrow.isMaterialized());
+
+        assertEquals(30, line.getX(1), 0);
+        assertTrue(line.isMaterialized());
+    }
+
+    @Test
+    public void unreadStrokes_areCopiedWithoutDecoding() throws IOException {
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(line(BLACK, 0, 0, 1.5f, -2, 300, 7));
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        new DocumentWriter(first).writeDocument(document);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(first.toByteArray()));
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        new DocumentWriter(second).writeDocument(read);
+
+        assertFalse(read.getStrokes().get(0).isMaterialized());
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+    }
+
+    @Test
+    public void pressures_roundTripAndAreCopiedWithoutDecoding() throws IOException {
+        StrokeStyle pressure = StrokeStyle.of(0xFF000000, 10, BrushStyle.PRESSURE, false);
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(new Stroke(pressure, ShapeType.LINE,
+                new float[]{0, 0, 10, 0, 20, 0}, new float[]{0.2f, 1f, 0f}, 3));
+        document.getStrokes().add(line(BLACK, 0, 0, 5, 5));
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        new DocumentWriter(first).writeDocument(document);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(first.toByteArray()));
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        new DocumentWriter(second).writeDocument(read);
+
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        assertArrayEquals(new float[]{0.2f, 1f, 0f}, read.getStrokes().get(0).getPressures(), 1 / 255f);
+        assertNull(read.getStrokes().get(1).getPressures());
+    }
+
+    @Test
+    public void changeRecords_areReplayedInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(out);
+        writer.writeHeader();
+        writer.writeStroke(line(BLACK, 0, 0, 1, 1), 0);
+        writer.writeStroke(line(BLACK, 2, 2, 3, 3), 0);
+        writer.writeStroke(line(BLACK, 4, 4, 5, 5), 0);
+        writer.writeRemoveStroke(0, 1);
+        writer.writeInsertStroke(line(RED, 6, 6, 7, 7), 0, 0);
+        writer.writeReplaceStroke(line(RED, 8, 8, 9, 9), 0, 2);
+        DrawingDocument.DocumentLayer top = new DrawingDocument.DocumentLayer("Góra", new ArrayList<>());
+        top.setOpacity(0.5f);
+        top.getStrokes().add(line(BLACK, 10, 10));
+        writer.writeInsertLayer(0, top);
+        writer.writeClearLayer(1);
+        writer.writeStroke(line(RED, 11, 11), 1);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(2, read.getLayers().size());
+        DrawingDocument.DocumentLayer inserted = read.getLayers().get(0);
+        assertEquals("Góra", inserted.getName());
+        assertEquals(0.5f, inserted.getOpacity(), 0.01f);
+        assertEquals(1, inserted.getStrokes().size());
+        List<Stroke> strokes = read.getLayers().get(1).getStrokes();
+        assertEquals(1, strokes.size());
+        assertArrayEquals(new float[]{11, 11}, strokes.get(0).getPoints(), 0);
+    }
+
+    @Test
+    public void removedAndReplacedStrokes_keepOrderOfOthers() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(out);
+        writer.writeHeader();
+        writer.writeStroke(line(BLACK, 0, 0), 0);
+        writer.writeStroke(line(BLACK, 1, 1), 0);
+        writer.writeStroke(line(BLACK, 2, 2), 0);
+        writer.writeRemoveStroke(0, 1);
+        writer.writeInsertStroke(line(RED, 5, 5), 0, 1);
+        writer.writeReplaceStroke(line(RED, 9, 9), 0, 0);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(3, read.getStrokes().size());
+        assertEquals(9, read.getStrokes().get(0).getX(0), 0);
+        assertEquals(5, read.getStrokes().get(1).getX(0), 0);
+        assertEquals(2, read.getStrokes().get(2).getX(0), 0);
+    }
+
+    @Test
+    public void removedLayer_shiftsHigherLayers() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(out);
+        writer.writeHeader();
+        writer.writeStroke(line(BLACK, 0, 0), 0);
+        writer.writeLayer(1, new DrawingDocument.DocumentLayer("Cienie", new ArrayList<>()));
+        writer.writeStroke(line(RED, 1, 1), 1);
+        writer.writeRemoveLayer(0);
+        writer.writeStroke(line(RED, 2, 2), 0);
+
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(1, read.getLayers().size());
+        assertEquals("Cienie", read.getLayers().get(0).getName());
+        assertEquals(2, read.getStrokes().size());
+    }
+
+    @Test
+    public void encode_returnsDocumentWithinLimit() throws IOException {
+        DrawingDocument document = new DrawingDocument();
+        document.getStrokes().add(line(RED, 0, 0, 10, 10, 20, 5));
+
+        byte[] bytes = DocumentWriter.encode(document, 1024);
+
+        assertNotNull(bytes);
+        DrawingDocument read = DocumentReader.read(ByteBuffer.wrap(bytes));
+        assertEquals(1, read.getStrokes().size());
+        assertEquals(RED, read.getStrokes().get(0).getStyle());
+    }
+
+    @Test
+    public void encode_stopsAtLimit() {
+        DrawingDocument document = new DrawingDocument();
+        for (int i = 0; i < 1000; i++) {
+            document.getStrokes().add(line(BLACK, i, 0, i + 50, 100, i, 200));
+        }
+
+        assertNull(DocumentWriter.encode(document, 1024));
+    }
+
+    @Test(expected = IOException.class)
+    public void foreignFile_isRejected() throws IOException {
+        DocumentReader.read(ByteBuffer.wrap(new byte[]{'G', 'I', 'F', '8', '9'}));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.paintapp.TestStrokes.line;
+import static org.junit.Assert.*;
+
+/**
+ * Testy historii operacji rysowania.
+ */
+public class DrawingHistoryTest {
+
+    @Test
+    public void undoRedo_addCommand() {
+        List<String> strokes = new ArrayList<>();
+        DrawingHistory history = new DrawingHistory();
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "a"));
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "b"));
+
+        assertTrue(history.undo());
+        assertEquals(Arrays.asList("a"), strokes);
+        assertTrue(history.redo());
+        assertEquals(Arrays.asList("a", "b"), strokes);
+        assertFalse(history.redo());
+    }
+
+    @Test
+    public void removeCommand_restoresOriginalPositions() {
+        List<String> strokes = new ArrayList<>(Arrays.asList("a", "b", "c", "d", "e"));
+        DrawingHistory history = new DrawingHistory();
+        history.execute(new DrawingHistory.RemoveCommand<>(strokes, Arrays.asList("d", "b")));
+
+        assertEquals(Arrays.asList("a", "c", "e"), strokes);
+        assertTrue(history.undo());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), strokes);
+        assertTrue(history.redo());
+        assertEquals(Arrays.asList("a", "c", "e"), strokes);
+    }
+
+    @Test
+    public void newCommand_dropsRedo() {
+        List<String> strokes = new ArrayList<>();
+        DrawingHistory history = new DrawingHistory();
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "a"));
+        history.undo();
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "b"));
+
+        assertFalse(history.canRedo());
+        assertEquals(Arrays.asList("b"), strokes);
+    }
+
+    @Test
+    public void clearCommand_isUndoable() {
+        List<String> strokes = new ArrayList<>(Arrays.asList("a", "b"));
+        DrawingHistory history = new DrawingHistory();
+        history.execute(new DrawingHistory.ClearCommand<>(strokes));
+        assertTrue(strokes.isEmpty());
+
+        history.undo();
+        assertEquals(Arrays.asList("a", "b"), strokes);
+    }
+
+    @Test
+    public void maxDepth_dropsOldestCommands() {
+        List<String> strokes = new ArrayList<>();
+        DrawingHistory history = new DrawingHistory(2);
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "a"));
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "b"));
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "c"));
+
+        assertEquals(2, history.size());
+        while (history.undo()) {
+            //Cofanie wszystkich zapamiętanych operacji
+        }
+        assertEquals(Arrays.asList("a"), strokes);
+    }
+
+    @Test
+    public void amend_joinsReplacementWithLastCommand() {
+        List<String> strokes = new ArrayList<>();
+        DrawingHistory history = new DrawingHistory();
+        DrawingHistory.Command add = new DrawingHistory.AddCommand<>(strokes, "raw");
+        history.execute(add);
+
+        assertTrue(history.amend(add, new DrawingHistory.ReplaceCommand<>(strokes,
+                Arrays.asList("raw"), Arrays.asList("simple"))));
+        assertEquals(Arrays.asList("simple"), strokes);
+        assertEquals(1, history.size());
+        //Jedno cofnięcie usuwa uproszczoną ścieżkę
+        assertTrue(history.undo());
+        assertTrue(strokes.isEmpty());
+        assertTrue(history.redo());
+        assertEquals(Arrays.asList("simple"), strokes);
+    }
+
+    @Test
+    public void amend_isRejectedAfterAnotherCommand() {
+        List<String> strokes = new ArrayList<>();
+        DrawingHistory history = new DrawingHistory();
+        DrawingHistory.Command add = new DrawingHistory.AddCommand<>(strokes, "raw");
+        history.execute(add);
+        history.execute(new DrawingHistory.AddCommand<>(strokes, "next"));
+
+        assertFalse(history.amend(add, new DrawingHistory.ReplaceCommand<>(strokes,
+                Arrays.asList("raw"), Arrays.asList("simple"))));
+        assertEquals(Arrays.asList("raw", "next"), strokes);
+    }
+
+    @Test
+    public void estimateBytes_countsStrokesHeldOnlyByHistory() {
+        Stroke raw = line(0, 0, 1, 1, 2, 2, 3, 3);
+        Stroke simple = line(0, 0, 3, 3);
+        Stroke erased = line(5, 5, 6, 6);
+        List<Stroke> strokes = new ArrayList<>(Arrays.asList(erased));
+        DrawingHistory history = new DrawingHistory();
+        DrawingHistory.Command add = new DrawingHistory.AddCommand<>(strokes, raw);
+        history.execute(add);
+        history.amend(add, new DrawingHistory.ReplaceCommand<>(strokes, Arrays.asList(raw), Arrays.asList(simple)));
+        history.execute(new DrawingHistory.RemoveCommand<>(strokes, Arrays.asList(erased)));
+
+        //Historia przechowuje zastąpioną ścieżkę i usuniętą ścieżkę
+        assertEquals(raw.estimateBytes() + erased.estimateBytes(), history.estimateBytes());
+        //Po cofnięciu usunięta ścieżka wraca na listę
+        history.undo();
+        assertEquals(raw.estimateBytes(), history.estimateBytes());
+        //Po cofnięciu dodania żadna z dwóch wersji ścieżki nie jest na liście
+        history.undo();
+        assertEquals(raw.estimateBytes() + simple.estimateBytes(), history.estimateBytes());
+    }
+}
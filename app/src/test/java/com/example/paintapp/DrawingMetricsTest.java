@@ -0,0 +1,62 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testy pomiarów wydajności rysowania.
+ */
+public class DrawingMetricsTest {
+
+    @Test
+    public void summary_usesLatestSamplesOnly() {
+        DrawingMetrics metrics = new DrawingMetrics(100);
+        //Starsze próbki zostają nadpisane przez nowsze
+        for (int i = 0; i < 100; i++) {
+            metrics.record(DrawingMetrics.Metric.FRAME_TIME, 1_000_000_000L);
+        }
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(DrawingMetrics.Metric.FRAME_TIME, i);
+        }
+
+        DrawingMetrics.Summary summary = metrics.summary(DrawingMetrics.Metric.FRAME_TIME);
+        assertEquals(200, summary.count);
+        assertEquals(50, summary.p50);
+        assertEquals(90, summary.p90);
+        assertEquals(99, summary.p99);
+        assertEquals(100, summary.max);
+    }
+
+    @Test
+    public void disabledMetrics_ignoreSamples() {
+        DrawingMetrics metrics = new DrawingMetrics();
+        List<Long> received = new ArrayList<>();
+        metrics.setListener((metric, value) -> received.add(value));
+        metrics.record(DrawingMetrics.Metric.INPUT_LATENCY, 5);
+        metrics.setEnabled(false);
+        metrics.record(DrawingMetrics.Metric.INPUT_LATENCY, 7);
+
+        assertEquals(1, metrics.summary(DrawingMetrics.Metric.INPUT_LATENCY).count);
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void dump_listsEveryMetric() throws IOException {
+        DrawingMetrics metrics = new DrawingMetrics();
+        metrics.record(DrawingMetrics.Metric.FRAME_TIME, 16_000_000);
+        metrics.setModelBytes(4096);
+        metrics.setHistoryBytes(2048);
+        StringBuilder out = new StringBuilder();
+        metrics.dump(out);
+
+        assertTrue(out.toString().contains("Czas klatki: n=1 p50=16.0ms"));
+        assertTrue(out.toString().contains("Pamięć rysunku: 4 kB"));
+        assertTrue(out.toString().contains("Pamięć historii: 2 kB"));
+        assertEquals(DrawingMetrics.Metric.values().length + 2, out.toString().split("\n").length);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testy wypełniania obszaru wiadrem z farbą.
+ */
+public class FloodFillTest {
+
+    private static final int WHITE = 0xFFFFFFFF;
+    private static final int BLACK = 0xFF000000;
+
+    private static int[] image(int width, int height) {
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, WHITE);
+        return pixels;
+    }
+
+    private static long area(float[] rectangles) {
+        long area = 0;
+        for (int i = 0; i < rectangles.length; i += 4) {
+            area += (long) (rectangles[i + 2] - rectangles[i]) * (long) (rectangles[i + 3] - rectangles[i + 1]);
+        }
+        return area;
+    }
+
+    @Test
+    public void uniformImage_isOneRectangle() {
+        float[] rectangles = new FloodFill().fill(image(300, 200), 300, 200, 150, 100, 0);
+
+        assertArrayEquals(new float[]{0, 0, 300, 200}, rectangles, 0);
+    }
+
+    @Test
+    public void fill_stopsAtBorderAndFollowsConcaveShape() {
+        //Ramka 10x10 z przegrodą tworzącą kształt litery U
+        int width = 10;
+        int[] pixels = image(width, 10);
+        for (int i = 0; i < width; i++) {
+            pixels[i] = BLACK;
+            pixels[9 * width + i] = BLACK;
+            pixels[i * width] = BLACK;
+            pixels[i * width + 9] = BLACK;
+        }
+        for (int y = 1; y < 7; y++) {
+            pixels[y * width + 5] = BLACK;
+        }
+
+        float[] rectangles = new FloodFill().fill(pixels, width, 10, 2, 2, 0);
+
+        //Wnętrze 8x8 bez 6 pikseli przegrody
+        assertEquals(64 - 6, area(rectangles));
+        for (int i = 0; i < rectangles.length; i += 2) {
+            assertTrue(rectangles[i] >= 1 && rectangles[i] <= 9);
+            assertTrue(rectangles[i + 1] >= 1 && rectangles[i + 1] <= 9);
+        }
+    }
+
+    @Test
+    public void tolerance_includesSimilarColors() {
+        int[] pixels = image(4, 1);
+        pixels[1] = 0xFFF0F0F0;
+        pixels[2] = 0xFF808080;
+
+        assertEquals(2, area(new FloodFill().fill(pixels, 4, 1, 0, 0, 16)));
+        assertEquals(1, area(new FloodFill().fill(pixels, 4, 1, 0, 0, 0)));
+    }
+
+    @Test
+    public void pointOutsideImage_fillsNothing() {
+        assertEquals(0, new FloodFill().fill(image(4, 4), 4, 4, 4, 0, 0).length);
+    }
+
+    @Test
+    public void fillStroke_isHitInsideArea() {
+        float[] rectangles = new FloodFill().fill(image(100, 100), 100, 100, 0, 0, 0);
+        Stroke stroke = new Stroke(StrokeStyle.of(BLACK, 5, BrushStyle.NORMAL, false), ShapeType.FILL,
+                rectangles, rectangles.length / 2);
+
+        assertTrue(new StrokeHitTester().hits(stroke, 50, 50, 1));
+        assertFalse(new StrokeHitTester().hits(stroke, 150, 50, 1));
+    }
+}
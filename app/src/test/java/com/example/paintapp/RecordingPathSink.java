@@ -0,0 +1,41 @@
+package com.example.paintapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zapisuje wywołania PathSink jako tekst, np. "M0,0", "L1,0", "Q1,0,2,0", "C1,0,2,0,3,0", "Z".
+ */
+class RecordingPathSink implements PathSink {
+    final List<String> ops = new ArrayList<>();
+
+    @Override
+    public void moveTo(float x, float y) {
+        ops.add("M" + x + "," + y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        ops.add("L" + x + "," + y);
+    }
+
+    @Override
+    public void quadTo(float x1, float y1, float x2, float y2) {
+        ops.add("Q" + x1 + "," + y1 + "," + x2 + "," + y2);
+    }
+
+    @Override
+    public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+        ops.add("C" + x1 + "," + y1 + "," + x2 + "," + y2 + "," + x3 + "," + y3);
+    }
+
+    @Override
+    public void close() {
+        ops.add("Z");
+    }
+
+    @Override
+    public void addOval(float left, float top, float right, float bottom) {
+        ops.add("O" + left + "," + top + "," + right + "," + bottom);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.paintapp;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sprawdza, że budowanie podglądu figur nie alokuje pamięci w każdej klatce.
+ */
+public class ShapePreviewAllocationTest {
+    private static final int FRAMES = 10000;
+
+    /**
+     * Odbiorca ścieżki działający jak PathAdapter z obiektem Path: zapisuje elementy ścieżki
+     * w tablicach, które po rewind są używane ponownie, tak jak pamięć ścieżki po Path.rewind.
+     */
+    private static class PreviewPathSink implements PathSink {
+        private final byte[] verbs = new byte[64];
+        private final float[] coordinates = new float[256];
+        private int verbCount;
+        private int coordinateCount;
+
+        void rewind() {
+            verbCount = 0;
+            coordinateCount = 0;
+        }
+
+        @Override
+        public void moveTo(float x, float y) {
+            add('M', x, y);
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            add('L', x, y);
+        }
+
+        @Override
+        public void quadTo(float x1, float y1, float x2, float y2) {
+            add('Q', x1, y1);
+            add2(x2, y2);
+        }
+
+        @Override
+        public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            add('C', x1, y1);
+            add2(x2, y2);
+            add2(x3, y3);
+        }
+
+        @Override
+        public void close() {
+            verbs[verbCount++] = 'Z';
+        }
+
+        @Override
+        public void addOval(float left, float top, float right, float bottom) {
+            add('O', left, top);
+            add2(right, bottom);
+        }
+
+        private void add(char verb, float x, float y) {
+            verbs[verbCount++] = (byte) verb;
+            add2(x, y);
+        }
+
+        private void add2(float x, float y) {
+            coordinates[coordinateCount++] = x;
+            coordinates[coordinateCount++] = y;
+        }
+    }
+
+    @Test
+    public void shapePreview_doesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Brak pomiaru alokacji wątku", bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue("Brak pomiaru alokacji wątku",
+                threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+        PreviewPathSink sink = new PreviewPathSink();
+        float[] points = new float[4];
+        float[] previousBounds = new float[4];
+        float[] bounds = new float[4];
+
+        for (ShapeType shape : ShapeType.selectable()) {
+            //Rozgrzewka, aby pominąć ładowanie klas
+            drag(shape, points, sink, previousBounds, bounds, FRAMES);
+
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            drag(shape, points, sink, previousBounds, bounds, FRAMES);
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+            //Nawet jedna alokacja na klatkę dałaby co najmniej 16 bajtów * FRAMES
+            assertTrue(shape + " alokuje " + allocated + " B", allocated < FRAMES);
+        }
+    }
+
+    /**
+     * Powtarza to, co DrawingView robi przy każdym ruchu palca z figurą: granice poprzedniego
+     * i nowego podglądu do odświeżenia, a w klatce przebudowę ścieżki podglądu.
+     */
+    private static void drag(ShapeType shape, float[] points, PreviewPathSink sink,
+                             float[] previousBounds, float[] bounds, int frames) {
+        for (int i = 0; i < frames; i++) {
+            points[0] = 10;
+            points[1] = 20;
+            points[2] = 10 + (i + 299) % 300;
+            points[3] = 20 + (i + 199) % 200;
+            shape.previewBounds(points, previousBounds);
+            points[2] = 10 + i % 300;
+            points[3] = 20 + i % 200;
+            shape.previewBounds(points, bounds);
+            sink.rewind();
+            shape.outline(points, 2, sink);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testy geometrii figur.
+ */
+public class ShapesTest {
+
+    @Test
+    public void star_hasTwoVerticesPerCorner() {
+        RecordingPathSink sink = new RecordingPathSink();
+        ShapeType.STAR.outline(new float[]{0, 0, 100, 100}, 2, sink);
+
+        //Ruch do pierwszego wierzchołka, 9 odcinków i zamknięcie
+        assertEquals(11, sink.ops.size());
+        assertEquals("M50.0,0.0", sink.ops.get(0));
+    }
+
+    @Test
+    public void arrowHead_extendsBounds() {
+        float[] points = {0, 0, 90, 0};
+        float[] bounds = {0, 0, 90, 0};
+        ShapeType.ARROW.bounds(points, 2, bounds);
+
+        assertEquals(-30, bounds[1], 0.001);
+        assertEquals(120, bounds[2], 0.001);
+    }
+
+    @Test
+    public void fromName_returnsRegisteredShape() {
+        for (ShapeType type : ShapeType.values()) {
+            assertSame(type, ShapeType.fromName(type.getShapeName()));
+        }
+    }
+}
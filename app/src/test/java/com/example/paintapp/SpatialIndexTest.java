@@ -0,0 +1,195 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.paintapp.TestStrokes.line;
+import static org.junit.Assert.*;
+
+/**
+ * Testy indeksu przestrzennego ścieżek.
+ */
+public class SpatialIndexTest {
+
+    private static final StrokeStyle THIN = StrokeStyle.of(0xFF000000, 2, BrushStyle.NORMAL, false);
+
+    @Test
+    public void queryRect_returnsIntersectingStrokesOnceInDrawingOrder() {
+        SpatialIndex index = new SpatialIndex(100);
+        Stroke longLine = line(THIN, 0, 50, 950, 50);
+        Stroke near = line(THIN, 10, 10, 20, 20);
+        Stroke far = line(THIN, 5000, 5000, 5010, 5010);
+        index.add(near, 2);
+        index.add(longLine, 1);
+        index.add(far, 3);
+
+        List<Stroke> result = index.queryRect(0, 0, 500, 100, new ArrayList<>());
+
+        assertEquals(2, result.size());
+        assertSame(longLine, result.get(0));
+        assertSame(near, result.get(1));
+    }
+
+    @Test
+    public void queryPoint_usesStrokeWidth() {
+        SpatialIndex index = new SpatialIndex();
+        Stroke stroke = line(THIN, 100, 100, 200, 100);
+        index.add(stroke, 1);
+
+        assertEquals(1, index.queryPoint(150, 101.5f, new ArrayList<>()).size());
+        assertEquals(0, index.queryPoint(150, 110, new ArrayList<>()).size());
+    }
+
+    @Test
+    public void strokeList_findsPositionByDrawingOrder() {
+        StrokeList strokes = new StrokeList();
+        Stroke a = line(THIN, 0, 0, 1, 1);
+        Stroke b = line(THIN, 2, 2, 3, 3);
+        Stroke c = line(THIN, 4, 4, 5, 5);
+        strokes.add(a);
+        strokes.add(b);
+        strokes.add(c);
+        strokes.remove(0);
+        strokes.add(0, a);
+
+        assertEquals(0, strokes.indexOf(a));
+        assertEquals(2, strokes.indexOf(c));
+        strokes.remove(b);
+        assertEquals(1, strokes.indexOf(c));
+        assertEquals(-1, strokes.indexOf(b));
+        assertFalse(strokes.contains(b));
+    }
+
+    @Test
+    public void hitTester_measuresDistanceToOutline() {
+        StrokeHitTester tester = new StrokeHitTester();
+        Stroke stroke = line(THIN, 100, 100, 200, 100);
+        Stroke square = new Stroke(THIN, ShapeType.RECTANGLE, new float[]{0, 0, 100, 100}, 2);
+
+        assertTrue(tester.hits(stroke, 150, 105, 5));
+        assertFalse(tester.hits(stroke, 150, 110, 5));
+        assertFalse(tester.hits(stroke, 250, 100, 5));
+        //Wnętrze figury nie jest jej linią
+        assertTrue(tester.hits(square, 2, 50, 2));
+        assertFalse(tester.hits(square, 50, 50, 5));
+    }
+
+    @Test
+    public void removedAndOversizedStrokes() {
+        SpatialIndex index = new SpatialIndex(10);
+        Stroke huge = new Stroke(THIN, ShapeType.RECTANGLE, new float[]{0, 0, 10000, 10000}, 2);
+        Stroke small = line(THIN, 5, 5, 6, 6);
+        index.add(huge, 1);
+        index.add(small, 2);
+
+        assertEquals(2, index.queryPoint(5, 5, new ArrayList<>()).size());
+        assertTrue(index.remove(small));
+        assertFalse(index.remove(small));
+        assertEquals(1, index.queryRect(4000, 4000, 4001, 4001, new ArrayList<>()).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void strokeList_keepsIndexInSyncWithHistory() {
+        StrokeList strokes = new StrokeList();
+        DrawingHistory history = new DrawingHistory();
+        Stroke first = line(THIN, 0, 0, 10, 10);
+        Stroke second = line(THIN, 5, 5, 15, 15);
+        history.execute(new DrawingHistory.AddCommand<>(strokes, first));
+        history.execute(new DrawingHistory.AddCommand<>(strokes, second));
+        history.execute(new DrawingHistory.ClearCommand<>(strokes));
+
+        assertEquals(0, strokes.getIndex().size());
+        history.undo();
+        history.undo();
+        assertEquals(1, strokes.getIndex().size());
+        //Wstawienie na początek listy przesuwa ścieżkę w kolejności rysowania
+        strokes.add(0, second);
+        List<Stroke> result = strokes.getIndex().queryPoint(7, 7, new ArrayList<>());
+        assertSame(second, result.get(0));
+        assertSame(first, result.get(1));
+    }
+
+    @Test
+    public void strokeList_undoneRemovalRestoresDrawingOrderWithoutRenumbering() {
+        StrokeList strokes = new StrokeList();
+        List<Stroke> removed = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            strokes.add(line(THIN, i, i, i + 1, i + 1));
+            if (i >= 3 && i <= 6) {
+                removed.add(strokes.get(i));
+            }
+        }
+        Stroke last = strokes.get(9);
+        long lastOrder = strokes.getIndex().getOrder(last);
+        DrawingHistory history = new DrawingHistory();
+        history.execute(new DrawingHistory.RemoveCommand<>(strokes, removed));
+        history.undo();
+
+        //Ścieżki wstawione po kolei odzyskują pierwotne odstępy, a pozostałe zachowują kolejność
+        assertEquals(lastOrder, strokes.getIndex().getOrder(last));
+        for (int i = 0; i < strokes.size(); i++) {
+            assertEquals((i + 1) * StrokeList.ORDER_GAP, strokes.getIndex().getOrder(strokes.get(i)));
+        }
+    }
+
+    @Test
+    public void strokeList_renumbersWhenGapIsExhausted() {
+        StrokeList strokes = new StrokeList();
+        Stroke first = line(THIN, 0, 0, 1, 1);
+        Stroke last = line(THIN, 2, 2, 3, 3);
+        strokes.add(first);
+        strokes.add(last);
+        //Każde wstawienie tuż za pierwszą ścieżką dzieli odstęp na pół
+        List<Stroke> inserted = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Stroke stroke = line(THIN, i, 0, i + 1, 0);
+            strokes.add(1, stroke);
+            inserted.add(0, stroke);
+        }
+
+        assertEquals(0, strokes.indexOf(first));
+        for (int i = 0; i < inserted.size(); i++) {
+            assertEquals(i + 1, strokes.indexOf(inserted.get(i)));
+        }
+        assertEquals(31, strokes.indexOf(last));
+    }
+
+    @Test
+    public void manyAddedAndRemovedStrokes_matchBruteForceQuery() {
+        SpatialIndex index = new SpatialIndex(16);
+        List<Stroke> live = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            float x = random.nextInt(2000) - 1000;
+            float y = random.nextInt(2000) - 1000;
+            Stroke stroke = line(THIN, x, y, x + random.nextInt(60), y + random.nextInt(60));
+            //Kolejność rysowania malejąca, aby wyniki z komórek trzeba było sortować
+            index.add(stroke, 10_000 - i);
+            live.add(0, stroke);
+            if (random.nextInt(3) == 0) {
+                Stroke removed = live.remove(random.nextInt(live.size()));
+                assertTrue(index.remove(removed));
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            float left = random.nextInt(2000) - 1000;
+            float top = random.nextInt(2000) - 1000;
+            List<Stroke> expected = new ArrayList<>();
+            for (Stroke stroke : live) {
+                float[] bounds = new float[4];
+                stroke.getBounds(bounds);
+                float padding = stroke.getStyle().padding(stroke.getShape());
+                if (bounds[0] - padding <= left + 100 && bounds[2] + padding >= left
+                        && bounds[1] - padding <= top + 100 && bounds[3] + padding >= top) {
+                    expected.add(stroke);
+                }
+            }
+            assertEquals(expected, index.queryRect(left, top, left + 100, top + 100, new ArrayList<>()));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.paintapp.TestStrokes.BLACK;
+import static com.example.paintapp.TestStrokes.wave;
+import static org.junit.Assert.*;
+
+/**
+ * Testy upraszczania linii odręcznych.
+ */
+public class StrokeSimplifierTest {
+
+    @Test
+    public void straightLine_becomesSingleCurve() {
+        Stroke simplified = new StrokeSimplifier(0.5f).simplify(wave(BLACK, 200, 0));
+
+        assertEquals(ShapeType.CURVE, simplified.getShape());
+        assertEquals(4, simplified.getPointCount());
+        assertEquals(0, simplified.getX(0), 0);
+        assertEquals(199, simplified.getX(3), 0);
+    }
+
+    @Test
+    public void renderedCurve_staysWithinToleranceOfRenderedLine() {
+        //Punkty co kilka pikseli wzdłuż falistej linii, jak przy szybkim rysowaniu palcem
+        Stroke original = new Stroke(BLACK, ShapeType.LINE);
+        for (int i = 0; i < 120; i++) {
+            original.addPoint(i * 6, (float) (40 * Math.sin(i / 7.0)));
+        }
+        Stroke simplified = new StrokeSimplifier(0.5f).simplify(original);
+
+        assertTrue(simplified.getPointCount() * 2 < original.getPointCount());
+        FlatteningPathSink before = new FlatteningPathSink();
+        original.buildPath(before);
+        FlatteningPathSink after = new FlatteningPathSink();
+        simplified.buildPath(after);
+        //Odległość w obie strony między rysowanymi liniami, z zapasem na spłaszczenie krzywych
+        assertTrue(after.maxDistanceTo(before) <= 0.5f + FlatteningPathSink.EPSILON);
+        assertTrue(before.maxDistanceTo(after) <= 0.5f + FlatteningPathSink.EPSILON);
+    }
+
+    @Test
+    public void pressureLinesErasersAndShapes_areNotSimplified() {
+        StrokeSimplifier simplifier = new StrokeSimplifier(0.5f);
+        StrokeStyle pressure = StrokeStyle.of(0xFF000000, 5, BrushStyle.PRESSURE, false);
+        StrokeStyle eraser = StrokeStyle.of(0xFFFFFFFF, 20, BrushStyle.NORMAL, true);
+
+        assertNull(simplifier.simplify(wave(pressure, 100, 0)));
+        assertNull(simplifier.simplify(wave(eraser, 100, 0)));
+        assertNull(simplifier.simplify(new Stroke(BLACK, ShapeType.RECTANGLE, new float[]{0, 0, 5, 5}, 2)));
+    }
+
+    @Test
+    public void curve_isDrawnFromCubicSegments() {
+        float[] points = {0, 0, 10, 20, 20, 20, 30, 0, 40, -20, 50, -20, 60, 0};
+        Stroke curve = new Stroke(BLACK, ShapeType.CURVE, points, 7);
+        float[] bounds = new float[4];
+        curve.getBounds(bounds);
+
+        RecordingPathSink sink = new RecordingPathSink();
+        curve.buildPath(sink);
+        assertEquals("M0.0,0.0", sink.ops.get(0));
+        assertEquals("C10.0,20.0,20.0,20.0,30.0,0.0", sink.ops.get(1));
+        assertEquals("C40.0,-20.0,50.0,-20.0,60.0,0.0", sink.ops.get(2));
+        assertEquals(3, sink.ops.size());
+        //Granice obejmują punkty kontrolne, a więc całą krzywą
+        assertTrue(bounds[1] <= -20 && bounds[3] >= 20);
+    }
+
+    /**
+     * Spłaszcza rysowaną ścieżkę do łamanej o bardzo krótkich odcinkach.
+     */
+    private static class FlatteningPathSink implements PathSink {
+        //Największy odstęp od krzywej do łamanej przy tak gęstym spłaszczeniu
+        static final float EPSILON = 0.01f;
+        private static final int STEPS = 200;
+
+        private final List<float[]> points = new ArrayList<>();
+        private float lastX, lastY;
+
+        @Override
+        public void moveTo(float x, float y) {
+            add(x, y);
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            add(x, y);
+        }
+
+        @Override
+        public void quadTo(float x1, float y1, float x2, float y2) {
+            float x0 = lastX;
+            float y0 = lastY;
+            for (int i = 1; i <= STEPS; i++) {
+                float t = (float) i / STEPS;
+                float u = 1 - t;
+                add(u * u * x0 + 2 * u * t * x1 + t * t * x2, u * u * y0 + 2 * u * t * y1 + t * t * y2);
+            }
+        }
+
+        @Override
+        public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            float x0 = lastX;
+            float y0 = lastY;
+            for (int i = 1; i <= STEPS; i++) {
+                float t = (float) i / STEPS;
+                float u = 1 - t;
+                add(u * u * u * x0 + 3 * u * u * t * x1 + 3 * u * t * t * x2 + t * t * t * x3,
+                        u * u * u * y0 + 3 * u * u * t * y1 + 3 * u * t * t * y2 + t * t * t * y3);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void addOval(float left, float top, float right, float bottom) {
+        }
+
+        private void add(float x, float y) {
+            points.add(new float[]{x, y});
+            lastX = x;
+            lastY = y;
+        }
+
+        /**
+         * Największa odległość punktów tej łamanej od drugiej łamanej.
+         */
+        float maxDistanceTo(FlatteningPathSink other) {
+            double max = 0;
+            for (float[] p : points) {
+                double min = Double.MAX_VALUE;
+                for (int i = 1; i < other.points.size(); i++) {
+                    min = Math.min(min, segmentDistance(p, other.points.get(i - 1), other.points.get(i)));
+                }
+                max = Math.max(max, min);
+            }
+            return (float) max;
+        }
+
+        private static double segmentDistance(float[] p, float[] a, float[] b) {
+            double dx = b[0] - a[0];
+            double dy = b[1] - a[1];
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : ((p[0] - a[0]) * dx + (p[1] - a[1]) * dy) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+            return Math.hypot(a[0] + t * dx - p[0], a[1] + t * dy - p[1]);
+        }
+    }
+}
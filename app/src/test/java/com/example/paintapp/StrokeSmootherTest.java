@@ -0,0 +1,92 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testy wygładzania i decymacji punktów linii.
+ */
+public class StrokeSmootherTest {
+
+    @Test
+    public void pointsCloserThanMinDistance_areDropped() {
+        RecordingPathSink sink = new RecordingPathSink();
+        StrokeSmoother smoother = new StrokeSmoother(sink);
+        smoother.begin(0, 0);
+
+        assertFalse(smoother.addPoint(0.5f, 0.5f));
+        assertTrue(smoother.addPoint(10, 0));
+        assertEquals(2, smoother.getPointCount());
+    }
+
+    @Test
+    public void straightLine_keepsOnlyFewPoints() {
+        RecordingPathSink sink = new RecordingPathSink();
+        StrokeSmoother smoother = new StrokeSmoother(sink);
+        smoother.begin(0, 0);
+        for (int x = 1; x <= 200; x++) {
+            smoother.addPoint(x, 0);
+        }
+        smoother.end(200, 0);
+
+        //Co najwyżej jeden punkt na maksymalną odległość
+        assertTrue(smoother.getPointCount() <= 200 / StrokeSmoother.DEFAULT_MAX_DISTANCE + 3);
+        assertEquals("L200.0,0.0", sink.ops.get(sink.ops.size() - 1));
+    }
+
+    @Test
+    public void curve_emitsQuadSegmentsThroughMidpoints() {
+        RecordingPathSink sink = new RecordingPathSink();
+        StrokeSmoother smoother = new StrokeSmoother(sink);
+        smoother.begin(0, 0);
+        smoother.addPoint(10, 0);
+        smoother.addPoint(10, 10);
+        smoother.end(10, 10);
+
+        assertEquals("M0.0,0.0", sink.ops.get(0));
+        assertEquals("L5.0,0.0", sink.ops.get(1));
+        assertEquals("Q10.0,0.0,10.0,5.0", sink.ops.get(2));
+        assertEquals("L10.0,10.0", sink.ops.get(3));
+    }
+
+    @Test
+    public void emit_matchesIncrementalSmoothing() {
+        RecordingPathSink live = new RecordingPathSink();
+        StrokeSmoother smoother = new StrokeSmoother(live);
+        Stroke stroke = new Stroke(StrokeStyle.of(0, 5, BrushStyle.NORMAL, false), ShapeType.LINE);
+        smoother.begin(0, 0);
+        stroke.addPoint(0, 0);
+        for (int i = 1; i < 50; i++) {
+            float x = i * 3;
+            float y = (float) Math.sin(i / 5.0) * 40;
+            if (smoother.addPoint(x, y)) {
+                stroke.addPoint(x, y);
+            }
+        }
+        if (smoother.end(150, 0)) {
+            stroke.addPoint(150, 0);
+        }
+
+        RecordingPathSink rebuilt = new RecordingPathSink();
+        stroke.buildPath(rebuilt);
+        assertEquals(live.ops, rebuilt.ops);
+    }
+
+    @Test
+    public void nextCurve_startsAtLastMidpointWithLastPointAsControl() {
+        RecordingPathSink sink = new RecordingPathSink();
+        StrokeSmoother smoother = new StrokeSmoother(sink);
+        smoother.begin(0, 0);
+        smoother.addPoint(10, 0);
+        //Punkt na przedłużeniu odcinka jest pomijany, a ścieżka nadal kończy się w środku odcinka
+        assertFalse(smoother.addPoint(14, 0));
+
+        assertEquals(10, smoother.getLastX(), 0);
+        assertEquals(5, smoother.getMidX(), 0);
+        assertTrue(smoother.addPoint(20, 10));
+        assertEquals("Q10.0,0.0,15.0,5.0", sink.ops.get(sink.ops.size() - 1));
+        assertEquals(15, smoother.getMidX(), 0);
+        assertEquals(5, smoother.getMidY(), 0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.paintapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testy modelu ścieżki.
+ */
+public class StrokeTest {
+
+    @Test
+    public void addPoint_growsBufferAndTracksBounds() {
+        Stroke stroke = new Stroke(StrokeStyle.of(0, 5, BrushStyle.NORMAL, false), ShapeType.LINE);
+        for (int i = 0; i < 100; i++) {
+            stroke.addPoint(i, -i);
+        }
+        stroke.trimToSize();
+
+        assertEquals(100, stroke.getPointCount());
+        assertEquals(200, stroke.getPoints().length);
+        assertEquals(99, stroke.getX(99), 0);
+        assertEquals(0, stroke.getLeft(), 0);
+        assertEquals(-99, stroke.getTop(), 0);
+        assertEquals(99, stroke.getRight(), 0);
+        assertEquals(0, stroke.getBottom(), 0);
+    }
+
+    @Test
+    public void equalStyles_areShared() {
+        StrokeStyle a = StrokeStyle.of(0xFF0000FF, 5, BrushStyle.DASHED, false);
+        StrokeStyle b = StrokeStyle.of(0xFF0000FF, 5, BrushStyle.DASHED, false);
+        StrokeStyle c = StrokeStyle.of(0xFF0000FF, 6, BrushStyle.DASHED, false);
+
+        assertSame(a, b);
+        assertNotSame(a, c);
+    }
+
+    @Test
+    public void internedStyles_areBounded() {
+        for (int i = 0; i < StrokeStyle.MAX_INTERNED * 2; i++) {
+            StrokeStyle.of(0xFF000000 | i, 3, BrushStyle.NORMAL, false);
+        }
+        StrokeStyle first = StrokeStyle.of(0xFF000000, 3, BrushStyle.NORMAL, false);
+
+        assertTrue(StrokeStyle.internedCount() <= StrokeStyle.MAX_INTERNED);
+        //Usunięta z pamięci instancja jest nadal równa nowej
+        assertEquals(StrokeStyle.of(0xFF000000, 3, BrushStyle.NORMAL, false), first);
+    }
+
+    @Test
+    public void rectangle_usesFirstAndLastPoint() {
+        Stroke stroke = new Stroke(StrokeStyle.of(0, 5, BrushStyle.NORMAL, false), ShapeType.RECTANGLE,
+                new float[]{10, 20, 0, 0}, 2);
+        RecordingPathSink sink = new RecordingPathSink();
+        stroke.buildPath(sink);
+
+        assertEquals("M0.0,0.0", sink.ops.get(0));
+        assertEquals("L10.0,20.0", sink.ops.get(2));
+        assertEquals("Z", sink.ops.get(4));
+    }
+
+    @Test
+    public void taperedOutline_narrowsAtEnds() {
+        float[] points = new float[40];
+        for (int i = 0; i < 20; i++) {
+            points[i * 2] = i * 10;
+            points[i * 2 + 1] = 50;
+        }
+        RecordingPathSink sink = new RecordingPathSink();
+        new TaperedOutline().build(points, null, 20, 10, sink);
+
+        //Lewa i prawa krawędź po jednym wierzchołku na punkt oraz zamknięcie
+        assertEquals(41, sink.ops.size());
+        assertEquals("Z", sink.ops.get(40));
+        float startWidth = halfWidthAt(sink, 0);
+        float middleWidth = halfWidthAt(sink, 10);
+        assertTrue(startWidth < 1);
+        assertTrue(middleWidth > 2 && middleWidth <= 5);
+    }
+
+    @Test
+    public void taperedOutline_followsRecordedPressure() {
+        Stroke stroke = new Stroke(StrokeStyle.of(0xFF000000, 10, BrushStyle.PRESSURE, false), ShapeType.LINE);
+        for (int i = 0; i < 20; i++) {
+            //Mocny nacisk w pierwszej połowie linii, lekki w drugiej
+            stroke.addPoint(i * 10, 50, i < 10 ? 1f : 0f);
+        }
+        RecordingPathSink sink = new RecordingPathSink();
+        new TaperedOutline().build(stroke.getPoints(), stroke.getPressures(), stroke.getPointCount(), 10, sink);
+
+        assertEquals(5, halfWidthAt(sink, 6), 0.01f);
+        assertTrue(halfWidthAt(sink, 14) < 3);
+    }
+
+    @Test
+    public void pressures_fillPointsAddedWithoutPressure() {
+        Stroke stroke = new Stroke(StrokeStyle.of(0xFF000000, 10, BrushStyle.PRESSURE, false), ShapeType.LINE);
+        stroke.addPoint(0, 0);
+        assertNull(stroke.getPressures());
+        for (int i = 1; i < 40; i++) {
+            stroke.addPoint(i, 0, 0.5f);
+        }
+        stroke.addPoint(40, 0, 2f);
+        stroke.trimToSize();
+
+        float[] pressures = stroke.getPressures();
+        assertEquals(41, pressures.length);
+        assertEquals(1f, pressures[0], 0);
+        assertEquals(0.5f, pressures[39], 0);
+        assertEquals(1f, pressures[40], 0);
+    }
+
+    private static float halfWidthAt(RecordingPathSink sink, int index) {
+        //Wierzchołek lewej krawędzi, np. "L100.0,47.5"
+        String op = sink.ops.get(index);
+        return Math.abs(50 - Float.parseFloat(op.substring(op.indexOf(',') + 1)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.paintapp;
+
+/**
+ * Wspólne style i ścieżki używane w testach.
+ */
+final class TestStrokes {
+    static final StrokeStyle BLACK = StrokeStyle.of(0xFF000000, 5, BrushStyle.NORMAL, false);
+
+    private TestStrokes() {
+    }
+
+    /**
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @return czarna linia odręczna przez podane punkty
+     */
+    static Stroke line(float... points) {
+        return line(BLACK, points);
+    }
+
+    /**
+     * @param style - styl linii
+     * @param points - współrzędne punktów zapisane parami x, y
+     * @return linia odręczna przez podane punkty
+     */
+    static Stroke line(StrokeStyle style, float... points) {
+        return new Stroke(style, ShapeType.LINE, points, points.length / 2);
+    }
+
+    /**
+     * @param style - styl linii
+     * @param count - liczba punktów, co 1 px w poziomie
+     * @param amplitude - wysokość fali, 0 dla linii prostej
+     * @return linia odręczna wzdłuż sinusoidy
+     */
+    static Stroke wave(StrokeStyle style, int count, float amplitude) {
+        Stroke stroke = new Stroke(style, ShapeType.LINE);
+        for (int i = 0; i < count; i++) {
+            stroke.addPoint(i, (float) Math.sin(i / 40.0) * amplitude);
+        }
+        return stroke;
+    }
+}
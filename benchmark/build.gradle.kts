@@ -0,0 +1,53 @@
+// Pomiary wydajności modelu rysunku na JVM (JMH).
+// Uruchomienie: ./gradlew :benchmark:jmh, wyniki w benchmark/build/results/jmh.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Klasy modelu aplikacji niezależne od Androida, kompilowane bezpośrednio ze źródeł modułu app
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include(
+                "com/example/paintapp/BlendMode.java",
+                "com/example/paintapp/BrushStyle.java",
+                "com/example/paintapp/DocumentReader.java",
+                "com/example/paintapp/DocumentWriter.java",
+                "com/example/paintapp/DrawingDocument.java",
+                "com/example/paintapp/DrawingHistory.java",
+                "com/example/paintapp/FloodFill.java",
+                "com/example/paintapp/PathSink.java",
+                "com/example/paintapp/Shape.java",
+                "com/example/paintapp/ShapeType.java",
+                "com/example/paintapp/Shapes.java",
+                "com/example/paintapp/SpatialIndex.java",
+                "com/example/paintapp/Stroke.java",
+                "com/example/paintapp/StrokeHitTester.java",
+                "com/example/paintapp/StrokeList.java",
+                "com/example/paintapp/StrokeSimplifier.java",
+                "com/example/paintapp/StrokeSmoother.java",
+                "com/example/paintapp/StrokeStyle.java",
+                "com/example/paintapp/TaperedOutline.java"
+            )
+        }
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // Profil gc podaje tempo alokacji (gc.alloc.rate.norm) dla każdej operacji
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    // Ślad dotyku nagrany w aplikacji można podać przez -PtouchTrace=plik
+    if (project.hasProperty("touchTrace")) {
+        benchmarkParameters.put("tracePath", project.objects.listProperty(String::class.java)
+            .value(listOf(project.property("touchTrace").toString())))
+    }
+}
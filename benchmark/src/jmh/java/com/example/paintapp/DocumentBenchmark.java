@@ -0,0 +1,85 @@
+package com.example.paintapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pomiary zapisu i odczytu dokumentu rysunku w formacie DocumentWriter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int strokes;
+
+    //Plik śladu dotyku, pusty napis oznacza ślad syntetyczny
+    @Param("")
+    public String tracePath;
+
+    private DrawingDocument document;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TouchTrace trace = TouchTrace.load(tracePath, 42);
+        StrokeSmoother smoother = new StrokeSmoother(new TouchTrace.CountingSink());
+        StrokeStyle[] styles = {
+                StrokeStyle.of(0xFF000000, 5, BrushStyle.NORMAL, false),
+                StrokeStyle.of(0xFFFF0000, 12, BrushStyle.DASHED, false),
+                StrokeStyle.of(0xFF0000FF, 3, BrushStyle.PRESSURE, false)
+        };
+        document = new DrawingDocument();
+        for (int i = 0; i < strokes; i++) {
+            document.getStrokes().add(trace.replay(i, styles[i % styles.length], smoother));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DocumentWriter(out).writeDocument(document);
+        bytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        new DocumentWriter(out).writeDocument(document);
+        return out.size();
+    }
+
+    /**
+     * Otwarcie dokumentu: odczyt nagłówków ścieżek bez dekodowania punktów.
+     */
+    @Benchmark
+    public DrawingDocument open() throws IOException {
+        return DocumentReader.read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Otwarcie dokumentu i odczyt punktów wszystkich ścieżek, jak przy pierwszym pełnym rysowaniu.
+     */
+    @Benchmark
+    public float openAndDecode() throws IOException {
+        float sum = 0;
+        for (Stroke stroke : DocumentReader.read(ByteBuffer.wrap(bytes)).getStrokes()) {
+            sum += stroke.getX(stroke.getPointCount() - 1);
+        }
+        return sum;
+    }
+}
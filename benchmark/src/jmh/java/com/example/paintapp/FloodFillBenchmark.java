@@ -0,0 +1,72 @@
+package com.example.paintapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pomiar wypełnienia wiadrem z farbą na obrazie o rozmiarze ekranu telefonu.
+ * Obraz to białe tło z losowymi liniami, które dzielą obszar wypełnienia na wiele odcinków.
+ * Czas obejmuje wyznaczenie obszaru i połączenie odcinków w prostokąty.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloodFillBenchmark {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2340;
+
+    //Liczba linii przecinających obraz
+    @Param({"0", "20", "200"})
+    public int lines;
+
+    private final FloodFill floodFill = new FloodFill();
+    private final int[] pixels = new int[WIDTH * HEIGHT];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        Random random = new Random(42);
+        for (int i = 0; i < lines; i++) {
+            //Ukośne linie o grubości 3 px z przerwą, aby obszar pozostał spójny
+            int x0 = random.nextInt(WIDTH);
+            int y0 = random.nextInt(HEIGHT);
+            int x1 = random.nextInt(WIDTH);
+            int y1 = random.nextInt(HEIGHT);
+            int steps = Math.max(Math.abs(x1 - x0), Math.abs(y1 - y0));
+            for (int s = 0; s < steps * 9 / 10; s++) {
+                int x = x0 + (x1 - x0) * s / Math.max(steps, 1);
+                int y = y0 + (y1 - y0) * s / Math.max(steps, 1);
+                for (int dy = -1; dy <= 1; dy++) {
+                    int row = y + dy;
+                    if (row >= 0 && row < HEIGHT) {
+                        pixels[row * WIDTH + x] = 0xFF000000;
+                    }
+                }
+            }
+        }
+        //Punkt początkowy wypełnienia musi leżeć na tle
+        pixels[0] = 0xFFFFFFFF;
+    }
+
+    @Benchmark
+    public float[] fillScreen() {
+        return floodFill.fill(pixels, WIDTH, HEIGHT, 0, 0, 32);
+    }
+}
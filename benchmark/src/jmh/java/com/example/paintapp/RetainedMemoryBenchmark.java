@@ -0,0 +1,92 @@
+package com.example.paintapp;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pomiar pamięci zajmowanej przez rysunek z indeksem przestrzennym i historią operacji.
+ * Wynik retainedBytes to przyrost zajętej sterty po odśmiecaniu, estimatedBytes to szacunek ścieżek
+ * z Stroke.estimateBytes, z którym porównywany jest pomiar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RetainedMemoryBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int strokes;
+
+    //Plik śladu dotyku, pusty napis oznacza ślad syntetyczny
+    @Param("")
+    public String tracePath;
+
+    private TouchTrace trace;
+
+    /**
+     * Liczniki zgłaszane przez JMH jako dodatkowe wyniki pomiaru.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public long retainedBytes;
+        public long estimatedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        trace = TouchTrace.load(tracePath, 42);
+    }
+
+    /**
+     * Rysunek budowany tak jak w aplikacji: każda ścieżka zatwierdzana jest przez historię.
+     */
+    @Benchmark
+    public Object commitAll(Memory memory) {
+        StrokeStyle style = StrokeStyle.of(0xFF000000, 5, BrushStyle.NORMAL, false);
+        StrokeSmoother smoother = new StrokeSmoother(new TouchTrace.CountingSink());
+        long before = usedMemory();
+        StrokeList list = new StrokeList();
+        DrawingHistory history = new DrawingHistory();
+        long estimated = 0;
+        for (int i = 0; i < strokes; i++) {
+            Stroke stroke = trace.replay(i, style, smoother);
+            estimated += stroke.estimateBytes();
+            history.execute(new DrawingHistory.AddCommand<>(list, stroke));
+        }
+        memory.retainedBytes = usedMemory() - before;
+        memory.estimatedBytes = estimated;
+        //Zwrócenie obu obiektów utrzymuje je przy życiu do końca pomiaru
+        return new Object[]{list, history};
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        //Kilka przebiegów odśmiecania, aż zajęta pamięć przestanie maleć
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                break;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
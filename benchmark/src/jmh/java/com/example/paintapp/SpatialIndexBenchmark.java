@@ -0,0 +1,127 @@
+package com.example.paintapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pomiar zapytań indeksu przestrzennego o obszar kafelka w porównaniu z przeglądaniem wszystkich ścieżek
+ * oraz pomiar jednego punktu gestu gumki ścieżek: wyszukanie kandydatów, dokładny test trafienia,
+ * usunięcie trafionych ścieżek z listy i przywrócenie ich, aby rysunek nie zmieniał się w trakcie pomiaru.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialIndexBenchmark {
+    //Rozmiar płótna w pikselach
+    private static final int CANVAS_SIZE = 8192;
+    //Bok kafelka jak w TileCache, który zależy od Androida i nie należy do tego modułu
+    private static final int TILE_SIZE = 256;
+    //Liczba przygotowanych zapytań, używanych po kolei
+    private static final int QUERIES = 1024;
+    private static final float ERASER_RADIUS = 10;
+
+    @Param({"10000", "100000"})
+    public int strokes;
+
+    private final StrokeHitTester hitTester = new StrokeHitTester();
+    private final List<Stroke> out = new ArrayList<>();
+    private final float[] bounds = new float[4];
+    private List<Stroke> all;
+    private StrokeList list;
+    private float[] queries;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        StrokeStyle style = StrokeStyle.of(0xFF000000, 5, BrushStyle.NORMAL, false);
+        all = new ArrayList<>(strokes);
+        list = new StrokeList();
+        for (int i = 0; i < strokes; i++) {
+            //Krótkie ścieżki, jak przy odręcznym rysowaniu
+            float x = random.nextFloat() * CANVAS_SIZE;
+            float y = random.nextFloat() * CANVAS_SIZE;
+            Stroke stroke = new Stroke(style, ShapeType.LINE);
+            for (int p = 0; p < 16; p++) {
+                stroke.addPoint(x + random.nextFloat() * 100, y + random.nextFloat() * 100);
+            }
+            all.add(stroke);
+            list.add(stroke);
+        }
+        queries = new float[QUERIES * 2];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextFloat() * CANVAS_SIZE;
+        }
+    }
+
+    /**
+     * Wyszukanie w indeksie ścieżek przecinających kafelek, jak przy rysowaniu kafelka.
+     */
+    @Benchmark
+    public int queryTile() {
+        int q = (nextQuery++ % QUERIES) * 2;
+        out.clear();
+        return list.getIndex().queryRect(queries[q], queries[q + 1],
+                queries[q] + TILE_SIZE, queries[q + 1] + TILE_SIZE, out).size();
+    }
+
+    /**
+     * To samo zapytanie przez sprawdzenie granic wszystkich ścieżek, punkt odniesienia dla indeksu.
+     */
+    @Benchmark
+    public int scanTile() {
+        int q = (nextQuery++ % QUERIES) * 2;
+        float left = queries[q];
+        float top = queries[q + 1];
+        int found = 0;
+        for (int i = 0, n = all.size(); i < n; i++) {
+            all.get(i).getBounds(bounds);
+            if (bounds[0] <= left + TILE_SIZE && bounds[2] >= left && bounds[1] <= top + TILE_SIZE && bounds[3] >= top) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Jeden punkt gestu gumki ścieżek z usunięciem trafionych ścieżek i cofnięciem usunięcia.
+     */
+    @Benchmark
+    public int strokeEraserPoint() {
+        int q = (nextQuery++ % QUERIES) * 2;
+        float x = queries[q];
+        float y = queries[q + 1];
+        out.clear();
+        list.getIndex().queryRect(x - ERASER_RADIUS, y - ERASER_RADIUS, x + ERASER_RADIUS, y + ERASER_RADIUS, out);
+        List<Stroke> hits = new ArrayList<>();
+        for (int i = 0, n = out.size(); i < n; i++) {
+            if (hitTester.hits(out.get(i), x, y, ERASER_RADIUS)) {
+                hits.add(out.get(i));
+            }
+        }
+        if (!hits.isEmpty()) {
+            DrawingHistory.Command removal = new DrawingHistory.RemoveCommand<>(list, hits);
+            removal.apply();
+            removal.revert();
+        }
+        return hits.size();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.paintapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pomiary operacji modelu rysunku wykonywanych w wątku głównym: zatwierdzenie ścieżki
+ * z odtworzonego gestu, cofanie i przywracanie, czyszczenie, usunięcie ścieżki gumką oraz uproszczenie linii.
+ * Każda operacja jest cofana, aby rozmiar rysunku nie zmieniał się w trakcie pomiaru.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrokeModelBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int strokes;
+
+    //Plik śladu dotyku, pusty napis oznacza ślad syntetyczny
+    @Param("")
+    public String tracePath;
+
+    private TouchTrace trace;
+    private final StrokeStyle style = StrokeStyle.of(0xFF000000, 5, BrushStyle.NORMAL, false);
+    private final TouchTrace.CountingSink sink = new TouchTrace.CountingSink();
+    private final StrokeSmoother smoother = new StrokeSmoother(sink);
+    private final StrokeSimplifier simplifier = new StrokeSimplifier(StrokeSimplifier.DEFAULT_TOLERANCE);
+    private StrokeList list;
+    private DrawingHistory history;
+    private int nextGesture;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        trace = TouchTrace.load(tracePath, 42);
+        list = new StrokeList();
+        for (int i = 0; i < strokes; i++) {
+            list.add(trace.replay(i, style, smoother));
+        }
+        history = new DrawingHistory();
+        //Ostatnia ścieżka dodana przez historię, aby było co cofać
+        history.execute(new DrawingHistory.AddCommand<>(list, trace.replay(strokes, style, smoother)));
+    }
+
+    /**
+     * Odtworzenie gestu: wygładzanie i zapis punktów, bez zmiany rysunku.
+     */
+    @Benchmark
+    public Stroke capture() {
+        return trace.replay(nextGesture++, style, smoother);
+    }
+
+    /**
+     * Zatwierdzenie gestu jako ścieżki w historii i jego cofnięcie.
+     */
+    @Benchmark
+    public Stroke commitAndUndo() {
+        Stroke stroke = trace.replay(nextGesture++, style, smoother);
+        history.execute(new DrawingHistory.AddCommand<>(list, stroke));
+        history.undo();
+        return stroke;
+    }
+
+    @Benchmark
+    public int undoRedo() {
+        history.undo();
+        history.redo();
+        return list.size();
+    }
+
+    @Benchmark
+    public int clearAndUndo() {
+        history.execute(new DrawingHistory.ClearCommand<>(list));
+        history.undo();
+        return list.size();
+    }
+
+    /**
+     * Usunięcie ścieżki ze środka rysunku, jak gumką ścieżek, i przywrócenie jej na pierwotne miejsce.
+     */
+    @Benchmark
+    public int removeAndUndo() {
+        Stroke stroke = list.get(nextGesture++ % list.size());
+        history.execute(new DrawingHistory.RemoveCommand<>(list, Collections.singletonList(stroke)));
+        history.undo();
+        return list.size();
+    }
+
+    /**
+     * Uproszczenie zatwierdzonej linii i podmiana jej na liście, jak po zatwierdzeniu gestu, oraz cofnięcie podmiany.
+     */
+    @Benchmark
+    public int simplifyAndReplace() {
+        Stroke stroke = list.get(nextGesture++ % list.size());
+        Stroke simplified = simplifier.simplify(stroke);
+        if (simplified != null) {
+            history.execute(new DrawingHistory.ReplaceCommand<>(list,
+                    Collections.singletonList(stroke), Collections.singletonList(simplified)));
+            history.undo();
+        }
+        return list.size();
+    }
+}
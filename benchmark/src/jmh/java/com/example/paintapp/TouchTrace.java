@@ -0,0 +1,171 @@
+package com.example.paintapp;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ślad dotyku: surowe próbki kolejnych gestów, odtwarzane przez pomiary tak jak zdarzenia MotionEvent.
+ * Plik śladu zawiera jedną próbkę "x y" w wierszu, a gesty oddzielone są pustym wierszem.
+ * Bez pliku tworzony jest powtarzalny ślad syntetyczny o podobnej gęstości próbek.
+ */
+final class TouchTrace {
+    //Rozmiar płótna śladu syntetycznego
+    private static final int CANVAS_SIZE = 4096;
+
+    private final List<float[]> gestures;
+
+    private TouchTrace(List<float[]> gestures) {
+        this.gestures = gestures;
+    }
+
+    /**
+     * Wczytuje ślad z pliku lub tworzy ślad syntetyczny, jeśli ścieżka jest pusta.
+     * @param path - ścieżka pliku śladu lub pusty napis
+     * @param seed - ziarno śladu syntetycznego
+     * @return ślad
+     * @throws IOException błąd odczytu
+     */
+    static TouchTrace load(String path, long seed) throws IOException {
+        if (path == null || path.isEmpty()) {
+            return synthetic(1000, seed);
+        }
+        List<float[]> gestures = new ArrayList<>();
+        List<Float> samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    addGesture(gestures, samples);
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                samples.add(Float.parseFloat(parts[0]));
+                samples.add(Float.parseFloat(parts[1]));
+            }
+        }
+        addGesture(gestures, samples);
+        if (gestures.isEmpty()) {
+            throw new IOException("Pusty ślad dotyku: " + path);
+        }
+        return new TouchTrace(gestures);
+    }
+
+    /**
+     * Tworzy ślad odręcznych gestów: błądzenie losowe z próbkami co kilka pikseli,
+     * jak przy odczycie ekranu z częstotliwością 120 Hz.
+     * @param count - liczba gestów
+     * @param seed - ziarno
+     * @return ślad
+     */
+    static TouchTrace synthetic(int count, long seed) {
+        Random random = new Random(seed);
+        List<float[]> gestures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int samples = 20 + random.nextInt(60);
+            float[] gesture = new float[samples * 2];
+            float x = random.nextFloat() * CANVAS_SIZE;
+            float y = random.nextFloat() * CANVAS_SIZE;
+            float angle = random.nextFloat() * 6.2832f;
+            for (int s = 0; s < samples; s++) {
+                angle += random.nextFloat() * 0.6f - 0.3f;
+                float step = 2 + random.nextFloat() * 10;
+                x += (float) Math.cos(angle) * step;
+                y += (float) Math.sin(angle) * step;
+                gesture[s * 2] = x;
+                gesture[s * 2 + 1] = y;
+            }
+            gestures.add(gesture);
+        }
+        return new TouchTrace(gestures);
+    }
+
+    /**
+     * @param index - numer gestu, ślad powtarzany jest cyklicznie
+     * @return próbki gestu zapisane parami x, y
+     */
+    float[] gesture(int index) {
+        return gestures.get(index % gestures.size());
+    }
+
+    /**
+     * Odtwarza gest tak jak DrawingView: próbki przechodzą przez wygładzanie,
+     * a zatwierdzone punkty trafiają do ścieżki.
+     * @param index - numer gestu
+     * @param style - styl ścieżki
+     * @param smoother - wygładzanie z odbiorcą geometrii podglądu
+     * @return zatwierdzona ścieżka
+     */
+    Stroke replay(int index, StrokeStyle style, StrokeSmoother smoother) {
+        float[] samples = gesture(index);
+        int count = samples.length / 2;
+        Stroke stroke = new Stroke(style, ShapeType.LINE);
+        smoother.begin(samples[0], samples[1]);
+        stroke.addPoint(samples[0], samples[1]);
+        for (int s = 1; s < count - 1; s++) {
+            if (smoother.addPoint(samples[s * 2], samples[s * 2 + 1])) {
+                stroke.addPoint(samples[s * 2], samples[s * 2 + 1]);
+            }
+        }
+        float endX = samples[(count - 1) * 2];
+        float endY = samples[(count - 1) * 2 + 1];
+        if (smoother.end(endX, endY)) {
+            stroke.addPoint(endX, endY);
+        }
+        stroke.trimToSize();
+        return stroke;
+    }
+
+    private static void addGesture(List<float[]> gestures, List<Float> samples) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        float[] gesture = new float[samples.size()];
+        for (int i = 0; i < gesture.length; i++) {
+            gesture[i] = samples.get(i);
+        }
+        gestures.add(gesture);
+        samples.clear();
+    }
+
+    /**
+     * Odbiorca geometrii podglądu, który jedynie zlicza elementy, aby nie zostały usunięte przez JIT.
+     */
+    static final class CountingSink implements PathSink {
+        long elements;
+
+        @Override
+        public void moveTo(float x, float y) {
+            elements++;
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            elements++;
+        }
+
+        @Override
+        public void quadTo(float x1, float y1, float x2, float y2) {
+            elements++;
+        }
+
+        @Override
+        public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            elements++;
+        }
+
+        @Override
+        public void close() {
+            elements++;
+        }
+
+        @Override
+        public void addOval(float left, float top, float right, float bottom) {
+            elements++;
+        }
+    }
+}